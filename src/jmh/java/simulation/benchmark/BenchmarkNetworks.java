@@ -0,0 +1,90 @@
+package simulation.benchmark;
+
+import simulation.network.entity.EndpointNode;
+import simulation.network.entity.Payload;
+import simulation.network.router.Switch;
+import simulation.network.topology.ArrayTopololgy;
+import simulation.network.topology.ButterflyTopology;
+import simulation.network.topology.DragonflyTopology;
+import simulation.network.topology.SimpleTopology;
+import simulation.util.Pair;
+import simulation.util.rng.DegenerateDistribution;
+import simulation.util.rng.RandomNumberGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contains utility methods for building networks of switches for benchmarks.
+ */
+class BenchmarkNetworks {
+
+    private static final double MESSAGE_CHANNEL_SUCCESS_RATE = 1;
+    private static final RandomNumberGenerator SWITCH_PROCESSING_TIME_GENERATOR = new DegenerateDistribution(1);
+
+    /**
+     * Returns {@code numNodes} endpoints that are not connected to any network.
+     */
+    static List<EndpointNode<Object>> createEndpoints(int numNodes) {
+        List<EndpointNode<Object>> endpoints = new ArrayList<>();
+        for (int i = 0; i < numNodes; i++) {
+            endpoints.add(new BenchmarkEndpoint("Val-" + i));
+        }
+        return endpoints;
+    }
+
+    /**
+     * Arranges {@code endpoints} in {@code topology} with its routing tables computed.
+     * The network parameters of the topology are those used by the {@code BenchmarkCorpus}.
+     *
+     * @param topology One of clique, torus, dragonfly, butterfly and foldedclos.
+     */
+    static List<List<Switch<Object>>> arrangeInTopology(String topology, List<EndpointNode<Object>> endpoints) {
+        List<Integer> networkParameters = BenchmarkCorpus.getNetworkParameters(topology, endpoints.size());
+        switch (topology) {
+            case "clique":
+                return SimpleTopology.arrangeCliqueStructure(endpoints, MESSAGE_CHANNEL_SUCCESS_RATE,
+                        SWITCH_PROCESSING_TIME_GENERATOR);
+            case "torus":
+                return ArrayTopololgy.arrangeTorusStructure(endpoints, networkParameters,
+                        MESSAGE_CHANNEL_SUCCESS_RATE, SWITCH_PROCESSING_TIME_GENERATOR);
+            case "dragonfly":
+                return DragonflyTopology.arrangeDragonflyStructure(endpoints, networkParameters,
+                        MESSAGE_CHANNEL_SUCCESS_RATE, SWITCH_PROCESSING_TIME_GENERATOR);
+            case "butterfly":
+                return ButterflyTopology.arrangeButterflyStructure(endpoints, networkParameters,
+                        MESSAGE_CHANNEL_SUCCESS_RATE, SWITCH_PROCESSING_TIME_GENERATOR);
+            case "foldedclos":
+                return ButterflyTopology.arrangeFoldedClosStructure(endpoints, networkParameters,
+                        MESSAGE_CHANNEL_SUCCESS_RATE, SWITCH_PROCESSING_TIME_GENERATOR);
+            default:
+                throw new RuntimeException(String.format("The network type %s has not been defined/implemented.",
+                        topology));
+        }
+    }
+
+    /**
+     * Endpoint that only serves as a destination in a network.
+     */
+    private static class BenchmarkEndpoint extends EndpointNode<Object> {
+
+        private BenchmarkEndpoint(String name) {
+            super(name);
+        }
+
+        @Override
+        public List<Payload<Object>> initializationPayloads() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isStillRequiredToRun() {
+            return false;
+        }
+
+        @Override
+        public Pair<Double, List<Payload<Object>>> processPayload(double time, Payload<Object> payload) {
+            return new Pair<>(0.0, List.of());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package simulation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import simulation.util.rng.ExponentialDistribution;
+import simulation.util.rng.RNGUtil;
+
+/**
+ * Benchmarks the generation of random processing times.
+ */
+@State(Scope.Thread)
+public class DistributionBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"0.5", "3", "9"})
+    private double lambda;
+
+    private ExponentialDistribution distribution;
+    private double[] samples;
+
+    @Setup
+    public void setUpDistribution() {
+        RNGUtil.setSeed(0);
+        distribution = new ExponentialDistribution(lambda);
+        samples = new double[BATCH_SIZE];
+    }
+
+    @Benchmark
+    public double generateRandomNumber() {
+        return distribution.generateRandomNumber();
+    }
+
+    /**
+     * Generates a batch of samples to measure throughput without the per-call overhead of the harness.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public double[] generateRandomNumberBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            samples[i] = distribution.generateRandomNumber();
+        }
+        return samples;
+    }
+}
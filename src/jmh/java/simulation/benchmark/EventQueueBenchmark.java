@@ -0,0 +1,48 @@
+package simulation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import simulation.event.NodeEvent;
+import simulation.event.QueueEvent;
+import simulation.util.rng.ExponentialDistribution;
+import simulation.util.rng.RNGUtil;
+import simulation.util.rng.RandomNumberGenerator;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Benchmarks the event queue of the simulator.
+ *
+ * Uses the hold model, where each operation removes the earliest event and schedules a new event at an
+ * exponentially distributed time after it, keeping the number of events in the queue constant.
+ */
+@State(Scope.Thread)
+public class EventQueueBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int queueSize;
+
+    private PriorityQueue<NodeEvent<Object>> eventQueue;
+    private RandomNumberGenerator rng;
+
+    @Setup
+    public void setUpEventQueue() {
+        RNGUtil.setSeed(0);
+        rng = new ExponentialDistribution(1);
+        eventQueue = new PriorityQueue<>();
+        for (int i = 0; i < queueSize; i++) {
+            eventQueue.add(new QueueEvent<>(rng.generateRandomNumber(), null, List.of()));
+        }
+    }
+
+    @Benchmark
+    public NodeEvent<Object> pollAndAdd() {
+        NodeEvent<Object> event = eventQueue.poll();
+        eventQueue.add(new QueueEvent<>(event.getTime() + rng.generateRandomNumber(), null, List.of()));
+        return event;
+    }
+}
@@ -0,0 +1,53 @@
+package simulation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import simulation.protocol.hotstuff.HSMessage;
+import simulation.protocol.hotstuff.HSMessageHolder;
+import simulation.protocol.hotstuff.HSMessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the vote backlog of a HotStuff leader.
+ *
+ * Each operation delivers a vote from every replica for a view, checking for a quorum after each vote as a
+ * leader does, and then retrieves the quorum of votes.
+ */
+@State(Scope.Thread)
+public class HSMessageHolderBenchmark {
+
+    private static final int VIEW = 1;
+
+    @Param({"4", "16", "64", "256"})
+    private int numNodes;
+
+    private int quorum;
+    private HSMessageHolder messageHolder;
+    private List<HSMessage> votes;
+
+    @Setup
+    public void setUpMessageHolder() {
+        int f = (numNodes - 1) / 3;
+        quorum = numNodes - f;
+        messageHolder = new HSMessageHolder();
+        votes = new ArrayList<>();
+        for (int i = 0; i < numNodes; i++) {
+            votes.add(new HSMessage(i, 0, HSMessageType.PREPARE, VIEW, null, null, true));
+        }
+    }
+
+    @Benchmark
+    public void addMessageAndCheckQuorum(Blackhole blackhole) {
+        for (HSMessage vote : votes) {
+            messageHolder.addMessage(vote);
+            blackhole.consume(messageHolder.hasQuorumOfMessages(HSMessageType.PREPARE, VIEW, quorum));
+        }
+        blackhole.consume(messageHolder.getVoteMessages(HSMessageType.PREPARE, VIEW));
+    }
+}
@@ -0,0 +1,60 @@
+package simulation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import simulation.protocol.ibft.IBFTMessage;
+import simulation.protocol.ibft.IBFTMessageHolder;
+import simulation.protocol.ibft.IBFTMessageType;
+import simulation.protocol.ibft.IBFTNode;
+
+/**
+ * Benchmarks the message backlog of an IBFT validator.
+ *
+ * Each operation delivers a PREPARED and a COMMIT message from every validator for a consensus instance,
+ * running the quorum queries made by a validator after each message, and then advances the consensus instance.
+ * Messages are created during the operation as they carry the consensus instance they belong to.
+ */
+@State(Scope.Thread)
+public class IBFTMessageHolderBenchmark {
+
+    private static final int ROUND = 0;
+    private static final int VALUE = 1;
+
+    @Param({"4", "16", "64", "256"})
+    private int numNodes;
+
+    private IBFTMessageHolder messageHolder;
+    private int consensusInstance;
+
+    @Setup
+    public void setUpMessageHolder() {
+        int f = (numNodes - 1) / 3;
+        int quorum = Math.floorDiv(numNodes + f, 2) + 1;
+        consensusInstance = IBFTNode.FIRST_CONSENSUS_INSTANCE;
+        messageHolder = new IBFTMessageHolder(quorum, consensusInstance);
+    }
+
+    @Benchmark
+    public void addMessageAndCheckQuorum(Blackhole blackhole) {
+        for (int i = 0; i < numNodes; i++) {
+            messageHolder.addMessage(IBFTMessage.createValueMessage(i, 0, IBFTMessageType.PREPARED,
+                    consensusInstance, ROUND, VALUE));
+            blackhole.consume(messageHolder.hasQuorumOfSameValuedMessages(IBFTMessageType.PREPARED,
+                    consensusInstance, ROUND));
+            blackhole.consume(messageHolder.hasQuorumOfAnyValuedMessages(IBFTMessageType.PREPARED,
+                    consensusInstance, ROUND));
+        }
+        for (int i = 0; i < numNodes; i++) {
+            messageHolder.addMessage(IBFTMessage.createValueMessage(i, 0, IBFTMessageType.COMMIT,
+                    consensusInstance, ROUND, VALUE));
+            blackhole.consume(messageHolder.hasCommitQuorumOfMessages(consensusInstance));
+        }
+        blackhole.consume(messageHolder.getRoundValueToCommit(consensusInstance));
+        messageHolder.advanceConsensusInstance(consensusInstance, consensusInstance + 1);
+        consensusInstance++;
+    }
+}
@@ -0,0 +1,66 @@
+package simulation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import simulation.network.entity.EndpointNode;
+import simulation.network.router.RoutingUtil;
+import simulation.network.router.Switch;
+import simulation.util.rng.RNGUtil;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks the construction of the routing tables of all switches in a network.
+ * Network sizes are kept small as construction time grows steeply with the number of switches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class RoutingBenchmark {
+
+    @Param({"clique", "torus", "dragonfly", "foldedclos"})
+    private String topology;
+
+    @Param({"16", "32", "64"})
+    private int numNodes;
+
+    private List<Switch<Object>> switches;
+
+    @Setup(Level.Trial)
+    public void setUpNetwork() {
+        RNGUtil.setSeed(0);
+        List<EndpointNode<Object>> endpoints = BenchmarkNetworks.createEndpoints(numNodes);
+        switches = BenchmarkNetworks.arrangeInTopology(topology, endpoints).stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resets the routing tables of all switches to only contain their directly connected endpoints.
+     */
+    @Setup(Level.Invocation)
+    public void resetRoutingTables() {
+        for (Switch<Object> switch_ : switches) {
+            switch_.setSwitchNeighbors(switch_.getSwitchNeighbors());
+        }
+    }
+
+    /**
+     * Computes the routing tables from scratch as done when a topology is arranged.
+     */
+    @Benchmark
+    public List<Switch<Object>> updateRoutingTables() {
+        RoutingUtil.updateRoutingTables(switches);
+        return switches;
+    }
+}
@@ -0,0 +1,66 @@
+package simulation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import simulation.network.entity.EndpointNode;
+import simulation.network.entity.Node;
+import simulation.network.entity.Payload;
+import simulation.network.router.Switch;
+import simulation.util.rng.RNGUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks next hop lookups of switches.
+ */
+@State(Scope.Thread)
+public class SwitchBenchmark {
+
+    private static final int NUM_PAYLOADS = 1024;
+
+    @Param({"clique", "torus", "dragonfly", "foldedclos"})
+    private String topology;
+
+    @Param({"16", "32", "64"})
+    private int numNodes;
+
+    private List<Switch<Object>> switches;
+    private List<Payload<Object>> payloads;
+    private int payloadIndex;
+
+    @Setup
+    public void setUpNetwork() {
+        RNGUtil.setSeed(0);
+        List<EndpointNode<Object>> endpoints = BenchmarkNetworks.createEndpoints(numNodes);
+        switches = BenchmarkNetworks.arrangeInTopology(topology, endpoints).stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList());
+
+        Random random = new Random(0);
+        payloads = new ArrayList<>();
+        for (int i = 0; i < NUM_PAYLOADS; i++) {
+            String destination = endpoints.get(random.nextInt(numNodes)).getName();
+            payloads.add(new Payload<>(new Object(), destination, 0));
+        }
+        payloadIndex = 0;
+    }
+
+    /**
+     * Routes payloads to random destinations from a switch that is not directly connected to most of them.
+     */
+    @Benchmark
+    public void getNextNodeFor(Blackhole blackhole) {
+        Switch<Object> switch_ = switches.get(switches.size() - 1);
+        payloadIndex = (payloadIndex + 1) % NUM_PAYLOADS;
+        Node<Object> nextNode = switch_.getNextNodeFor(payloads.get(payloadIndex));
+        blackhole.consume(nextNode);
+    }
+}
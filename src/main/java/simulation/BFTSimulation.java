@@ -2,18 +2,24 @@ package simulation;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import simulation.cache.ResultCache;
+import simulation.io.AsyncFileIo;
 import simulation.io.IoInterface;
 import simulation.io.NoIo;
 import simulation.json.input.RunConfigJson;
 import simulation.json.output.QueueResultsJson;
+import simulation.json.output.RunResultsJson;
 import simulation.json.output.ValidatorResultsJson;
-import simulation.simulator.RunConfigUtil;
+import simulation.server.SimulationServer;
 import simulation.simulator.RunResults;
-import simulation.simulator.Simulator;
+import simulation.simulator.RunResultsFile;
+import simulation.simulator.SimulationEngine;
 import simulation.statistics.ConsensusStatistics;
 import simulation.statistics.QueueStatistics;
+import simulation.statistics.TimeSeriesCollector;
+import simulation.trace.FlightRecorder;
+import simulation.util.Pair;
 import simulation.util.logging.Logger;
-import simulation.util.rng.RNGUtil;
 
 import java.io.File;
 import java.io.FileReader;
@@ -22,8 +28,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.logging.LogManager;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static simulation.util.OptionUtil.extractOption;
 
 /**
  * Main driver class for simulations.
@@ -44,71 +57,277 @@ public class BFTSimulation {
      */
     private static final String SWITCH_GROUP_STATISTICS =
             JSON_DIRECTORY.resolve("switch_group_%d.json").toString();
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    /**
+     * Directory for binary results of sharded runs.
+     */
+    private static final Path SHARD_DIRECTORY = Paths.get("shards");
+    private static final String SHARD_FILENAME = "shard_%d_of_%d.bin";
+    /**
+     * Averages of runs without collected statistics are undefined and written as NaN.
+     */
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .serializeSpecialFloatingPointValues()
+            .create();
+    private static final String SERVER_OPTION = "--server";
+    private static final String CACHE_OPTION = "--cache";
+    private static final String SHARD_OPTION = "--shard";
+    private static final String METRICS_OPTION = "--metrics";
+    private static final String PROFILE_OPTION = "--profile";
+    private static final String NODE_DISTRIBUTIONS_OPTION = "--node-distributions";
+    private static final String TIME_SERIES_OPTION = "--time-series";
+    private static final String TIME_SERIES_WINDOW_OPTION = "--time-series-window";
+    private static final String DECISION_LOG_OPTION = "--decision-log";
+    private static final String RESULTS_TABLE_OPTION = "--results-table";
+    private static final String SWEEP_POINT_OPTION = "--sweep-point";
+    private static final String TRACE_OPTION = "--trace";
+    private static final String REPLAY_OPTION = "--replay";
+    private static final String FLIGHTS_OPTION = "--flights";
+    private static final String FLIGHT_SAMPLE_RATE_OPTION = "--flight-sample-rate";
+    private static final String PROGRESS_OPTION = "--progress";
+    private static final String OUTPUT_OPTION = "--output";
+    private static final String OUTPUT_POLICY_OPTION = "--output-policy";
+    private static final String MERGE_COMMAND = "merge";
 
     /**
      * Reads a runConfigJson file from {@code args} and runs a simulation based on it.
+     * If the first argument is {@code --server}, starts a simulation server instead.
+     * If the first argument is {@code merge}, merges the results of sharded runs instead.
+     * If {@code --cache <directory>} is specified, results of runs are cached in the given directory.
+     * If {@code --shard <i>/<N>} is specified, only the i-th out of N shards of the runs is simulated.
+     * If {@code --metrics <directory>} is specified, hot-path metrics of each run are written to the given directory.
+     * If {@code --profile <directory>} is specified, profiles of each run are written to the given directory.
+     * If {@code --node-distributions <directory>} is specified, the queue length and waiting time distributions of
+     * each node in each run are written to the given directory.
+     * If {@code --time-series <directory>} is specified, a windowed time-series of each run is written to the given
+     * directory, with windows of the width given by {@code --time-series-window <width>}.
+     * If {@code --decision-log <directory>} is specified, every decision of each run is logged to the given directory.
+     * If {@code --results-table <file>} is specified, the results of each run are appended to the given columnar
+     * file as the sweep point given by {@code --sweep-point <label>}, which defaults to the run configuration path.
+     * If {@code --trace <directory>} is specified, every event of each run is recorded to a binary trace in the given
+     * directory.
+     * If {@code --replay <directory>} is specified, each run is replayed against the message delivery times of its
+     * trace in the given directory instead of simulating the network.
+     * If {@code --flights <directory>} is specified, the hop-by-hop flights of a sample of the payloads of each run,
+     * sampled with the probability given by {@code --flight-sample-rate <rate>}, are written to the given directory.
+     * If {@code --progress} is specified, the progress of each run is exposed as an MBean while it runs.
+     * If {@code --output <file>} is specified, the events of each run are written to the given file by a background
+     * writer, which blocks, drops or samples output when it falls behind according to
+     * {@code --output-policy <block|drop|sample>} (defaulting to block). With {@code --shard}, only the events of
+     * the runs of the shard are written.
      */
     public static void main(String[] args) {
-        setup();
-
-        RunConfigJson runConfigJson = readFromJson(args[0], RunConfigJson.class);
+        List<String> arguments = new ArrayList<>(List.of(args));
+        ResultCache resultCache = extractOption(arguments, CACHE_OPTION)
+                .map(directory -> new ResultCache(Paths.get(directory)))
+                .orElse(null);
+        Optional<String> shard = extractOption(arguments, SHARD_OPTION);
+        Path metricsDirectory = extractOption(arguments, METRICS_OPTION).map(Paths::get).orElse(null);
+        Path profileDirectory = extractOption(arguments, PROFILE_OPTION).map(Paths::get).orElse(null);
+        Path nodeDistributionDirectory = extractOption(arguments, NODE_DISTRIBUTIONS_OPTION)
+                .map(Paths::get)
+                .orElse(null);
+        Path timeSeriesDirectory = extractOption(arguments, TIME_SERIES_OPTION).map(Paths::get).orElse(null);
+        double timeSeriesWindowWidth = extractOption(arguments, TIME_SERIES_WINDOW_OPTION)
+                .map(Double::parseDouble)
+                .orElse(TimeSeriesCollector.DEFAULT_WINDOW_WIDTH);
+        Path decisionLogDirectory = extractOption(arguments, DECISION_LOG_OPTION).map(Paths::get).orElse(null);
+        Path resultsTablePath = extractOption(arguments, RESULTS_TABLE_OPTION).map(Paths::get).orElse(null);
+        Optional<String> sweepPoint = extractOption(arguments, SWEEP_POINT_OPTION);
+        Path traceDirectory = extractOption(arguments, TRACE_OPTION).map(Paths::get).orElse(null);
+        Path replayDirectory = extractOption(arguments, REPLAY_OPTION).map(Paths::get).orElse(null);
+        Path flightDirectory = extractOption(arguments, FLIGHTS_OPTION).map(Paths::get).orElse(null);
+        double flightSampleRate = extractOption(arguments, FLIGHT_SAMPLE_RATE_OPTION)
+                .map(Double::parseDouble)
+                .orElse(FlightRecorder.DEFAULT_SAMPLE_RATE);
+        boolean isProgressRegistered = arguments.remove(PROGRESS_OPTION);
+        Path outputPath = extractOption(arguments, OUTPUT_OPTION).map(Paths::get).orElse(null);
+        AsyncFileIo.FullBufferPolicy outputPolicy = extractOption(arguments, OUTPUT_POLICY_OPTION)
+                .map(BFTSimulation::parseOutputPolicy)
+                .orElse(AsyncFileIo.FullBufferPolicy.BLOCK);
+        if (!arguments.isEmpty() && arguments.get(0).equals(SERVER_OPTION)) {
+            startServer(arguments, resultCache);
+            return;
+        } else if (!arguments.isEmpty() && arguments.get(0).equals(MERGE_COMMAND)) {
+            mergeShards(arguments.subList(1, arguments.size()));
+            return;
+        }
 
-        int numTrials = runConfigJson.getNumRuns();
-        int seedMultiplier = runConfigJson.getSeedMultiplier();
-        int startingSeed = runConfigJson.getStartingSeed();
+        RunConfigJson runConfigJson = readFromJson(arguments.get(0), RunConfigJson.class);
+        SimulationEngine.Builder engineBuilder = SimulationEngine.builder(runConfigJson)
+                .setResultCache(resultCache)
+                .setMetricsDirectory(metricsDirectory)
+                .setProfileDirectory(profileDirectory)
+                .setNodeDistributionDirectory(nodeDistributionDirectory)
+                .setTimeSeriesDirectory(timeSeriesDirectory)
+                .setTimeSeriesWindowWidth(timeSeriesWindowWidth)
+                .setDecisionLogDirectory(decisionLogDirectory)
+                .setResultsTablePath(resultsTablePath)
+                .setSweepPoint(sweepPoint.orElse(arguments.get(0)))
+                .setTraceDirectory(traceDirectory)
+                .setReplayDirectory(replayDirectory)
+                .setFlightDirectory(flightDirectory)
+                .setFlightSampleRate(flightSampleRate)
+                .setProgressRegistered(isProgressRegistered);
+        if (shard.isPresent()) {
+            IoInterface io = outputPath == null ? new NoIo() : new AsyncFileIo(outputPath, outputPolicy);
+            try {
+                runShard(engineBuilder.setIo(io), shard.get(), resultCache);
+            } finally {
+                io.close();
+            }
+            return;
+        }
+        setup();
 
-//        IoInterface io = new FileIo("output.txt");
-        IoInterface io = new NoIo();
-        RunResults runResults = null;
-        int numGroups = -1;
-        for (int i = 0; i < numTrials; i++) {
-            long seed = startingSeed + seedMultiplier * i;
-            RunResults currentRunResults = runSimulation(seed, io, runConfigJson);
+        IoInterface io = outputPath == null ? new NoIo() : new AsyncFileIo(outputPath, outputPolicy);
+        RunResults runResults;
+        try {
+            runResults = engineBuilder
+                    .setIo(io)
+                    .build()
+                    .run();
+        } finally {
+            io.close();
+        }
+        if (resultCache != null) {
+            resultCache.close();
+        }
 
-            io.output("\nSummary:");
-            io.output(currentRunResults.toString());
+        writeResults(runResults, replayDirectory == null);
+        cleanup();
+    }
 
-            runResults = runResults == null ? currentRunResults : runResults.mergeRunResults(currentRunResults);
+    /**
+     * Returns the {@code FullBufferPolicy} named {@code policy}, ignoring case.
+     */
+    private static AsyncFileIo.FullBufferPolicy parseOutputPolicy(String policy) {
+        for (AsyncFileIo.FullBufferPolicy fullBufferPolicy : AsyncFileIo.FullBufferPolicy.values()) {
+            if (fullBufferPolicy.name().equalsIgnoreCase(policy)) {
+                return fullBufferPolicy;
+            }
         }
-        io.output(runResults.toString());
-        io.close();
+        throw new RuntimeException(String.format("%s is an unrecognised output policy, which must be one of %s.",
+                policy, Arrays.stream(AsyncFileIo.FullBufferPolicy.values())
+                        .map(fullBufferPolicy -> fullBufferPolicy.name().toLowerCase())
+                        .collect(Collectors.joining(", "))));
+    }
 
+    /**
+     * Writes {@code runResults} to the validator results and switch group json files and prints a summary.
+     * The queue statistics of the validators are left out unless {@code hasQueueStatistics}, as replays of traces do
+     * not model the queues.
+     */
+    private static void writeResults(RunResults runResults, boolean hasQueueStatistics) {
         ConsensusStatistics fastestValidatorStatistics = runResults.getFastestValidatorStatistics();
         ConsensusStatistics remainderValidatorStatistics = runResults.getRemainderValidatorStatistics();
-        QueueStatistics fastestValidatorQueueStats = runResults.getFastestValidatorQueueStatistics();
-        QueueStatistics remainderValidatorQueueStats = runResults.getRemainderValidatorQueueStatistics();
+        QueueStatistics fastestValidatorQueueStats = hasQueueStatistics
+                ? runResults.getFastestValidatorQueueStatistics()
+                : null;
+        QueueStatistics remainderValidatorQueueStats = hasQueueStatistics
+                ? runResults.getRemainderValidatorQueueStatistics()
+                : null;
         List<QueueStatistics> switchStatistics = runResults.getSwitchStatistics();
-        numGroups = switchStatistics.size();
+        int numGroups = switchStatistics.size();
 
         ValidatorResultsJson resultsJson = new ValidatorResultsJson(fastestValidatorStatistics,
                 remainderValidatorStatistics, fastestValidatorQueueStats, remainderValidatorQueueStats);
         writeObjectToJson(resultsJson, RESULTS_JSON_FILEPATH);
 
         for (int i = 0; i < numGroups; i++) {
-            QueueStatistics queueStatistics = switchStatistics.get(i);
-            QueueResultsJson queueResultsJson = new QueueResultsJson(queueStatistics.getAverageNumMessagesInQueue(),
-                    queueStatistics.getMessageArrivalRate(), queueStatistics.getAverageMessageWaitingTime());
+            QueueResultsJson queueResultsJson = RunResultsJson.toQueueResultsJson(switchStatistics.get(i));
             writeObjectToJson(queueResultsJson, String.format(SWITCH_GROUP_STATISTICS, i));
         }
 
         System.out.println(fastestValidatorStatistics);
-        System.out.println("\nAverage queue stats");
-        System.out.println(fastestValidatorQueueStats);
+        if (hasQueueStatistics) {
+            System.out.println("\nAverage queue stats");
+            System.out.println(fastestValidatorQueueStats);
+        }
+    }
+
+    /**
+     * Runs the runs of the engine of {@code engineBuilder} belonging to {@code shard} (in the form i/N) and writes
+     * their merged results to a binary shard file in the shard directory.
+     * A shard without any runs, as there are more shards than runs, is written as a shard file without results.
+     * The json and logs directories are left untouched so that multiple shards can be run concurrently.
+     */
+    private static void runShard(SimulationEngine.Builder engineBuilder, String shard, ResultCache resultCache) {
+        String[] shardParts = shard.split("/");
+        if (shardParts.length != 2) {
+            throw new RuntimeException(String.format("Shard %s is not of the form <i>/<N>.", shard));
+        }
+        int shardIndex = Integer.parseInt(shardParts[0]);
+        int numShards = Integer.parseInt(shardParts[1]);
+        SimulationEngine engine = engineBuilder
+                .setShard(shardIndex, numShards)
+                .build();
+        List<Long> seeds = engine.getSeeds();
+        RunResults runResults = seeds.isEmpty() ? null : engine.run();
+        if (resultCache != null) {
+            resultCache.close();
+        }
+
+        try {
+            Files.createDirectories(SHARD_DIRECTORY);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + SHARD_DIRECTORY + " for storing results.\n" + e);
+        }
+        Path shardPath = SHARD_DIRECTORY.resolve(String.format(SHARD_FILENAME, shardIndex, numShards));
+        RunResultsFile.write(shardPath, engine.getRunConfig(), seeds, runResults);
+        System.out.printf("Results of %d runs written to %s%n", seeds.size(), shardPath);
+    }
 
+    /**
+     * Merges the results in the binary shard files {@code filenames} and writes them to the json directory.
+     * If no files are given, all files in the shard directory are merged.
+     * Files of different run configurations or with overlapping runs are rejected.
+     */
+    private static void mergeShards(List<String> filenames) {
+        List<Path> shardPaths;
+        if (filenames.isEmpty()) {
+            try (Stream<Path> paths = Files.list(SHARD_DIRECTORY)) {
+                shardPaths = paths.sorted().collect(Collectors.toList());
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to list shard files in " + SHARD_DIRECTORY + ".\n" + e);
+            }
+        } else {
+            shardPaths = filenames.stream().map(Paths::get).collect(Collectors.toList());
+        }
+        if (shardPaths.isEmpty()) {
+            throw new RuntimeException("No shard files to merge.");
+        }
+
+        Pair<List<Long>, RunResults> seedsResultsPair = RunResultsFile.merge(shardPaths);
+        System.out.printf("Merged results of %d runs from %d shards.%n", seedsResultsPair.first().size(),
+                shardPaths.size());
+
+        setup();
+        writeResults(seedsResultsPair.second(), true);
         cleanup();
     }
 
     /**
-     * Runs a singular simulation run with {@code seed} and outputs results via {@code io}.
+     * Starts a long-lived {@code SimulationServer} with the arguments
+     * {@code --server [port] [numThreads] [queueCapacity]}.
      */
-    private static RunResults runSimulation(long seed, IoInterface io, RunConfigJson configJson) {
-        RNGUtil.setSeed(seed);
-        Simulator simulator = RunConfigUtil.createSimulator(configJson);
-        while (!simulator.isSimulationOver()) {
-            simulator.simulate().ifPresent(io::output);
+    private static void startServer(List<String> args, ResultCache resultCache) {
+        int port = args.size() > 1 ? Integer.parseInt(args.get(1)) : SimulationServer.DEFAULT_PORT;
+        int numThreads = args.size() > 2
+                ? Integer.parseInt(args.get(2))
+                : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = args.size() > 3
+                ? Integer.parseInt(args.get(3))
+                : SimulationServer.DEFAULT_QUEUE_CAPACITY;
+        try {
+            SimulationServer server = new SimulationServer(port, numThreads, queueCapacity, resultCache);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            server.start();
+            System.out.printf("Simulation server listening on localhost:%d with %d simulation threads.%n",
+                    server.getPort(), numThreads);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to start simulation server on port " + port + ".\n" + e);
         }
-        return simulator.getRunResults();
     }
 
     /**
@@ -0,0 +1,156 @@
+package simulation.benchmark;
+
+import simulation.BFTSimulation;
+import simulation.json.output.AllocationBudgetJson;
+import simulation.simulator.RunConfigUtil;
+import simulation.simulator.Simulator;
+import simulation.util.rng.RNGUtil;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static simulation.util.OptionUtil.extractOption;
+
+/**
+ * Checks the allocations of the simulation loop of fixed scenarios against a budget.
+ *
+ * Arguments: {@code [--budget <file>] [--save-budget]}
+ *
+ * For each scenario in the budget file, the bytes allocated per simulated event and the heap retained per
+ * validator at the end of the run are measured. The process exits with status 1 if any measurement exceeds its
+ * budget. With {@code --save-budget}, the budgets are instead set to the current measurements plus
+ * {@code BUDGET_HEADROOM}, which should be done whenever allocations in the simulation loop are reduced.
+ */
+public class AllocationBudgetCheck {
+
+    private static final Path DEFAULT_BUDGET_PATH = Paths.get("benchmarks", "allocation_budget.json");
+    private static final double BUDGET_HEADROOM = 0.2;
+    private static final int MAX_NUM_GCS = 10;
+    private static final String BUDGET_OPTION = "--budget";
+    private static final String SAVE_BUDGET_OPTION = "--save-budget";
+
+    public static void main(String[] args) {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        boolean isSavingBudget = arguments.remove(SAVE_BUDGET_OPTION);
+        Path budgetPath = extractOption(arguments, BUDGET_OPTION)
+                .map(Paths::get)
+                .orElse(DEFAULT_BUDGET_PATH);
+        if (!Files.exists(budgetPath)) {
+            throw new RuntimeException("No allocation budget found at " + budgetPath + ".");
+        }
+        List<AllocationBudgetJson> budgets = List.of(
+                BFTSimulation.readFromJson(budgetPath.toString(), AllocationBudgetJson[].class));
+
+        List<AllocationBudgetJson> measurements = new ArrayList<>();
+        int numViolations = 0;
+        System.out.printf("%-24s %16s %16s %20s %20s%n", "Scenario", "Bytes/event", "Budget", "Retained/validator",
+                "Budget");
+        for (AllocationBudgetJson budget : budgets) {
+            AllocationBudgetJson measurement = measure(BenchmarkCorpus.getScenario(budget.getScenario()));
+            measurements.add(measurement);
+            boolean isAllocationOver =
+                    measurement.getMaxAllocatedBytesPerEvent() > budget.getMaxAllocatedBytesPerEvent();
+            boolean isRetentionOver =
+                    measurement.getMaxRetainedBytesPerValidator() > budget.getMaxRetainedBytesPerValidator();
+            if (isAllocationOver || isRetentionOver) {
+                numViolations++;
+            }
+            System.out.printf("%-24s %16.1f %16.1f %20.0f %20.0f %s%n", budget.getScenario(),
+                    measurement.getMaxAllocatedBytesPerEvent(), budget.getMaxAllocatedBytesPerEvent(),
+                    measurement.getMaxRetainedBytesPerValidator(), budget.getMaxRetainedBytesPerValidator(),
+                    isAllocationOver || isRetentionOver ? "OVER BUDGET" : "");
+        }
+
+        if (isSavingBudget) {
+            List<AllocationBudgetJson> newBudgets = new ArrayList<>();
+            for (AllocationBudgetJson measurement : measurements) {
+                newBudgets.add(new AllocationBudgetJson(measurement.getScenario(),
+                        Math.ceil(measurement.getMaxAllocatedBytesPerEvent() * (1 + BUDGET_HEADROOM)),
+                        Math.ceil(measurement.getMaxRetainedBytesPerValidator() * (1 + BUDGET_HEADROOM))));
+            }
+            BFTSimulation.writeObjectToJson(newBudgets, budgetPath.toString());
+            System.out.println("\nBudget saved to " + budgetPath);
+            return;
+        }
+        System.out.printf("%d of %d scenarios over budget.%n", numViolations, budgets.size());
+        if (numViolations > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Measures the allocations of a single run of {@code scenario}, returned in the form of a budget.
+     * The scenario is run once beforehand so that allocations removed by the JIT compiler are not counted.
+     * The retained heap is the difference in heap usage after garbage collection with and without the simulator
+     * of the run being reachable.
+     */
+    private static AllocationBudgetJson measure(BenchmarkScenario scenario) {
+        runScenario(scenario);
+
+        RNGUtil.setSeed(scenario.getRunConfig().getStartingSeed());
+        Simulator simulator = RunConfigUtil.createSimulator(scenario.getRunConfig());
+        long startAllocatedBytes = getAllocatedBytes();
+        long numEvents = 0;
+        while (!simulator.isSimulationOver()) {
+            simulator.simulate();
+            numEvents++;
+        }
+        long allocatedBytes = getAllocatedBytes() - startAllocatedBytes;
+
+        long heapBytesWithSimulator = getHeapBytesAfterGc();
+        Reference.reachabilityFence(simulator);
+        simulator = null;
+        long retainedBytes = heapBytesWithSimulator - getHeapBytesAfterGc();
+
+        int numNodes = scenario.getRunConfig().getValidatorSettings().getNumNodes();
+        return new AllocationBudgetJson(scenario.getName(), (double) allocatedBytes / Math.max(1, numEvents),
+                (double) Math.max(0, retainedBytes) / numNodes);
+    }
+
+    private static void runScenario(BenchmarkScenario scenario) {
+        RNGUtil.setSeed(scenario.getRunConfig().getStartingSeed());
+        Simulator simulator = RunConfigUtil.createSimulator(scenario.getRunConfig());
+        while (!simulator.isSimulationOver()) {
+            simulator.simulate();
+        }
+    }
+
+    /**
+     * Returns the heap usage after collecting garbage until the usage stops decreasing, as objects only reachable
+     * through weak references or awaiting cleanup may survive the first collection.
+     */
+    private static long getHeapBytesAfterGc() {
+        long heapBytes = Long.MAX_VALUE;
+        for (int i = 0; i < MAX_NUM_GCS; i++) {
+            System.gc();
+            long currentHeapBytes = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+                    .mapToLong(pool -> pool.getCollectionUsage().getUsed())
+                    .sum();
+            if (currentHeapBytes >= heapBytes) {
+                return currentHeapBytes;
+            }
+            heapBytes = currentHeapBytes;
+        }
+        return heapBytes;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            throw new RuntimeException("Allocations cannot be measured as the JVM does not support "
+                    + "com.sun.management.ThreadMXBean.");
+        }
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
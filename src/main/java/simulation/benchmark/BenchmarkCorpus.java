@@ -0,0 +1,143 @@
+package simulation.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import simulation.json.input.RunConfigJson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Corpus of canonical run configurations used for macro-benchmarking the simulator.
+ *
+ * The corpus covers every combination of consensus protocol, network topology and number of validators in
+ * {@code PROTOCOLS}, {@code TOPOLOGIES} and {@code NUM_NODES}. All other settings are fixed so that results of
+ * a scenario are comparable across versions of the simulator.
+ */
+public class BenchmarkCorpus {
+
+    public static final List<String> PROTOCOLS = List.of("hs", "ibft");
+    public static final List<String> TOPOLOGIES = List.of("clique", "torus", "dragonfly", "foldedclos", "butterfly");
+    /**
+     * Larger networks are left out as setting up their routing alone takes minutes; they can still be run as
+     * single scenarios through {@code getScenario}.
+     */
+    public static final List<Integer> NUM_NODES = List.of(4, 16, 64);
+
+    private static final int NUM_CONSENSUS = 5;
+    private static final double NODE_PROCESSING_RATE = 3;
+    private static final double SWITCH_PROCESSING_RATE = 9;
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Returns the scenarios of the corpus with at most {@code maxNumNodes} validators.
+     */
+    public static List<BenchmarkScenario> getScenarios(int maxNumNodes) {
+        List<BenchmarkScenario> scenarios = new ArrayList<>();
+        for (int numNodes : NUM_NODES) {
+            if (numNodes > maxNumNodes) {
+                continue;
+            }
+            for (String protocol : PROTOCOLS) {
+                for (String topology : TOPOLOGIES) {
+                    String name = String.format("%s-%s-%d", protocol, topology, numNodes);
+                    scenarios.add(new BenchmarkScenario(name, createRunConfig(protocol, topology, numNodes)));
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    /**
+     * Returns the scenario named {@code name}, which is of the form {@code <protocol>-<topology>-<numNodes>}.
+     * The scenario does not have to be one of the corpus, as long as its protocol and topology are.
+     */
+    public static BenchmarkScenario getScenario(String name) {
+        String[] nameParts = name.split("-");
+        if (nameParts.length != 3 || !PROTOCOLS.contains(nameParts[0]) || !TOPOLOGIES.contains(nameParts[1])) {
+            throw new RuntimeException(String.format("%s is not a valid benchmark scenario name.", name));
+        }
+        return new BenchmarkScenario(name, createRunConfig(nameParts[0], nameParts[1],
+                Integer.parseInt(nameParts[2])));
+    }
+
+    /**
+     * Returns network parameters for {@code topology} suited to {@code numNodes} validators.
+     * - torus: the largest side length dividing {@code numNodes} that is at most its square root.
+     * - dragonfly: the smallest group size where each of the a(a + 1) switches has at most 2 validators.
+     * - foldedclos and butterfly: a first layer of {@code numNodes / 2} switches with a radix of 2.
+     */
+    public static List<Integer> getNetworkParameters(String topology, int numNodes) {
+        switch (topology) {
+            case "clique":
+                return List.of();
+            case "torus":
+                int sideLength = (int) Math.sqrt(numNodes);
+                while (numNodes % sideLength != 0) {
+                    sideLength--;
+                }
+                return List.of(sideLength);
+            case "dragonfly":
+                int groupSize = 1;
+                while (2 * groupSize * (groupSize + 1) < numNodes) {
+                    groupSize++;
+                }
+                return List.of(groupSize);
+            case "foldedclos":
+            case "butterfly":
+                return List.of(Math.max(1, numNodes / 2), 2);
+            default:
+                throw new RuntimeException(String.format("The network type %s has not been defined/implemented.",
+                        topology));
+        }
+    }
+
+    /**
+     * Creates the run configuration of a single run of {@code protocol} with {@code numNodes} fault-free
+     * validators connected in {@code topology}.
+     * The base time limit grows with {@code numNodes} so that views do not time out merely because the leader
+     * has to process a message from every validator.
+     */
+    private static RunConfigJson createRunConfig(String protocol, String topology, int numNodes) {
+        JsonObject faultSettings = new JsonObject();
+        faultSettings.addProperty("numFaults", 0);
+        faultSettings.addProperty("faultType", "ur");
+        faultSettings.add("faultParameters", new JsonArray());
+
+        JsonObject validatorSettings = new JsonObject();
+        validatorSettings.addProperty("numNodes", numNodes);
+        validatorSettings.addProperty("numConsensus", NUM_CONSENSUS);
+        validatorSettings.addProperty("numPrograms", 1);
+        validatorSettings.addProperty("baseTimeLimit", 100 + 2 * numNodes);
+        validatorSettings.add("nodeProcessingDistribution", createExponentialDistribution(NODE_PROCESSING_RATE));
+        validatorSettings.addProperty("consensusProtocol", protocol);
+        validatorSettings.add("faultSettings", faultSettings);
+
+        JsonObject switchSettings = new JsonObject();
+        switchSettings.add("switchProcessingDistribution", createExponentialDistribution(SWITCH_PROCESSING_RATE));
+        switchSettings.addProperty("messageChannelSuccessRate", 1);
+
+        JsonObject networkSettings = new JsonObject();
+        networkSettings.add("switchSettings", switchSettings);
+        networkSettings.addProperty("networkType", topology);
+        networkSettings.add("networkParameters", GSON.toJsonTree(getNetworkParameters(topology, numNodes)));
+
+        JsonObject runConfig = new JsonObject();
+        runConfig.addProperty("numRuns", 1);
+        runConfig.addProperty("startingSeed", 0);
+        runConfig.addProperty("seedMultiplier", 1);
+        runConfig.add("validatorSettings", validatorSettings);
+        runConfig.add("networkSettings", networkSettings);
+        return GSON.fromJson(runConfig, RunConfigJson.class);
+    }
+
+    private static JsonObject createExponentialDistribution(double rate) {
+        JsonArray parameters = new JsonArray();
+        parameters.add(rate);
+        JsonObject distribution = new JsonObject();
+        distribution.addProperty("distributionType", "exp");
+        distribution.add("parameters", parameters);
+        return distribution;
+    }
+}
@@ -0,0 +1,30 @@
+package simulation.benchmark;
+
+import simulation.json.input.RunConfigJson;
+
+/**
+ * A named run configuration in the benchmark corpus.
+ */
+public class BenchmarkScenario {
+
+    private final String name;
+    private final RunConfigJson runConfig;
+
+    public BenchmarkScenario(String name, RunConfigJson runConfig) {
+        this.name = name;
+        this.runConfig = runConfig;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RunConfigJson getRunConfig() {
+        return runConfig;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
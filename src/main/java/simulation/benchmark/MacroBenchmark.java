@@ -0,0 +1,229 @@
+package simulation.benchmark;
+
+import simulation.BFTSimulation;
+import simulation.json.output.BenchmarkResultJson;
+import simulation.simulator.RunConfigUtil;
+import simulation.simulator.Simulator;
+import simulation.util.rng.RNGUtil;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static simulation.util.OptionUtil.extractOption;
+
+/**
+ * Runs the scenarios of the {@code BenchmarkCorpus} and compares the measurements against a stored baseline.
+ *
+ * Arguments: {@code [--max-nodes <n>] [--filter <substring>] [--repeats <k>] [--tolerance <fraction>]
+ * [--baseline <file>] [--save-baseline]}
+ *
+ * Each scenario is run {@code repeats} times and the fastest repetition is kept.
+ * A measurement that is worse than its baseline by more than {@code tolerance} is reported as a regression,
+ * in which case the process exits with status 1, as it does if there is no baseline. Allocations are compared per
+ * event rather than per second as the allocation rate rises whenever the simulator gets faster.
+ */
+public class MacroBenchmark {
+
+    private static final Path BENCHMARK_DIRECTORY = Paths.get("benchmarks");
+    private static final Path RESULTS_PATH = BENCHMARK_DIRECTORY.resolve("results.json");
+    private static final Path DEFAULT_BASELINE_PATH = BENCHMARK_DIRECTORY.resolve("baseline.json");
+    private static final double DEFAULT_TOLERANCE = 0.1;
+    private static final int DEFAULT_NUM_REPEATS = 3;
+
+    private static final String MAX_NODES_OPTION = "--max-nodes";
+    private static final String FILTER_OPTION = "--filter";
+    private static final String REPEATS_OPTION = "--repeats";
+    private static final String TOLERANCE_OPTION = "--tolerance";
+    private static final String BASELINE_OPTION = "--baseline";
+    private static final String SAVE_BASELINE_OPTION = "--save-baseline";
+
+    private static final List<Metric> METRICS = List.of(
+            new Metric("wall time (ms)", BenchmarkResultJson::getWallTimeMillis, false),
+            new Metric("time to first event (ms)", BenchmarkResultJson::getTimeToFirstEventMillis, false),
+            new Metric("events/s", BenchmarkResultJson::getEventsPerSecond, true),
+            new Metric("peak heap (MB)", result -> result.getPeakHeapBytes() / 1e6, false),
+            new Metric("allocated bytes/event", BenchmarkResultJson::getAllocatedBytesPerEvent, false));
+
+    public static void main(String[] args) {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        boolean isSavingBaseline = arguments.remove(SAVE_BASELINE_OPTION);
+        int maxNumNodes = extractOption(arguments, MAX_NODES_OPTION)
+                .map(Integer::parseInt)
+                .orElse(Integer.MAX_VALUE);
+        String filter = extractOption(arguments, FILTER_OPTION).orElse("");
+        int numRepeats = extractOption(arguments, REPEATS_OPTION)
+                .map(Integer::parseInt)
+                .orElse(DEFAULT_NUM_REPEATS);
+        double tolerance = extractOption(arguments, TOLERANCE_OPTION)
+                .map(Double::parseDouble)
+                .orElse(DEFAULT_TOLERANCE);
+        Path baselinePath = extractOption(arguments, BASELINE_OPTION)
+                .map(Paths::get)
+                .orElse(DEFAULT_BASELINE_PATH);
+
+        List<BenchmarkScenario> scenarios = BenchmarkCorpus.getScenarios(maxNumNodes).stream()
+                .filter(scenario -> scenario.getName().contains(filter))
+                .collect(Collectors.toList());
+        List<BenchmarkResultJson> results = new ArrayList<>();
+        for (BenchmarkScenario scenario : scenarios) {
+            BenchmarkResultJson result = runScenario(scenario, numRepeats);
+            System.out.println(result);
+            results.add(result);
+        }
+
+        try {
+            Files.createDirectories(BENCHMARK_DIRECTORY);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + BENCHMARK_DIRECTORY + " for storing results.\n" + e);
+        }
+        BFTSimulation.writeObjectToJson(results, RESULTS_PATH.toString());
+        if (isSavingBaseline) {
+            BFTSimulation.writeObjectToJson(results, baselinePath.toString());
+            System.out.println("\nBaseline saved to " + baselinePath);
+            return;
+        }
+        if (!Files.exists(baselinePath)) {
+            throw new RuntimeException(String.format("No baseline found at %s to compare against. Run with %s to "
+                    + "create one.", baselinePath, SAVE_BASELINE_OPTION));
+        }
+
+        List<BenchmarkResultJson> baseline = List.of(
+                BFTSimulation.readFromJson(baselinePath.toString(), BenchmarkResultJson[].class));
+        int numRegressions = printRegressionReport(baseline, results, tolerance);
+        if (numRegressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs {@code scenario} {@code numRepeats} times and returns the measurements of the fastest repetition.
+     */
+    private static BenchmarkResultJson runScenario(BenchmarkScenario scenario, int numRepeats) {
+        BenchmarkResultJson fastestResult = null;
+        for (int i = 0; i < numRepeats; i++) {
+            BenchmarkResultJson result = measure(scenario);
+            if (fastestResult == null || result.getWallTimeMillis() < fastestResult.getWallTimeMillis()) {
+                fastestResult = result;
+            }
+        }
+        return fastestResult;
+    }
+
+    /**
+     * Simulates a single run of {@code scenario} on the current thread and returns its measurements.
+     * Peak heap usage is the sum of the peak usage of each heap memory pool.
+     */
+    private static BenchmarkResultJson measure(BenchmarkScenario scenario) {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .collect(Collectors.toList());
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long startAllocatedBytes = getAllocatedBytes();
+
+        long startTime = System.nanoTime();
+        RNGUtil.setSeed(scenario.getRunConfig().getStartingSeed());
+        Simulator simulator = RunConfigUtil.createSimulator(scenario.getRunConfig());
+        long eventLoopStartTime = System.nanoTime();
+        long firstEventTime = eventLoopStartTime;
+        long numEvents = 0;
+        while (!simulator.isSimulationOver()) {
+            simulator.simulate();
+            numEvents++;
+            if (numEvents == 1) {
+                firstEventTime = System.nanoTime();
+            }
+        }
+        simulator.getRunResults();
+        long endTime = System.nanoTime();
+
+        double wallTimeSeconds = (endTime - startTime) / 1e9;
+        double eventLoopSeconds = (endTime - eventLoopStartTime) / 1e9;
+        long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long allocatedBytes = getAllocatedBytes() - startAllocatedBytes;
+        return new BenchmarkResultJson(scenario.getName(), wallTimeSeconds * 1e3, (firstEventTime - startTime) / 1e6,
+                numEvents, numEvents / eventLoopSeconds, peakHeapBytes, allocatedBytes / wallTimeSeconds,
+                (double) allocatedBytes / Math.max(1, numEvents));
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far, or 0 if the JVM does not support it.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Prints the measurements in {@code results} that differ from {@code baseline} by more than {@code tolerance}
+     * and returns the number of regressions.
+     */
+    private static int printRegressionReport(List<BenchmarkResultJson> baseline, List<BenchmarkResultJson> results,
+            double tolerance) {
+        Map<String, BenchmarkResultJson> baselineMap = baseline.stream()
+                .collect(Collectors.toMap(BenchmarkResultJson::getScenario, result -> result));
+        int numRegressions = 0;
+        int numImprovements = 0;
+        System.out.printf("%nRegression report (tolerance %.1f%%)%n", tolerance * 100);
+        System.out.printf("%-24s %-26s %14s %14s %9s%n", "Scenario", "Metric", "Baseline", "Current", "Change");
+        for (BenchmarkResultJson result : results) {
+            BenchmarkResultJson baselineResult = baselineMap.get(result.getScenario());
+            if (baselineResult == null) {
+                System.out.printf("%-24s not in baseline%n", result.getScenario());
+                continue;
+            }
+            for (Metric metric : METRICS) {
+                double baselineValue = metric.getter.apply(baselineResult);
+                double currentValue = metric.getter.apply(result);
+                if (baselineValue == 0) {
+                    continue;
+                }
+                double change = (currentValue - baselineValue) / baselineValue;
+                if (Math.abs(change) <= tolerance) {
+                    continue;
+                }
+                boolean isRegression = metric.isHigherBetter ? change < 0 : change > 0;
+                if (isRegression) {
+                    numRegressions++;
+                } else {
+                    numImprovements++;
+                }
+                System.out.printf("%-24s %-26s %14.2f %14.2f %+8.1f%% %s%n", result.getScenario(), metric.name,
+                        baselineValue, currentValue, change * 100, isRegression ? "REGRESSION" : "improvement");
+            }
+        }
+        System.out.printf("%d regressions and %d improvements across %d scenarios.%n", numRegressions,
+                numImprovements, results.size());
+        return numRegressions;
+    }
+
+    /**
+     * A measurement compared against the baseline.
+     */
+    private static class Metric {
+
+        private final String name;
+        private final Function<BenchmarkResultJson, Double> getter;
+        private final boolean isHigherBetter;
+
+        private Metric(String name, Function<BenchmarkResultJson, Double> getter, boolean isHigherBetter) {
+            this.name = name;
+            this.getter = getter;
+            this.isHigherBetter = isHigherBetter;
+        }
+    }
+}
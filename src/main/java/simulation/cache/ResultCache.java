@@ -0,0 +1,266 @@
+package simulation.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import simulation.json.input.RunConfigJson;
+import simulation.simulator.RunResults;
+import simulation.simulator.SimulationEngine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Content-addressed on-disk cache of the results of single simulation runs.
+ *
+ * Results are keyed by a hash of the canonical run configuration, the seed of the run and the engine version,
+ * so a (configuration, seed) pair that has been simulated before is not simulated again.
+ * Entries are stored in a single append-only file in the cache directory which is memory-mapped for lookups.
+ *
+ * Each record in the file consists of a {@code KEY_LENGTH}-byte key, the length of the payload as an int and
+ * the payload itself, which is the run results in the binary form written by {@code RunResults::writeTo}.
+ * A partially written record at the end of the file (e.g. from an interrupted process) is ignored.
+ */
+public class ResultCache implements Closeable {
+
+    private static final String STORE_FILENAME = "results.bin";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int KEY_LENGTH = 32;
+    private static final int RECORD_HEADER_LENGTH = KEY_LENGTH + Integer.BYTES;
+    /**
+     * Run configuration fields that only determine which seeds are run and not the results of a single run.
+     */
+    private static final List<String> RUN_SEED_FIELDS = List.of("numRuns", "startingSeed", "seedMultiplier");
+    /**
+     * Run configuration fields that only determine what is output during a run and not its results.
+     */
+    private static final List<String> OUTPUT_FIELDS = List.of("traceFilter");
+    /**
+     * Run configuration fields whose values are matched case-insensitively when the configuration is run.
+     */
+    private static final Set<String> CASE_INSENSITIVE_FIELDS =
+            Set.of("consensusProtocol", "networkType", "faultType", "distributionType");
+    private static final Gson GSON = new Gson();
+
+    private final Path storePath;
+    private final FileChannel channel;
+    /**
+     * Map of hex-encoded keys to the position of their payload in the store.
+     */
+    private final Map<String, Long> keyPositionMap;
+    private final Map<String, Integer> keyLengthMap;
+    private MappedByteBuffer mappedStore;
+    private long storeSize;
+
+    /**
+     * Opens the cache stored in {@code directory}, creating it if it does not exist.
+     */
+    public ResultCache(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            storePath = directory.resolve(STORE_FILENAME);
+            channel = FileChannel.open(storePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            keyPositionMap = new HashMap<>();
+            keyLengthMap = new HashMap<>();
+            storeSize = 0;
+            indexStore();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to open result cache in " + directory + ".\n" + e);
+        }
+    }
+
+    /**
+     * Returns the cached results of the run of {@code runConfig} with {@code seed}, if present.
+     */
+    public synchronized Optional<RunResults> get(RunConfigJson runConfig, long seed) {
+        String key = toHex(computeKey(runConfig, seed));
+        if (!keyPositionMap.containsKey(key)) {
+            return Optional.empty();
+        }
+        ByteBuffer payload = mappedStore.duplicate();
+        int position = Math.toIntExact(keyPositionMap.get(key));
+        payload.position(position).limit(position + keyLengthMap.get(key));
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        try {
+            return Optional.of(RunResults.readFrom(new DataInputStream(new ByteArrayInputStream(bytes))));
+        } catch (IOException e) {
+            // results written by an incompatible version are treated as absent
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the {@code runResults} of the run of {@code runConfig} with {@code seed}.
+     */
+    public synchronized void put(RunConfigJson runConfig, long seed, RunResults runResults) {
+        byte[] key = computeKey(runConfig, seed);
+        String hexKey = toHex(key);
+        if (keyPositionMap.containsKey(hexKey)) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream payloadStream = new ByteArrayOutputStream();
+            runResults.writeTo(new DataOutputStream(payloadStream));
+            byte[] payload = payloadStream.toByteArray();
+
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + payload.length);
+            record.put(key).putInt(payload.length).put(payload).flip();
+            FileLock lock = channel.lock();
+            try {
+                // other processes may have appended to the store since it was last indexed
+                indexStore();
+                if (keyPositionMap.containsKey(hexKey)) {
+                    return;
+                }
+                // overwrites any partially written record left at the end of the store
+                channel.truncate(storeSize);
+                long position = storeSize;
+                while (record.hasRemaining()) {
+                    position += channel.write(record, position);
+                }
+            } finally {
+                lock.release();
+            }
+            indexStore();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write to result cache " + storePath + ".\n" + e);
+        }
+    }
+
+    /**
+     * Returns the number of results stored in the cache.
+     */
+    public synchronized int size() {
+        return keyPositionMap.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Unable to close result cache: " + e);
+        }
+    }
+
+    /**
+     * Maps the store and indexes any records appended since it was last indexed.
+     */
+    private void indexStore() throws IOException {
+        long fileSize = channel.size();
+        if (mappedStore != null && fileSize == mappedStore.capacity()) {
+            return;
+        }
+        mappedStore = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        long position = storeSize;
+        byte[] key = new byte[KEY_LENGTH];
+        while (position + RECORD_HEADER_LENGTH <= fileSize) {
+            mappedStore.position(Math.toIntExact(position));
+            mappedStore.get(key);
+            int payloadLength = mappedStore.getInt();
+            long payloadPosition = position + RECORD_HEADER_LENGTH;
+            if (payloadLength < 0 || payloadPosition + payloadLength > fileSize) {
+                break;
+            }
+            String hexKey = toHex(key);
+            keyPositionMap.put(hexKey, payloadPosition);
+            keyLengthMap.put(hexKey, payloadLength);
+            position = payloadPosition + payloadLength;
+        }
+        storeSize = position;
+    }
+
+    /**
+     * Returns the cache key of the run of {@code runConfig} with {@code seed}.
+     * The key is a hash of the canonical form of the configuration, the seed and the engine version.
+     */
+    public static byte[] computeKey(RunConfigJson runConfig, long seed) {
+        return hash(String.format("%s|seed=%d|engine=%s|format=%d", canonicalize(runConfig), seed,
+                SimulationEngine.ENGINE_VERSION, RunResults.SERIALIZATION_VERSION));
+    }
+
+    /**
+     * Returns the hex-encoded hash of {@code runConfig} without the fields that only determine which seeds are run,
+     * together with the engine version. Results of runs with the same hash can be merged.
+     */
+    public static String computeConfigHash(RunConfigJson runConfig) {
+        return toHex(hash(String.format("%s|engine=%s|format=%d", canonicalize(runConfig),
+                SimulationEngine.ENGINE_VERSION, RunResults.SERIALIZATION_VERSION)));
+    }
+
+    /**
+     * Returns the canonical form of {@code runConfig} without the fields that do not affect the results of a run.
+     */
+    private static JsonElement canonicalize(RunConfigJson runConfig) {
+        JsonObject configTree = GSON.toJsonTree(runConfig).getAsJsonObject();
+        RUN_SEED_FIELDS.forEach(configTree::remove);
+        OUTPUT_FIELDS.forEach(configTree::remove);
+        return canonicalize(configTree);
+    }
+
+    private static byte[] hash(String canonicalForm) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(canonicalForm.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(HASH_ALGORITHM + " is not supported by this JVM.\n" + e);
+        }
+    }
+
+    /**
+     * Returns a canonical representation of {@code element} with object keys sorted.
+     * The values of {@code CASE_INSENSITIVE_FIELDS} are lowercased while all other strings are kept as they are.
+     */
+    private static JsonElement canonicalize(JsonElement element) {
+        if (element.isJsonObject()) {
+            JsonObject sortedObject = new JsonObject();
+            Map<String, JsonElement> sortedEntries = new TreeMap<>(element.getAsJsonObject().asMap());
+            sortedEntries.forEach((key, value) -> sortedObject.add(key,
+                    CASE_INSENSITIVE_FIELDS.contains(key) && isString(value)
+                            ? new JsonPrimitive(value.getAsString().toLowerCase(Locale.ROOT))
+                            : canonicalize(value)));
+            return sortedObject;
+        } else if (element.isJsonArray()) {
+            JsonArray array = new JsonArray();
+            element.getAsJsonArray().forEach(value -> array.add(canonicalize(value)));
+            return array;
+        }
+        return element;
+    }
+
+    private static boolean isString(JsonElement element) {
+        return element.isJsonPrimitive() && element.getAsJsonPrimitive().isString();
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+}
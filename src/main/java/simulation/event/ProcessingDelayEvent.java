@@ -22,12 +22,19 @@ public class ProcessingDelayEvent<T> extends NodeEvent<T> {
         this.payload = payload;
     }
 
+    public Payload<T> getPayload() {
+        return payload;
+    }
+
     @Override
     public List<NodeEvent<T>> simulate() {
         Node<T> node = getNode();
         Pair<Double, List<Payload<T>>> durationPayloadsPair = node.processPayload(getTime(), payload);
         List<Payload<T>> processedPayloads = durationPayloadsPair.second();
         double processingEndTime = getTime() + durationPayloadsPair.first();
+        if (payload.getFlight() != null) {
+            payload.getFlight().recordService(getTime(), durationPayloadsPair.first());
+        }
         return List.of(new QueueEvent<>(processingEndTime, node, processedPayloads),
                 new ProcessedPayloadEvent<>(processingEndTime, node));
     }
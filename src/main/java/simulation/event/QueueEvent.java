@@ -1,5 +1,6 @@
 package simulation.event;
 
+import simulation.metrics.SimulationProfiler;
 import simulation.network.entity.Node;
 import simulation.network.entity.Payload;
 
@@ -13,18 +14,26 @@ import java.util.List;
  */
 public class QueueEvent<T> extends NodeEvent<T> {
 
+    private static final String ROUTING_FRAME = "Node.getNextNodeFor";
+
     private final List<Payload<T>> payloads;
     public QueueEvent(double time, Node<T> node, List<Payload<T>> payloads) {
         super(time, node);
         this.payloads = payloads;
     }
 
+    public List<Payload<T>> getPayloads() {
+        return payloads;
+    }
+
     @Override
     public List<NodeEvent<T>> simulate() {
         Node<T> node = getNode();
         List<NodeEvent<T>> events = new ArrayList<>();
         for (Payload<T> payload : payloads) {
+            SimulationProfiler.enter(ROUTING_FRAME);
             Node<T> destination = node.getNextNodeFor(payload);
+            SimulationProfiler.exit();
             boolean wasDestinationEmpty = destination.isEmpty();
             destination.addToQueue(getTime(), payload);
             if (wasDestinationEmpty && !destination.isOccupied()) {
@@ -25,11 +25,26 @@ public class TimedEvent<T extends BFTMessage> extends NodeEvent<T> {
         this.timerCount = timerCount;
     }
 
+    /**
+     * Returns the id of the consensus program the timer was set by.
+     */
+    public int getId() {
+        return id;
+    }
+
     @Override
     public List<NodeEvent<T>> simulate() {
         return List.of(new QueueEvent<>(getTime(), node, node.notifyTime(id, timerCount)));
     }
 
+    /**
+     * Returns true if the timer of this event has been superseded by a newer timer, in which case simulating
+     * this event has no effect.
+     */
+    public boolean isStale() {
+        return !node.isTimerActive(id, timerCount);
+    }
+
     @Override
     public String toString() {
         return super.toString() + " (Timed): Notifying " + node + " at " + getTime();
@@ -0,0 +1,248 @@
+package simulation.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@code IoInterface} that outputs results to a file from a separate writer thread, so that the simulation is not
+ * slowed down by writing its output.
+ *
+ * Messages are handed to the writer through a bounded lock-free ring buffer of {@code capacity} messages, which may be
+ * filled by several threads. The writer encodes them into a direct buffer of {@code CHUNK_SIZE} bytes that is written
+ * through a {@code FileChannel} whenever it is full or no more messages are waiting. What happens to a message output
+ * while the ring buffer is full is decided by the {@code FullBufferPolicy} of the io.
+ */
+public class AsyncFileIo implements IoInterface {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_SAMPLE_INTERVAL = 100;
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final long IDLE_PARK_NANOS = 100_000;
+    private static final String WRITER_THREAD_NAME = "output-writer-%s";
+    private static final String DROPPED_MESSAGE = "%d messages were dropped as the output buffer was full.";
+
+    /**
+     * Policies for outputting a message while the ring buffer is full.
+     */
+    public enum FullBufferPolicy {
+        /**
+         * Waits for the writer to make space, so no message is lost.
+         */
+        BLOCK,
+        /**
+         * Drops the message.
+         */
+        DROP,
+        /**
+         * Waits for space for one in every {@code sampleInterval} messages output while the buffer is full and drops
+         * the others, so that a uniform sample of the output is kept.
+         */
+        SAMPLE
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FullBufferPolicy policy;
+    private final int sampleInterval;
+    private final int mask;
+    /**
+     * Messages of the ring buffer and the sequence numbers of their slots. Message {@code m} is added to slot
+     * {@code m & mask} once the sequence number of the slot is {@code m}, which then becomes {@code m + 1} until the
+     * writer removes the message and makes the slot available for message {@code m + capacity}.
+     */
+    private final AtomicReferenceArray<String> messages;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail;
+    private long head;
+    private final AtomicLong numDropped;
+    private final AtomicLong numFullOutputs;
+    private final Thread writerThread;
+    private volatile boolean isClosed;
+    private volatile IOException writerException;
+
+    /**
+     * Creates an io writing to a new file at {@code path} with the default capacity and sample interval.
+     */
+    public AsyncFileIo(Path path, FullBufferPolicy policy) {
+        this(path, policy, DEFAULT_CAPACITY, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param path Path of the file to write to, which is replaced if it exists.
+     * @param policy Policy for messages output while the ring buffer is full.
+     * @param capacity Number of messages in the ring buffer, rounded up to a power of two.
+     * @param sampleInterval One in {@code sampleInterval} messages output while the buffer is full is kept by the
+     *         {@code SAMPLE} policy.
+     */
+    public AsyncFileIo(Path path, FullBufferPolicy policy, int capacity, int sampleInterval) {
+        if (capacity < 1 || sampleInterval < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid capacity %d or sample interval %d of output buffer.", capacity, sampleInterval));
+        }
+        this.path = path;
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create output file " + path + ".\n" + e);
+        }
+        this.policy = policy;
+        this.sampleInterval = sampleInterval;
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.mask = size - 1;
+        this.messages = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.tail = new AtomicLong();
+        this.head = 0;
+        this.numDropped = new AtomicLong();
+        this.numFullOutputs = new AtomicLong();
+        this.isClosed = false;
+        this.writerThread = new Thread(this::writeMessages, String.format(WRITER_THREAD_NAME, path.getFileName()));
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void output(String message) {
+        if (offer(message)) {
+            return;
+        }
+        boolean isWaiting = policy == FullBufferPolicy.BLOCK || (policy == FullBufferPolicy.SAMPLE
+                && numFullOutputs.getAndIncrement() % sampleInterval == 0);
+        if (!isWaiting) {
+            numDropped.incrementAndGet();
+            return;
+        }
+        while (!offer(message)) {
+            if (writerException != null) {
+                throw new RuntimeException("Unable to write to output file " + path + ".\n" + writerException);
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Adds {@code message} to the ring buffer, returning false if the buffer is full.
+     */
+    private boolean offer(String message) {
+        while (true) {
+            long sequence = tail.get();
+            int index = (int) sequence & mask;
+            long slotSequence = sequences.get(index);
+            if (slotSequence < sequence) {
+                return false;
+            } else if (slotSequence == sequence && tail.compareAndSet(sequence, sequence + 1)) {
+                messages.lazySet(index, message);
+                sequences.set(index, sequence + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the next message of the ring buffer, or null if it is empty.
+     * Only called by the writer thread.
+     */
+    private String poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        String message = messages.get(index);
+        messages.lazySet(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return message;
+    }
+
+    /**
+     * Encodes and writes the messages of the ring buffer until the io is closed and all messages are written.
+     * Writing stops at the first failure, after which messages are discarded so that the simulation is not blocked.
+     */
+    private void writeMessages() {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        while (true) {
+            boolean wasClosed = isClosed;
+            String message = poll();
+            if (message == null) {
+                writeChunk(chunk);
+                if (wasClosed) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            encode(encoder, CharBuffer.wrap(message), chunk);
+            encode(encoder, CharBuffer.wrap("\n"), chunk);
+        }
+        long numDroppedMessages = numDropped.get();
+        if (numDroppedMessages > 0) {
+            encode(encoder, CharBuffer.wrap(String.format(DROPPED_MESSAGE, numDroppedMessages) + "\n"), chunk);
+            writeChunk(chunk);
+        }
+    }
+
+    /**
+     * Encodes {@code characters} into {@code chunk}, writing the chunk out whenever it is full.
+     */
+    private void encode(CharsetEncoder encoder, CharBuffer characters, ByteBuffer chunk) {
+        encoder.reset();
+        while (encoder.encode(characters, chunk, true) == CoderResult.OVERFLOW) {
+            writeChunk(chunk);
+        }
+    }
+
+    private void writeChunk(ByteBuffer chunk) {
+        chunk.flip();
+        try {
+            while (writerException == null && chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+        } catch (IOException e) {
+            writerException = e;
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Returns the number of messages dropped as the ring buffer was full.
+     */
+    public long getNumDropped() {
+        return numDropped.get();
+    }
+
+    /**
+     * Writes the remaining messages, followed by the number of dropped messages if any, and closes the file.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        try {
+            writerThread.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while closing output file " + path + ".\n" + e);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close output file " + path + ".\n" + e);
+        }
+        if (writerException != null) {
+            throw new RuntimeException("Unable to write to output file " + path + ".\n" + writerException);
+        }
+    }
+}
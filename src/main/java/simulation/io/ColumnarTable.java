@@ -0,0 +1,418 @@
+package simulation.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table of values stored column by column in primitive arrays, written to a compact binary columnar file.
+ *
+ * The file consists of the big-endian int magic {@code MAGIC}, the number of columns and the number of rows,
+ * followed by the name (as written by {@code DataOutput.writeUTF}) and type byte of each column, followed by the
+ * values of each column in turn:
+ * <ul>
+ *     <li>{@code TYPE_DOUBLE} and {@code TYPE_LONG} columns are a contiguous array of 8-byte big-endian values,
+ *     which can be loaded directly with e.g. {@code numpy.frombuffer(data, '>f8', numRows, offset)}.</li>
+ *     <li>{@code TYPE_STRING} columns are dictionary-encoded: the number of distinct values, each distinct value,
+ *     then a contiguous array of 4-byte big-endian indices into the distinct values.</li>
+ * </ul>
+ */
+public class ColumnarTable {
+
+    public static final int MAGIC = 0x434f4c31; // "COL1"
+    public static final byte TYPE_DOUBLE = 1;
+    public static final byte TYPE_LONG = 2;
+    public static final byte TYPE_STRING = 3;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final List<Column> columns;
+    private final Map<String, Column> columnMap;
+
+    public ColumnarTable() {
+        this.columns = new ArrayList<>();
+        this.columnMap = new HashMap<>();
+    }
+
+    public DoubleColumn addDoubleColumn(String name) {
+        return addColumn(new DoubleColumn(name));
+    }
+
+    public LongColumn addLongColumn(String name) {
+        return addColumn(new LongColumn(name));
+    }
+
+    public StringColumn addStringColumn(String name) {
+        return addColumn(new StringColumn(name));
+    }
+
+    private <C extends Column> C addColumn(C column) {
+        if (getNumRows() != 0) {
+            throw new IllegalStateException("Columns cannot be added to a table that already has rows.");
+        }
+        return putColumn(column);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the table already has a column with the name of {@code column}.
+     */
+    private <C extends Column> C putColumn(C column) {
+        if (columnMap.containsKey(column.getName())) {
+            throw new IllegalArgumentException("The table already has a column named " + column.getName() + ".");
+        }
+        columns.add(column);
+        columnMap.put(column.getName(), column);
+        return column;
+    }
+
+    public int getNumRows() {
+        return columns.isEmpty() ? 0 : columns.get(0).size;
+    }
+
+    /**
+     * Appends the rows of {@code other} to the table.
+     * Columns of {@code other} that the table does not have are added to it. Values missing from either table are
+     * filled in with NaN, 0 or the empty string for double, long and string columns respectively.
+     *
+     * @throws IllegalStateException If a column of {@code other} has a different type from the column of the same
+     *     name in the table.
+     */
+    public void appendRows(ColumnarTable other) {
+        int numRows = getNumRows();
+        for (Column otherColumn : other.columns) {
+            Column column = columnMap.get(otherColumn.name);
+            if (column == null) {
+                putColumn(otherColumn.createEmpty()).addMissing(numRows);
+            } else if (column.getType() != otherColumn.getType()) {
+                throw new IllegalStateException(String.format("Column %s has type %d instead of %d.",
+                        otherColumn.name, otherColumn.getType(), column.getType()));
+            }
+        }
+        int numOtherRows = other.getNumRows();
+        for (Column column : columns) {
+            Column otherColumn = other.columnMap.get(column.name);
+            if (otherColumn == null) {
+                column.addMissing(numOtherRows);
+            } else {
+                column.addAll(otherColumn);
+            }
+        }
+    }
+
+    /**
+     * Writes the table to the columnar file at {@code path}, replacing any existing file.
+     *
+     * @throws IllegalStateException If the columns do not all have the same number of values.
+     */
+    public void write(Path path) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write columnar file " + path + ".\n" + e);
+        }
+    }
+
+    /**
+     * Writes the table to {@code out} in the columnar file format.
+     *
+     * @throws IllegalStateException If the columns do not all have the same number of values.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        int numRows = getNumRows();
+        for (Column column : columns) {
+            if (column.size != numRows) {
+                throw new IllegalStateException(String.format("Column %s has %d values instead of %d.",
+                        column.name, column.size, numRows));
+            }
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(columns.size());
+        out.writeInt(numRows);
+        for (Column column : columns) {
+            out.writeUTF(column.name);
+            out.writeByte(column.getType());
+        }
+        for (Column column : columns) {
+            column.writeValues(out);
+        }
+    }
+
+    /**
+     * Reads the table stored in the columnar file at {@code path}.
+     */
+    public static ColumnarTable read(Path path) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return readFrom(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read columnar file " + path + ".\n" + e);
+        }
+    }
+
+    /**
+     * Reads a table written by {@code writeTo} from {@code in}.
+     */
+    public static ColumnarTable readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a columnar file.");
+        }
+        int numColumns = in.readInt();
+        int numRows = in.readInt();
+        ColumnarTable table = new ColumnarTable();
+        for (int i = 0; i < numColumns; i++) {
+            String name = in.readUTF();
+            byte type = in.readByte();
+            switch (type) {
+            case TYPE_DOUBLE:
+                table.putColumn(new DoubleColumn(name));
+                break;
+            case TYPE_LONG:
+                table.putColumn(new LongColumn(name));
+                break;
+            case TYPE_STRING:
+                table.putColumn(new StringColumn(name));
+                break;
+            default:
+                throw new IOException(String.format("Column %s has unknown type %d.", name, type));
+            }
+        }
+        for (Column column : table.columns) {
+            column.readValues(in, numRows);
+        }
+        return table;
+    }
+
+    /**
+     * Column of the table, to which values are appended one row at a time.
+     */
+    public abstract static class Column {
+
+        private final String name;
+        protected int size;
+
+        private Column(String name) {
+            this.name = name;
+        }
+
+        protected abstract byte getType();
+        protected abstract void writeValues(DataOutputStream out) throws IOException;
+        protected abstract void readValues(DataInputStream in, int numValues) throws IOException;
+
+        /**
+         * Returns a new column of the same name and type without any values.
+         */
+        protected abstract Column createEmpty();
+
+        /**
+         * Adds {@code numValues} missing values to the column.
+         */
+        protected abstract void addMissing(int numValues);
+
+        /**
+         * Adds the values of {@code other}, which is a column of the same type, to the column.
+         */
+        protected abstract void addAll(Column other);
+
+        public String getName() {
+            return name;
+        }
+
+        protected static int getGrownCapacity(int capacity) {
+            return Math.max(INITIAL_CAPACITY, 2 * capacity);
+        }
+    }
+
+    public static class DoubleColumn extends Column {
+
+        private double[] values;
+
+        private DoubleColumn(String name) {
+            super(name);
+            this.values = new double[0];
+        }
+
+        public void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, getGrownCapacity(values.length));
+            }
+            values[size++] = value;
+        }
+
+        @Override
+        protected byte getType() {
+            return TYPE_DOUBLE;
+        }
+
+        @Override
+        protected void writeValues(DataOutputStream out) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeDouble(values[i]);
+            }
+        }
+
+        @Override
+        protected void readValues(DataInputStream in, int numValues) throws IOException {
+            for (int i = 0; i < numValues; i++) {
+                add(in.readDouble());
+            }
+        }
+
+        @Override
+        protected Column createEmpty() {
+            return new DoubleColumn(getName());
+        }
+
+        @Override
+        protected void addMissing(int numValues) {
+            for (int i = 0; i < numValues; i++) {
+                add(Double.NaN);
+            }
+        }
+
+        @Override
+        protected void addAll(Column other) {
+            DoubleColumn otherColumn = (DoubleColumn) other;
+            for (int i = 0; i < otherColumn.size; i++) {
+                add(otherColumn.values[i]);
+            }
+        }
+    }
+
+    public static class LongColumn extends Column {
+
+        private long[] values;
+
+        private LongColumn(String name) {
+            super(name);
+            this.values = new long[0];
+        }
+
+        public void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, getGrownCapacity(values.length));
+            }
+            values[size++] = value;
+        }
+
+        @Override
+        protected byte getType() {
+            return TYPE_LONG;
+        }
+
+        @Override
+        protected void writeValues(DataOutputStream out) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeLong(values[i]);
+            }
+        }
+
+        @Override
+        protected void readValues(DataInputStream in, int numValues) throws IOException {
+            for (int i = 0; i < numValues; i++) {
+                add(in.readLong());
+            }
+        }
+
+        @Override
+        protected Column createEmpty() {
+            return new LongColumn(getName());
+        }
+
+        @Override
+        protected void addMissing(int numValues) {
+            for (int i = 0; i < numValues; i++) {
+                add(0);
+            }
+        }
+
+        @Override
+        protected void addAll(Column other) {
+            LongColumn otherColumn = (LongColumn) other;
+            for (int i = 0; i < otherColumn.size; i++) {
+                add(otherColumn.values[i]);
+            }
+        }
+    }
+
+    public static class StringColumn extends Column {
+
+        private final List<String> dictionary;
+        private final Map<String, Integer> dictionaryIndices;
+        private int[] indices;
+
+        private StringColumn(String name) {
+            super(name);
+            this.dictionary = new ArrayList<>();
+            this.dictionaryIndices = new HashMap<>();
+            this.indices = new int[0];
+        }
+
+        public void add(String value) {
+            Integer index = dictionaryIndices.get(value);
+            if (index == null) {
+                index = dictionary.size();
+                dictionary.add(value);
+                dictionaryIndices.put(value, index);
+            }
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, getGrownCapacity(indices.length));
+            }
+            indices[size++] = index;
+        }
+
+        @Override
+        protected byte getType() {
+            return TYPE_STRING;
+        }
+
+        @Override
+        protected void writeValues(DataOutputStream out) throws IOException {
+            out.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                out.writeUTF(value);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeInt(indices[i]);
+            }
+        }
+
+        @Override
+        protected void readValues(DataInputStream in, int numValues) throws IOException {
+            int dictionarySize = in.readInt();
+            List<String> valueDictionary = new ArrayList<>();
+            for (int i = 0; i < dictionarySize; i++) {
+                valueDictionary.add(in.readUTF());
+            }
+            for (int i = 0; i < numValues; i++) {
+                add(valueDictionary.get(in.readInt()));
+            }
+        }
+
+        @Override
+        protected Column createEmpty() {
+            return new StringColumn(getName());
+        }
+
+        @Override
+        protected void addMissing(int numValues) {
+            for (int i = 0; i < numValues; i++) {
+                add("");
+            }
+        }
+
+        @Override
+        protected void addAll(Column other) {
+            StringColumn otherColumn = (StringColumn) other;
+            for (int i = 0; i < otherColumn.size; i++) {
+                add(otherColumn.dictionary.get(otherColumn.indices[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package simulation.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only log of consensus decisions stored as fixed-width records in a memory-mapped file.
+ *
+ * The file consists of a {@code HEADER_SIZE}-byte header of the int magic {@code MAGIC}, the int {@code VERSION},
+ * the int header size, the int record size and the long number of records, followed by one {@code RECORD_SIZE}-byte
+ * record per decision of the double decision time and the ints validator, program, consensus instance, view, number
+ * of rounds taken and number of messages sent. All values are little-endian, so the records can be loaded without
+ * copying with e.g. {@code numpy.memmap(path, dtype, 'r', HEADER_SIZE, (numRecords,))} where {@code dtype} is
+ * {@code [('time', '<f8'), ('validator', '<i4'), ('program', '<i4'), ('instance', '<i4'), ('view', '<i4'),
+ * ('rounds', '<i4'), ('messagesSent', '<i4')]}.
+ *
+ * The file is mapped {@code RECORDS_PER_MAPPING} records at a time and truncated to the records appended when
+ * closed. The number of records in the header is updated with every record appended, so the log can be read while it
+ * is being written.
+ */
+public class DecisionLog implements Closeable {
+
+    public static final int MAGIC = 0x44454331; // "DEC1"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+    public static final int RECORD_SIZE = 32;
+    private static final int NUM_RECORDS_OFFSET = 16;
+    private static final int RECORDS_PER_MAPPING = 1 << 15;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer mapping;
+    private long mappingOffset;
+    private long numRecords;
+
+    /**
+     * Creates a decision log at {@code path}, replacing any existing file.
+     */
+    public DecisionLog(Path path) {
+        this.path = path;
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create decision log " + path + ".\n" + e);
+        }
+        this.numRecords = 0;
+        map(0, HEADER_SIZE);
+        header = (MappedByteBuffer) mapping.duplicate(); // covariant only from Java 13
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        mapping.putInt(MAGIC);
+        mapping.putInt(VERSION);
+        mapping.putInt(HEADER_SIZE);
+        mapping.putInt(RECORD_SIZE);
+        mapping.putLong(numRecords);
+    }
+
+    /**
+     * Maps the region of the file starting at {@code offset}, with room for {@code RECORDS_PER_MAPPING} records
+     * after the first {@code prefixSize} bytes.
+     */
+    private void map(long offset, int prefixSize) {
+        try {
+            mapping = channel.map(FileChannel.MapMode.READ_WRITE, offset,
+                    prefixSize + (long) RECORDS_PER_MAPPING * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to map decision log " + path + ".\n" + e);
+        }
+        mapping.order(ByteOrder.LITTLE_ENDIAN);
+        mappingOffset = offset;
+    }
+
+    /**
+     * Appends the record of {@code validator} deciding on {@code consensusInstance} of its program {@code program}
+     * in {@code view} at {@code time}, after {@code numRounds} rounds and {@code numMessagesSent} messages.
+     */
+    public void append(double time, int validator, int program, int consensusInstance, int view, int numRounds,
+            int numMessagesSent) {
+        if (!mapping.hasRemaining()) {
+            map(mappingOffset + mapping.capacity(), 0);
+        }
+        mapping.putDouble(time);
+        mapping.putInt(validator);
+        mapping.putInt(program);
+        mapping.putInt(consensusInstance);
+        mapping.putInt(view);
+        mapping.putInt(numRounds);
+        mapping.putInt(numMessagesSent);
+        numRecords++;
+        header.putLong(NUM_RECORDS_OFFSET, numRecords);
+    }
+
+    public long getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Truncates the unused end of the last mapping and closes the log.
+     */
+    @Override
+    public void close() {
+        try {
+            header.force();
+            mapping.force();
+            channel.truncate(HEADER_SIZE + numRecords * RECORD_SIZE);
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close decision log " + path + ".\n" + e);
+        }
+    }
+}
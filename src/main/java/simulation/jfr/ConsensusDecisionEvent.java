@@ -0,0 +1,46 @@
+package simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event marking a validator deciding on a consensus instance.
+ */
+@Name("simulation.ConsensusDecision")
+@Label("Consensus Decision")
+@Category("Simulation")
+@Description("Decision of a validator on a consensus instance")
+@StackTrace(false)
+public class ConsensusDecisionEvent extends jdk.jfr.Event {
+
+    @Label("Consensus Protocol")
+    String consensusProtocol;
+
+    @Label("Validator")
+    int validator;
+
+    @Label("Consensus Instance")
+    int consensusInstance;
+
+    @Label("Simulated Time")
+    double simulatedTime;
+
+    /**
+     * Commits an event for {@code validator} deciding on {@code consensusInstance} at {@code simulatedTime}
+     * if the event is enabled in the current recording.
+     */
+    public static void commit(String consensusProtocol, int validator, int consensusInstance,
+            double simulatedTime) {
+        ConsensusDecisionEvent event = new ConsensusDecisionEvent();
+        if (event.shouldCommit()) {
+            event.consensusProtocol = consensusProtocol;
+            event.validator = validator;
+            event.consensusInstance = consensusInstance;
+            event.simulatedTime = simulatedTime;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning the building of the routing tables of a network of switches.
+ */
+@Name("simulation.RoutingTableBuild")
+@Label("Routing Table Build")
+@Category("Simulation")
+@Description("Building of the routing tables of the switches until no routing table changes")
+public class RoutingTableBuildEvent extends jdk.jfr.Event {
+
+    @Label("Number of Switches")
+    int numSwitches;
+
+    @Label("Number of Passes")
+    @Description("Number of passes over the switches until no routing table changed")
+    int numPasses;
+
+    /**
+     * @param numSwitches Number of switches whose routing tables are built.
+     */
+    public RoutingTableBuildEvent(int numSwitches) {
+        this.numSwitches = numSwitches;
+    }
+
+    public void setNumPasses(int numPasses) {
+        this.numPasses = numPasses;
+    }
+}
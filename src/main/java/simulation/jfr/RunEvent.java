@@ -0,0 +1,48 @@
+package simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning a single simulation run, from the construction of its network to its results.
+ */
+@Name("simulation.Run")
+@Label("Simulation Run")
+@Category("Simulation")
+@Description("Simulation of a single run with a given seed")
+public class RunEvent extends jdk.jfr.Event {
+
+    @Label("Seed")
+    long seed;
+
+    @Label("Consensus Protocol")
+    String consensusProtocol;
+
+    @Label("Network Type")
+    String networkType;
+
+    @Label("Number of Validators")
+    int numNodes;
+
+    @Label("Number of Events")
+    long numEvents;
+
+    /**
+     * @param seed Seed of the run.
+     * @param consensusProtocol Consensus protocol run by the validators.
+     * @param networkType Network topology the validators are arranged in.
+     * @param numNodes Number of validators in the run.
+     */
+    public RunEvent(long seed, String consensusProtocol, String networkType, int numNodes) {
+        this.seed = seed;
+        this.consensusProtocol = consensusProtocol;
+        this.networkType = networkType;
+        this.numNodes = numNodes;
+    }
+
+    public void setNumEvents(long numEvents) {
+        this.numEvents = numEvents;
+    }
+}
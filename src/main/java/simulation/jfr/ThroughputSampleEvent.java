@@ -0,0 +1,47 @@
+package simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event sampling the progress of a simulation run at a fixed interval of events.
+ */
+@Name("simulation.ThroughputSample")
+@Label("Throughput Sample")
+@Category("Simulation")
+@Description("Progress of a simulation run since the previous sample")
+@StackTrace(false)
+public class ThroughputSampleEvent extends jdk.jfr.Event {
+
+    @Label("Number of Events")
+    @Description("Number of events simulated in the run so far")
+    long numEvents;
+
+    @Label("Simulated Time")
+    double simulatedTime;
+
+    @Label("Queue Size")
+    @Description("Number of pending events in the event queue")
+    int queueSize;
+
+    @Label("Events per Second")
+    @Description("Events simulated per wall-clock second since the previous sample")
+    double eventsPerSecond;
+
+    /**
+     * Commits a sample of the run if the event is enabled in the current recording.
+     */
+    public static void commit(long numEvents, double simulatedTime, int queueSize, double eventsPerSecond) {
+        ThroughputSampleEvent event = new ThroughputSampleEvent();
+        if (event.shouldCommit()) {
+            event.numEvents = numEvents;
+            event.simulatedTime = simulatedTime;
+            event.queueSize = queueSize;
+            event.eventsPerSecond = eventsPerSecond;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning the arrangement of the validators of a run in its network topology.
+ * Includes the building of the routing tables, which is recorded separately as a {@code RoutingTableBuildEvent}.
+ */
+@Name("simulation.TopologyConstruction")
+@Label("Topology Construction")
+@Category("Simulation")
+@Description("Arrangement of the validators in the network topology, including the routing tables")
+public class TopologyConstructionEvent extends jdk.jfr.Event {
+
+    @Label("Network Type")
+    String networkType;
+
+    @Label("Number of Validators")
+    int numNodes;
+
+    @Label("Number of Switches")
+    int numSwitches;
+
+    /**
+     * @param networkType Network topology the validators are arranged in.
+     * @param numNodes Number of validators arranged.
+     */
+    public TopologyConstructionEvent(String networkType, int numNodes) {
+        this.networkType = networkType;
+        this.numNodes = numNodes;
+    }
+
+    public void setNumSwitches(int numSwitches) {
+        this.numSwitches = numSwitches;
+    }
+}
@@ -0,0 +1,56 @@
+package simulation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event marking a validator moving to a new view (HotStuff) or round (IBFT).
+ */
+@Name("simulation.ViewChange")
+@Label("View Change")
+@Category("Simulation")
+@Description("Move of a validator to a new view or round")
+@StackTrace(false)
+public class ViewChangeEvent extends jdk.jfr.Event {
+
+    @Label("Consensus Protocol")
+    String consensusProtocol;
+
+    @Label("Validator")
+    int validator;
+
+    @Label("Consensus Instance")
+    int consensusInstance;
+
+    @Label("View")
+    @Description("New view or round of the validator")
+    int view;
+
+    @Label("Timeout")
+    @Description("True if the view change was caused by the expiry of the validator's own timer")
+    boolean isTimeout;
+
+    @Label("Simulated Time")
+    double simulatedTime;
+
+    /**
+     * Commits an event for {@code validator} moving to {@code view} of {@code consensusInstance} at
+     * {@code simulatedTime} if the event is enabled in the current recording.
+     */
+    public static void commit(String consensusProtocol, int validator, int consensusInstance, int view,
+            boolean isTimeout, double simulatedTime) {
+        ViewChangeEvent event = new ViewChangeEvent();
+        if (event.shouldCommit()) {
+            event.consensusProtocol = consensusProtocol;
+            event.validator = validator;
+            event.consensusInstance = consensusInstance;
+            event.view = view;
+            event.isTimeout = isTimeout;
+            event.simulatedTime = simulatedTime;
+            event.commit();
+        }
+    }
+}
@@ -10,6 +10,8 @@ public class RunConfigJson {
     private int seedMultiplier;
     private ValidatorConfigJson validatorSettings;
     private NetworkConfigurationJson networkSettings;
+    private String statisticsCollector;
+    private TraceFilterJson traceFilter;
 
     public int getNumRuns() {
         return numRuns;
@@ -30,4 +32,18 @@ public class RunConfigJson {
     public NetworkConfigurationJson getNetworkSettings() {
         return networkSettings;
     }
+
+    /**
+     * Returns the name of the statistics collector of the runs, or null if unspecified.
+     */
+    public String getStatisticsCollector() {
+        return statisticsCollector;
+    }
+
+    /**
+     * Returns the filter selecting the events of the runs that are output and traced, or null if all events are.
+     */
+    public TraceFilterJson getTraceFilter() {
+        return traceFilter;
+    }
 }
@@ -0,0 +1,80 @@
+package simulation.json.input;
+
+import java.util.List;
+
+/**
+ * Encapsulates the filter selecting the events of a run that are output and traced.
+ * An event is selected if it satisfies every criterion that is specified, after which one in every
+ * {@code sampleInterval} selected events is kept.
+ */
+public class TraceFilterJson {
+
+    private List<String> nodes;
+    private List<String> eventTypes;
+    private List<String> messageTypes;
+    private Integer minViewOrRound;
+    private Integer maxViewOrRound;
+    private Double startTime;
+    private Double endTime;
+    private int sampleInterval;
+
+    /**
+     * Returns the names or indices (validators first, then switches) of the nodes whose events are selected, or null
+     * if unspecified.
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the names of the {@code TraceEventType}s of the events selected, or null if unspecified.
+     */
+    public List<String> getEventTypes() {
+        return eventTypes;
+    }
+
+    /**
+     * Returns the types of the messages whose events are selected, or null if unspecified.
+     * Events without a message are not selected if specified.
+     */
+    public List<String> getMessageTypes() {
+        return messageTypes;
+    }
+
+    /**
+     * Returns the lowest view or round of the messages whose events are selected, or null if unspecified.
+     * Events without a message are not selected if specified.
+     */
+    public Integer getMinViewOrRound() {
+        return minViewOrRound;
+    }
+
+    /**
+     * Returns the highest view or round of the messages whose events are selected, or null if unspecified.
+     * Events without a message are not selected if specified.
+     */
+    public Integer getMaxViewOrRound() {
+        return maxViewOrRound;
+    }
+
+    /**
+     * Returns the simulated time from which events are selected, or null if unspecified.
+     */
+    public Double getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Returns the simulated time up to which events are selected, or null if unspecified.
+     */
+    public Double getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Returns the number of selected events out of which one is kept. Defaults to 1.
+     */
+    public int getSampleInterval() {
+        return Math.max(sampleInterval, 1);
+    }
+}
@@ -0,0 +1,35 @@
+package simulation.json.output;
+
+/**
+ * Encapsulates the allocation budget of a benchmark scenario.
+ */
+public class AllocationBudgetJson {
+
+    private final String scenario;
+    private final double maxAllocatedBytesPerEvent;
+    private final double maxRetainedBytesPerValidator;
+
+    /**
+     * @param scenario Name of the benchmark scenario.
+     * @param maxAllocatedBytesPerEvent Maximum bytes allocated by the simulation loop per event simulated.
+     * @param maxRetainedBytesPerValidator Maximum heap retained by the simulation at the end of the run per validator.
+     */
+    public AllocationBudgetJson(String scenario, double maxAllocatedBytesPerEvent,
+            double maxRetainedBytesPerValidator) {
+        this.scenario = scenario;
+        this.maxAllocatedBytesPerEvent = maxAllocatedBytesPerEvent;
+        this.maxRetainedBytesPerValidator = maxRetainedBytesPerValidator;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public double getMaxAllocatedBytesPerEvent() {
+        return maxAllocatedBytesPerEvent;
+    }
+
+    public double getMaxRetainedBytesPerValidator() {
+        return maxRetainedBytesPerValidator;
+    }
+}
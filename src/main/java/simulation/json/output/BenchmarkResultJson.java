@@ -0,0 +1,78 @@
+package simulation.json.output;
+
+/**
+ * Encapsulates the measurements of a benchmark scenario.
+ */
+public class BenchmarkResultJson {
+
+    private final String scenario;
+    private final double wallTimeMillis;
+    private final double timeToFirstEventMillis;
+    private final long numEvents;
+    private final double eventsPerSecond;
+    private final long peakHeapBytes;
+    private final double allocationRate;
+    private final double allocatedBytesPerEvent;
+
+    /**
+     * @param scenario Name of the benchmark scenario.
+     * @param wallTimeMillis Time taken to set up and simulate the run.
+     * @param timeToFirstEventMillis Time taken until the first event is simulated, i.e. the setup cost.
+     * @param numEvents Number of events simulated.
+     * @param eventsPerSecond Number of events simulated per second after setup.
+     * @param peakHeapBytes Peak heap usage during the run.
+     * @param allocationRate Bytes allocated per second during the run.
+     * @param allocatedBytesPerEvent Bytes allocated during the run per event simulated.
+     */
+    public BenchmarkResultJson(String scenario, double wallTimeMillis, double timeToFirstEventMillis,
+            long numEvents, double eventsPerSecond, long peakHeapBytes, double allocationRate,
+            double allocatedBytesPerEvent) {
+        this.scenario = scenario;
+        this.wallTimeMillis = wallTimeMillis;
+        this.timeToFirstEventMillis = timeToFirstEventMillis;
+        this.numEvents = numEvents;
+        this.eventsPerSecond = eventsPerSecond;
+        this.peakHeapBytes = peakHeapBytes;
+        this.allocationRate = allocationRate;
+        this.allocatedBytesPerEvent = allocatedBytesPerEvent;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public double getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    public double getTimeToFirstEventMillis() {
+        return timeToFirstEventMillis;
+    }
+
+    public long getNumEvents() {
+        return numEvents;
+    }
+
+    public double getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public double getAllocationRate() {
+        return allocationRate;
+    }
+
+    public double getAllocatedBytesPerEvent() {
+        return allocatedBytesPerEvent;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.1f ms (setup %.1f ms), %d events at %.0f events/s, " +
+                "peak heap %.1f MB, allocation rate %.1f MB/s", scenario, wallTimeMillis, timeToFirstEventMillis,
+                numEvents, eventsPerSecond, peakHeapBytes / 1e6, allocationRate / 1e6);
+    }
+}
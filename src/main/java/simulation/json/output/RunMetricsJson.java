@@ -0,0 +1,48 @@
+package simulation.json.output;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encapsulates the summary of the engine metrics of a simulation run.
+ */
+public class RunMetricsJson {
+
+    private final long numEvents;
+    private final double wallTimeMillis;
+    private final double eventsPerSecond;
+    private final int maxQueueSize;
+    private final long numStaleTimers;
+    private final Map<String, Long> eventTypeCounts;
+    private final List<Long> switchGroupPayloadCounts;
+
+    /**
+     * @param numEvents Number of events simulated.
+     * @param wallTimeMillis Wall-clock time taken to simulate the events.
+     * @param eventsPerSecond Average number of events simulated per wall-clock second.
+     * @param maxQueueSize Maximum number of pending events in the event queue.
+     * @param numStaleTimers Number of timer notifications ignored as the timer had been superseded.
+     * @param eventTypeCounts Number of events simulated for each type of event.
+     * @param switchGroupPayloadCounts Number of payloads processed by the switches of each switch group.
+     */
+    public RunMetricsJson(long numEvents, double wallTimeMillis, double eventsPerSecond, int maxQueueSize,
+            long numStaleTimers, Map<String, Long> eventTypeCounts, List<Long> switchGroupPayloadCounts) {
+        this.numEvents = numEvents;
+        this.wallTimeMillis = wallTimeMillis;
+        this.eventsPerSecond = eventsPerSecond;
+        this.maxQueueSize = maxQueueSize;
+        this.numStaleTimers = numStaleTimers;
+        this.eventTypeCounts = eventTypeCounts;
+        this.switchGroupPayloadCounts = switchGroupPayloadCounts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Events simulated: %d (%.0f events/s over %.1f ms)\n" +
+                "Max event queue size: %d\n" +
+                "Stale timers: %d\n" +
+                "Events by type: %s\n" +
+                "Payloads by switch group: %s", numEvents, eventsPerSecond, wallTimeMillis, maxQueueSize,
+                numStaleTimers, eventTypeCounts, switchGroupPayloadCounts);
+    }
+}
@@ -0,0 +1,48 @@
+package simulation.json.output;
+
+import simulation.simulator.RunResults;
+import simulation.statistics.QueueStatistics;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Encapsulates the results of one or more simulation runs in a single object.
+ * Combines the contents of the validator results and switch group json files.
+ */
+public class RunResultsJson {
+
+    /**
+     * Seeds of the runs that were merged into these results.
+     */
+    private final List<Long> seeds;
+    private final ValidatorResultsJson validatorResults;
+    private final List<QueueResultsJson> switchGroupResults;
+
+    /**
+     * @param seeds Seeds of the runs that produced {@code runResults}.
+     * @param runResults Results of the runs.
+     */
+    public RunResultsJson(List<Long> seeds, RunResults runResults) {
+        this.seeds = List.copyOf(seeds);
+        this.validatorResults = new ValidatorResultsJson(runResults.getFastestValidatorStatistics(),
+                runResults.getRemainderValidatorStatistics(), runResults.getFastestValidatorQueueStatistics(),
+                runResults.getRemainderValidatorQueueStatistics());
+        this.switchGroupResults = runResults.getSwitchStatistics().stream()
+                .map(RunResultsJson::toQueueResultsJson)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the {@code QueueResultsJson} summarising {@code queueStatistics}.
+     */
+    public static QueueResultsJson toQueueResultsJson(QueueStatistics queueStatistics) {
+        return new QueueResultsJson(queueStatistics.getAverageNumMessagesInQueue(),
+                queueStatistics.getMessageArrivalRate(), queueStatistics.getAverageMessageWaitingTime());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Seeds: %s\n%s\n%s", seeds, validatorResults, switchGroupResults);
+    }
+}
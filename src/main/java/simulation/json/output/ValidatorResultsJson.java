@@ -31,22 +31,42 @@ public class ValidatorResultsJson {
     private final double t_total_fastest;
     private final double t_total_remainder;
 
-    private final double L_fastest;
-    private final double L_remainder;
+    /**
+     * Queue statistics, which are null and left out of the json if the queues of the validators were not modelled.
+     */
+    private final Double L_fastest;
+    private final Double L_remainder;
 
-    private final double W_fastest;
-    private final double W_remainder;
+    private final Double W_fastest;
+    private final Double W_remainder;
 
-    private final double lambda_fastest;
-    private final double lambda_remainder;
+    private final Double lambda_fastest;
+    private final Double lambda_remainder;
 
+    /**
+     * Percentiles of the time taken to decide a consensus instance.
+     */
+    private final double t_p50_fastest;
+    private final double t_p50_remainder;
+    private final double t_p99_fastest;
+    private final double t_p99_remainder;
+    private final double t_p999_fastest;
+    private final double t_p999_remainder;
+
+    /**
+     * {@code fastestQueueStats} and {@code remainderQueueStats} are null if the queues of the validators were not
+     * modelled, as in replays of traces.
+     */
     public ValidatorResultsJson(ConsensusStatistics fastestConsensusStats,
             ConsensusStatistics remainderConsensusStats,
             QueueStatistics fastestQueueStats, QueueStatistics remainderQueueStats) {
         t_total_fastest = fastestConsensusStats.getAverageConsensusTime();
-        L_fastest = fastestQueueStats.getAverageNumMessagesInQueue();
-        W_fastest = fastestQueueStats.getAverageMessageWaitingTime();
-        lambda_fastest = fastestQueueStats.getMessageArrivalRate();
+        t_p50_fastest = fastestConsensusStats.getDecisionLatencyPercentile(50);
+        t_p99_fastest = fastestConsensusStats.getDecisionLatencyPercentile(99);
+        t_p999_fastest = fastestConsensusStats.getDecisionLatencyPercentile(99.9);
+        L_fastest = fastestQueueStats == null ? null : fastestQueueStats.getAverageNumMessagesInQueue();
+        W_fastest = fastestQueueStats == null ? null : fastestQueueStats.getAverageMessageWaitingTime();
+        lambda_fastest = fastestQueueStats == null ? null : fastestQueueStats.getMessageArrivalRate();
 
         fastestStateTimeMap = fastestConsensusStats.getNormalizedStateTimeMap();
         fastestRoundStateTimeMap = fastestConsensusStats.getNormalizedRoundStateTimeMap();
@@ -55,9 +75,12 @@ public class ValidatorResultsJson {
         fastestRoundChangeStateCountMap = fastestConsensusStats.getNormalizedRoundChangeStateCountMap();
 
         t_total_remainder = remainderConsensusStats.getAverageConsensusTime();
-        L_remainder = remainderQueueStats.getAverageNumMessagesInQueue();
-        W_remainder = remainderQueueStats.getAverageMessageWaitingTime();
-        lambda_remainder = remainderQueueStats.getMessageArrivalRate();
+        t_p50_remainder = remainderConsensusStats.getDecisionLatencyPercentile(50);
+        t_p99_remainder = remainderConsensusStats.getDecisionLatencyPercentile(99);
+        t_p999_remainder = remainderConsensusStats.getDecisionLatencyPercentile(99.9);
+        L_remainder = remainderQueueStats == null ? null : remainderQueueStats.getAverageNumMessagesInQueue();
+        W_remainder = remainderQueueStats == null ? null : remainderQueueStats.getAverageMessageWaitingTime();
+        lambda_remainder = remainderQueueStats == null ? null : remainderQueueStats.getMessageArrivalRate();
 
         remainderStateTimeMap = remainderConsensusStats.getNormalizedStateTimeMap();
         remainderRoundStateTimeMap = remainderConsensusStats.getNormalizedRoundStateTimeMap();
@@ -0,0 +1,208 @@
+package simulation.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live progress of a simulation run, registered as an MBean so that it can be watched with local monitoring tools
+ * such as JConsole or VisualVM while the run is in progress.
+ *
+ * The simulation thread periodically publishes a snapshot of the run through {@code update}. The estimated
+ * completion time extrapolates the wall time taken so far by the consensus count of the slowest validator, as
+ * the run is over once every validator reaches the target consensus count.
+ */
+public class RunProgress implements RunProgressMXBean {
+
+    /**
+     * Number of events simulated between consecutive updates of the progress.
+     */
+    public static final int UPDATE_INTERVAL = 1000;
+    private static final String OBJECT_NAME_FORMAT = "simulation:type=RunProgress,id=%d,seed=%d";
+    private static final AtomicInteger RUN_ID_COUNTER = new AtomicInteger();
+
+    private final long seed;
+    private final String consensusProtocol;
+    private final String networkType;
+    private final int numNodes;
+    private final int targetConsensusCount;
+    private final ObjectName objectName;
+    private final long startTime;
+    private volatile Snapshot snapshot;
+
+    /**
+     * The rate of progress is measured from the creation of the progress, which should be once the network of the
+     * run is set up.
+     *
+     * @param seed Seed of the run.
+     * @param consensusProtocol Consensus protocol run by the validators.
+     * @param networkType Network topology the validators are arranged in.
+     * @param numNodes Number of validators in the run.
+     * @param targetConsensusCount Number of consensus instances each validator has to decide on.
+     */
+    public RunProgress(long seed, String consensusProtocol, String networkType, int numNodes,
+            int targetConsensusCount) {
+        this.seed = seed;
+        this.consensusProtocol = consensusProtocol;
+        this.networkType = networkType;
+        this.numNodes = numNodes;
+        this.targetConsensusCount = targetConsensusCount;
+        this.startTime = System.nanoTime();
+        this.snapshot = new Snapshot(startTime, 0, 0, 0, 0, 0, 0);
+        try {
+            this.objectName = new ObjectName(String.format(OBJECT_NAME_FORMAT, RUN_ID_COUNTER.incrementAndGet(),
+                    seed));
+        } catch (JMException e) {
+            throw new RuntimeException("Unable to name progress MBean of run with seed " + seed + ".\n" + e);
+        }
+    }
+
+    /**
+     * Registers the progress with the platform MBean server.
+     */
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new RuntimeException("Unable to register progress MBean " + objectName + ".\n" + e);
+        }
+    }
+
+    /**
+     * Unregisters the progress from the platform MBean server once the run is over.
+     */
+    public void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new RuntimeException("Unable to unregister progress MBean " + objectName + ".\n" + e);
+        }
+    }
+
+    /**
+     * Publishes the state of the run after {@code roundCount} events.
+     * Only to be called by the simulation thread.
+     */
+    public void update(double simulatedTime, long roundCount, int minConsensusCount, int maxConsensusCount,
+            int eventQueueSize) {
+        long currentTime = System.nanoTime();
+        Snapshot previousSnapshot = snapshot;
+        double eventsPerSecond = (roundCount - previousSnapshot.roundCount)
+                / ((currentTime - previousSnapshot.time) / 1e9);
+        snapshot = new Snapshot(currentTime, simulatedTime, roundCount, minConsensusCount, maxConsensusCount,
+                eventQueueSize, eventsPerSecond);
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String getConsensusProtocol() {
+        return consensusProtocol;
+    }
+
+    @Override
+    public String getNetworkType() {
+        return networkType;
+    }
+
+    @Override
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    @Override
+    public int getTargetConsensusCount() {
+        return targetConsensusCount;
+    }
+
+    @Override
+    public double getSimulatedTime() {
+        return snapshot.simulatedTime;
+    }
+
+    @Override
+    public long getRoundCount() {
+        return snapshot.roundCount;
+    }
+
+    @Override
+    public int getMinConsensusCount() {
+        return snapshot.minConsensusCount;
+    }
+
+    @Override
+    public int getMaxConsensusCount() {
+        return snapshot.maxConsensusCount;
+    }
+
+    @Override
+    public int getEventQueueSize() {
+        return snapshot.eventQueueSize;
+    }
+
+    @Override
+    public double getEventsPerSecond() {
+        return snapshot.eventsPerSecond;
+    }
+
+    @Override
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startTime) / 1e9;
+    }
+
+    @Override
+    public double getEstimatedSecondsRemaining() {
+        Snapshot currentSnapshot = snapshot;
+        if (currentSnapshot.minConsensusCount <= 0) {
+            return -1;
+        }
+        double elapsedSeconds = (currentSnapshot.time - startTime) / 1e9;
+        double remainingFraction = (double) (targetConsensusCount - currentSnapshot.minConsensusCount)
+                / currentSnapshot.minConsensusCount;
+        double sinceSnapshotSeconds = (System.nanoTime() - currentSnapshot.time) / 1e9;
+        return Math.max(0, elapsedSeconds * remainingFraction - sinceSnapshotSeconds);
+    }
+
+    @Override
+    public String getEstimatedCompletionTime() {
+        double estimatedSecondsRemaining = getEstimatedSecondsRemaining();
+        if (estimatedSecondsRemaining < 0) {
+            return "";
+        }
+        return Instant.now().plusMillis((long) (estimatedSecondsRemaining * 1e3)).toString();
+    }
+
+    /**
+     * State of the run published by the simulation thread.
+     */
+    private static class Snapshot {
+
+        private final long time;
+        private final double simulatedTime;
+        private final long roundCount;
+        private final int minConsensusCount;
+        private final int maxConsensusCount;
+        private final int eventQueueSize;
+        private final double eventsPerSecond;
+
+        private Snapshot(long time, double simulatedTime, long roundCount, int minConsensusCount,
+                int maxConsensusCount, int eventQueueSize, double eventsPerSecond) {
+            this.time = time;
+            this.simulatedTime = simulatedTime;
+            this.roundCount = roundCount;
+            this.minConsensusCount = minConsensusCount;
+            this.maxConsensusCount = maxConsensusCount;
+            this.eventQueueSize = eventQueueSize;
+            this.eventsPerSecond = eventsPerSecond;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package simulation.metrics;
+
+/**
+ * Management interface exposing the live progress of a simulation run.
+ * Values are refreshed by the simulation thread every {@code RunProgress.UPDATE_INTERVAL} events.
+ */
+public interface RunProgressMXBean {
+
+    long getSeed();
+
+    String getConsensusProtocol();
+
+    String getNetworkType();
+
+    int getNumNodes();
+
+    /**
+     * Returns the number of consensus instances each validator has to decide on for the run to be over.
+     */
+    int getTargetConsensusCount();
+
+    double getSimulatedTime();
+
+    /**
+     * Returns the number of events simulated so far.
+     */
+    long getRoundCount();
+
+    int getMinConsensusCount();
+
+    int getMaxConsensusCount();
+
+    int getEventQueueSize();
+
+    /**
+     * Returns the number of events simulated per wall-clock second since the previous update.
+     */
+    double getEventsPerSecond();
+
+    double getElapsedSeconds();
+
+    /**
+     * Returns the estimated wall-clock seconds until the slowest validator reaches the target consensus count,
+     * or -1 if no estimate can be made yet.
+     */
+    double getEstimatedSecondsRemaining();
+
+    /**
+     * Returns the estimated wall-clock completion time of the run in ISO-8601 format, or an empty string if no
+     * estimate can be made yet.
+     */
+    String getEstimatedCompletionTime();
+}
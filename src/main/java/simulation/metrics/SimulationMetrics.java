@@ -0,0 +1,166 @@
+package simulation.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import simulation.event.NodeEvent;
+import simulation.event.ProcessingDelayEvent;
+import simulation.json.output.RunMetricsJson;
+import simulation.network.entity.Node;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counters of the hot path of a simulation run.
+ *
+ * Records the number of events simulated per type of event, the number of pending events over simulated time,
+ * the number of events simulated per wall-clock second, the number of stale timer notifications and the number
+ * of payloads processed per switch group.
+ * Every {@code sampleInterval} events, a sample of the counters is appended to a csv time-series file.
+ * A summary of the counters is written to a json file when the metrics are closed at the end of the run.
+ *
+ * Metrics are only collected by a simulator that has been given a {@code SimulationMetrics}.
+ */
+public class SimulationMetrics implements Closeable {
+
+    public static final int DEFAULT_SAMPLE_INTERVAL = 10000;
+    private static final String TIME_SERIES_HEADER =
+            "wallTimeMillis,simulatedTime,numEvents,queueSize,eventsPerSecond,numStaleTimers";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final BufferedWriter timeSeriesWriter;
+    private final Path timeSeriesPath;
+    private final Path summaryPath;
+    private final int sampleInterval;
+    private final long startTime;
+    private final Map<Class<?>, long[]> eventTypeCounts;
+    private final Map<Node<?>, Integer> switchGroupIndexMap;
+    private long[] switchGroupPayloadCounts;
+    private long numEvents;
+    private long numStaleTimers;
+    private int maxQueueSize;
+    private long previousSampleTime;
+    private long previousSampleNumEvents;
+    private double currentSimulatedTime;
+    private int currentQueueSize;
+
+    /**
+     * @param timeSeriesPath Path of the csv file samples of the counters are written to.
+     * @param summaryPath Path of the json file the summary of the counters is written to.
+     * @param sampleInterval Number of events between consecutive samples.
+     */
+    public SimulationMetrics(Path timeSeriesPath, Path summaryPath, int sampleInterval) {
+        this.timeSeriesPath = timeSeriesPath;
+        this.summaryPath = summaryPath;
+        this.sampleInterval = sampleInterval;
+        this.eventTypeCounts = new LinkedHashMap<>();
+        this.switchGroupIndexMap = new IdentityHashMap<>();
+        this.switchGroupPayloadCounts = new long[0];
+        try {
+            this.timeSeriesWriter = Files.newBufferedWriter(timeSeriesPath);
+            timeSeriesWriter.write(TIME_SERIES_HEADER);
+            timeSeriesWriter.newLine();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create metrics file " + timeSeriesPath + ".\n" + e);
+        }
+        this.startTime = System.nanoTime();
+        this.previousSampleTime = startTime;
+    }
+
+    /**
+     * Registers the switches of each switch group so that payloads processed by them are counted per group.
+     */
+    public void registerSwitchGroups(List<? extends List<? extends Node<?>>> switchGroups) {
+        switchGroupPayloadCounts = new long[switchGroups.size()];
+        for (int i = 0; i < switchGroups.size(); i++) {
+            for (Node<?> switch_ : switchGroups.get(i)) {
+                switchGroupIndexMap.put(switch_, i);
+            }
+        }
+    }
+
+    /**
+     * Records that {@code event} was simulated at {@code simulatedTime}, leaving {@code queueSize} pending events.
+     */
+    public void recordEvent(NodeEvent<?> event, double simulatedTime, int queueSize) {
+        numEvents++;
+        eventTypeCounts.computeIfAbsent(event.getClass(), k -> new long[1])[0]++;
+        if (event instanceof ProcessingDelayEvent) {
+            Integer switchGroupIndex = switchGroupIndexMap.get(event.getNode());
+            if (switchGroupIndex != null) {
+                switchGroupPayloadCounts[switchGroupIndex]++;
+            }
+        }
+        maxQueueSize = Math.max(maxQueueSize, queueSize);
+        currentSimulatedTime = simulatedTime;
+        currentQueueSize = queueSize;
+        if (numEvents % sampleInterval == 0) {
+            writeSample();
+        }
+    }
+
+    /**
+     * Records a timer notification that was ignored as its timer had been superseded.
+     */
+    public void recordStaleTimer() {
+        numStaleTimers++;
+    }
+
+    /**
+     * Returns a summary of the counters since the start of the run.
+     */
+    public RunMetricsJson getSummary() {
+        double wallTimeSeconds = (System.nanoTime() - startTime) / 1e9;
+        Map<String, Long> eventTypeCountMap = new LinkedHashMap<>();
+        eventTypeCounts.forEach((eventClass, count) -> eventTypeCountMap.put(eventClass.getSimpleName(), count[0]));
+        List<Long> switchGroupPayloadCountList = new ArrayList<>();
+        for (long count : switchGroupPayloadCounts) {
+            switchGroupPayloadCountList.add(count);
+        }
+        return new RunMetricsJson(numEvents, wallTimeSeconds * 1e3, numEvents / wallTimeSeconds, maxQueueSize,
+                numStaleTimers, eventTypeCountMap, switchGroupPayloadCountList);
+    }
+
+    /**
+     * Writes a final sample of the counters, closes the time-series file and writes the summary file.
+     */
+    @Override
+    public void close() {
+        if (numEvents != previousSampleNumEvents) {
+            writeSample();
+        }
+        try {
+            timeSeriesWriter.close();
+            Files.writeString(summaryPath, GSON.toJson(getSummary()));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write metrics files " + timeSeriesPath + " and " + summaryPath
+                    + ".\n" + e);
+        }
+    }
+
+    private void writeSample() {
+        long currentTime = System.nanoTime();
+        double eventsPerSecond = (numEvents - previousSampleNumEvents) / ((currentTime - previousSampleTime) / 1e9);
+        previousSampleTime = currentTime;
+        previousSampleNumEvents = numEvents;
+        try {
+            timeSeriesWriter.write(String.format(Locale.ROOT, "%.1f,%.3f,%d,%d,%.0f,%d",
+                    (currentTime - startTime) / 1e6, currentSimulatedTime, numEvents, currentQueueSize,
+                    eventsPerSecond, numStaleTimers));
+            timeSeriesWriter.newLine();
+            // flushed so that the progress of a long run can be followed while it is running
+            timeSeriesWriter.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write to metrics file " + timeSeriesPath + ".\n" + e);
+        }
+    }
+}
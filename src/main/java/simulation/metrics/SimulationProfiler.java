@@ -0,0 +1,300 @@
+package simulation.metrics;
+
+import simulation.event.NodeEvent;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Profiler attributing the wall-clock time and bytes allocated by a simulation thread to the type of event being
+ * simulated, the class of node the event is at and the operations within the event.
+ *
+ * Operations are marked by the code being profiled with {@code enter} and {@code exit}, which do nothing unless
+ * a profiler is attached to the current thread. Time and allocations are charged to the innermost operation
+ * entered, so each frame only accounts for its own cost. Time spent outside of events, such as polling the event
+ * queue and outputting events, is charged to the {@code ENGINE_FRAME}.
+ *
+ * When closed, the profile is written as two collapsed-stack files (one line per stack of frames followed by its
+ * value) that can be rendered as flame graphs, one of wall-clock microseconds and one of bytes allocated, along with
+ * a text summary.
+ */
+public class SimulationProfiler implements Closeable {
+
+    public static final String ENGINE_FRAME = "engine";
+    private static final int NUM_TOP_OPERATIONS = 15;
+
+    private static final ThreadLocal<SimulationProfiler> THREAD_PROFILER = new ThreadLocal<>();
+    /**
+     * Number of profilers attached to any thread, used to skip the thread-local lookup when profiling is off.
+     */
+    private static final AtomicInteger NUM_ATTACHED_PROFILERS = new AtomicInteger();
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+
+    private final Path timeProfilePath;
+    private final Path allocationProfilePath;
+    private final Path summaryPath;
+    private final Frame root;
+    private final Frame engineFrame;
+    private Frame currentFrame;
+    private long previousTime;
+    private long previousAllocatedBytes;
+    private boolean isAttached;
+
+    /**
+     * @param timeProfilePath Path of the collapsed-stack file of wall-clock time.
+     * @param allocationProfilePath Path of the collapsed-stack file of bytes allocated.
+     * @param summaryPath Path of the text file the summary of the profile is written to.
+     */
+    public SimulationProfiler(Path timeProfilePath, Path allocationProfilePath, Path summaryPath) {
+        this.timeProfilePath = timeProfilePath;
+        this.allocationProfilePath = allocationProfilePath;
+        this.summaryPath = summaryPath;
+        this.root = new Frame(null, null);
+        this.engineFrame = root.getChild(ENGINE_FRAME);
+        this.currentFrame = engineFrame;
+    }
+
+    /**
+     * Marks the entry of the current thread into the operation {@code frame}.
+     * Must be followed by a matching {@code exit} once the operation is over.
+     */
+    public static void enter(String frame) {
+        if (NUM_ATTACHED_PROFILERS.get() == 0) {
+            return;
+        }
+        SimulationProfiler profiler = THREAD_PROFILER.get();
+        if (profiler != null) {
+            profiler.push(frame);
+        }
+    }
+
+    /**
+     * Marks the exit of the current thread from the operation it last entered.
+     */
+    public static void exit() {
+        if (NUM_ATTACHED_PROFILERS.get() == 0) {
+            return;
+        }
+        SimulationProfiler profiler = THREAD_PROFILER.get();
+        if (profiler != null) {
+            profiler.pop();
+        }
+    }
+
+    /**
+     * Attaches the profiler to the current thread and starts profiling it.
+     */
+    public void start() {
+        if (THREAD_PROFILER.get() != null) {
+            throw new IllegalStateException("A profiler is already attached to " + Thread.currentThread());
+        }
+        THREAD_PROFILER.set(this);
+        NUM_ATTACHED_PROFILERS.incrementAndGet();
+        isAttached = true;
+        previousTime = System.nanoTime();
+        previousAllocatedBytes = getAllocatedBytes();
+    }
+
+    /**
+     * Marks the start of the simulation of {@code event}.
+     */
+    public void beginEvent(NodeEvent<?> event) {
+        charge();
+        currentFrame = root.getChild(event.getClass().getSimpleName())
+                .getChild(event.getNode().getClass().getSimpleName());
+    }
+
+    /**
+     * Marks the end of the simulation of the current event.
+     */
+    public void endEvent() {
+        charge();
+        currentFrame = engineFrame;
+    }
+
+    /**
+     * Returns a summary of the profile, with the share of time and allocations of each combination of event type
+     * and node class, followed by the operations with the most time spent in them.
+     */
+    public String getSummary() {
+        long totalNanos = root.getTotal(frame -> frame.nanos);
+        long totalBytes = root.getTotal(frame -> frame.bytes);
+        StringBuilder builder = new StringBuilder(String.format("%-48s %10s %7s %12s %7s\n",
+                "Event / node class", "Time (ms)", "", "Alloc (MB)", ""));
+        List<Frame> eventNodeFrames = new ArrayList<>();
+        eventNodeFrames.add(engineFrame);
+        for (Frame eventFrame : root.children.values()) {
+            if (eventFrame != engineFrame) {
+                eventNodeFrames.addAll(eventFrame.children.values());
+            }
+        }
+        eventNodeFrames.sort(Comparator.comparingLong((Frame frame) -> frame.getTotal(f -> f.nanos)).reversed());
+        for (Frame frame : eventNodeFrames) {
+            appendSummaryLine(builder, frame.getStack(), frame.getTotal(f -> f.nanos), frame.getTotal(f -> f.bytes),
+                    totalNanos, totalBytes);
+        }
+
+        Map<String, long[]> operationCosts = new HashMap<>();
+        root.forEachDescendant(frame -> {
+            if (frame.parent != root && frame.parent.parent != root) {
+                long[] costs = operationCosts.computeIfAbsent(frame.name, name -> new long[2]);
+                costs[0] += frame.nanos;
+                costs[1] += frame.bytes;
+            }
+        });
+        builder.append(String.format("\n%-48s %10s %7s %12s %7s\n", "Operation (self)", "Time (ms)", "",
+                "Alloc (MB)", ""));
+        operationCosts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .limit(NUM_TOP_OPERATIONS)
+                .forEach(entry -> appendSummaryLine(builder, entry.getKey(), entry.getValue()[0],
+                        entry.getValue()[1], totalNanos, totalBytes));
+        return builder.toString().stripTrailing();
+    }
+
+    /**
+     * Detaches the profiler from the current thread and writes the collapsed-stack files and summary.
+     */
+    @Override
+    public void close() {
+        if (isAttached) {
+            charge();
+            THREAD_PROFILER.remove();
+            NUM_ATTACHED_PROFILERS.decrementAndGet();
+            isAttached = false;
+        }
+        writeCollapsedStacks(timeProfilePath, frame -> Math.round(frame.nanos / 1e3));
+        writeCollapsedStacks(allocationProfilePath, frame -> frame.bytes);
+        try {
+            Files.writeString(summaryPath, getSummary());
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write profile summary " + summaryPath + ".\n" + e);
+        }
+    }
+
+    private void push(String frame) {
+        charge();
+        currentFrame = currentFrame.getChild(frame);
+    }
+
+    private void pop() {
+        charge();
+        if (currentFrame.parent != root) {
+            currentFrame = currentFrame.parent;
+        }
+    }
+
+    /**
+     * Charges the time and allocations since the previous charge to the current frame.
+     */
+    private void charge() {
+        long currentTime = System.nanoTime();
+        long allocatedBytes = getAllocatedBytes();
+        currentFrame.nanos += currentTime - previousTime;
+        currentFrame.bytes += allocatedBytes - previousAllocatedBytes;
+        previousTime = currentTime;
+        previousAllocatedBytes = allocatedBytes;
+    }
+
+    private void writeCollapsedStacks(Path path, ToLongFunction<Frame> valueFunction) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            List<Frame> frames = new ArrayList<>();
+            root.forEachDescendant(frames::add);
+            for (Frame frame : frames) {
+                long value = valueFunction.applyAsLong(frame);
+                if (value > 0) {
+                    writer.write(frame.getStack() + " " + value);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write profile " + path + ".\n" + e);
+        }
+    }
+
+    private static void appendSummaryLine(StringBuilder builder, String name, long nanos, long bytes,
+            long totalNanos, long totalBytes) {
+        builder.append(String.format("%-48s %10.1f %6.1f%% %12.1f %6.1f%%\n", name, nanos / 1e6,
+                100.0 * nanos / Math.max(1, totalNanos), bytes / 1e6, 100.0 * bytes / Math.max(1, totalBytes)));
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far, or 0 if the JVM does not support it.
+     */
+    private static long getAllocatedBytes() {
+        return THREAD_BEAN == null ? 0 : THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        return (com.sun.management.ThreadMXBean) threadBean;
+    }
+
+    /**
+     * Node in the tree of frames, holding the time and allocations charged to the frame itself.
+     */
+    private static class Frame {
+
+        private final String name;
+        private final Frame parent;
+        private final Map<String, Frame> children;
+        private long nanos;
+        private long bytes;
+
+        private Frame(String name, Frame parent) {
+            this.name = name;
+            this.parent = parent;
+            this.children = new HashMap<>();
+        }
+
+        private Frame getChild(String name) {
+            Frame child = children.get(name);
+            if (child == null) {
+                child = new Frame(name, this);
+                children.put(name, child);
+            }
+            return child;
+        }
+
+        /**
+         * Returns the value of the frame and all frames below it.
+         */
+        private long getTotal(ToLongFunction<Frame> valueFunction) {
+            long total = valueFunction.applyAsLong(this);
+            for (Frame child : children.values()) {
+                total += child.getTotal(valueFunction);
+            }
+            return total;
+        }
+
+        private void forEachDescendant(Consumer<Frame> action) {
+            for (Frame child : children.values()) {
+                action.accept(child);
+                child.forEachDescendant(action);
+            }
+        }
+
+        /**
+         * Returns the names of the frames from the outermost frame to this frame, separated by semicolons.
+         */
+        private String getStack() {
+            return parent.name == null ? name : parent.getStack() + ";" + name;
+        }
+    }
+}
@@ -3,5 +3,20 @@ package simulation.network.entity;
 public abstract class BFTMessage {
 
     public abstract String getType();
+
+    /**
+     * Returns the index of the type of the message among the message types of its consensus program.
+     */
+    public abstract int getTypeIndex();
     public abstract int getRecipientId();
+
+    /**
+     * Returns the id of the validator that sent the message.
+     */
+    public abstract int getSenderId();
+
+    /**
+     * Returns the view or round of its consensus program that the message was sent in.
+     */
+    public abstract int getViewOrRound();
 }
@@ -1,10 +1,14 @@
 package simulation.network.entity;
 
+import simulation.metrics.SimulationProfiler;
 import simulation.simulator.QueueResults;
+import simulation.statistics.AverageStatisticsCollector;
 import simulation.statistics.QueueStatistics;
+import simulation.statistics.StatisticsCollector;
 import simulation.util.Pair;
+import simulation.util.collection.DoubleRingBuffer;
+import simulation.util.collection.RingBuffer;
 
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -14,20 +18,23 @@ import java.util.List;
  */
 public abstract class Node<T> implements QueueResults {
 
+    private static final String STATISTICS_FRAME = "QueueStatistics";
+
     private final String name;
     /**
      * Queue of payloads at the node to be processed.
      */
-    private final LinkedList<Payload<T>> queue;
+    private final RingBuffer<Payload<T>> queue;
     /**
-     * Arrival times of messages.
+     * Arrival times of messages, including that of the message being processed.
      * Use for tracking and calculating of queue statistics.
      */
-    private final LinkedList<Double> messageArrivalTimes;
+    private final DoubleRingBuffer messageArrivalTimes;
     /**
      * Tracking of queue statistics in the node.
      */
     private final QueueStatistics queueStatistics;
+    private StatisticsCollector statisticsCollector;
     private boolean isOccupied;
     private double currentTime;
     /**
@@ -37,10 +44,11 @@ public abstract class Node<T> implements QueueResults {
 
     public Node(String name) {
         this.name = name;
-        this.queue = new LinkedList<>();
+        this.queue = new RingBuffer<>();
         this.currentTime = 0;
         this.queueStatistics = new QueueStatistics();
-        this.messageArrivalTimes = new LinkedList<>();
+        this.statisticsCollector = AverageStatisticsCollector.DEFAULT_STATISTICS_COLLECTOR;
+        this.messageArrivalTimes = new DoubleRingBuffer();
         this.previousQueueChangedTime = 0;
         this.isOccupied = false;
     }
@@ -69,7 +77,9 @@ public abstract class Node<T> implements QueueResults {
         isOccupied = false;
         setCurrentTime(time);
         previousQueueChangedTime = time;
-        queueStatistics.addMessageProcessedTime(time, time - messageArrivalTimes.pop());
+        SimulationProfiler.enter(STATISTICS_FRAME);
+        statisticsCollector.onMessageProcessed(this, time, time - messageArrivalTimes.pop());
+        SimulationProfiler.exit();
     }
 
     public void setCurrentTime(double time) {
@@ -105,8 +115,13 @@ public abstract class Node<T> implements QueueResults {
      */
     public void addToQueue(double time, Payload<T> payload) {
         previousQueueChangedTime = time;
-        queueStatistics.addMessageArrivedTime(time);
+        SimulationProfiler.enter(STATISTICS_FRAME);
+        statisticsCollector.onMessageArrived(this, time);
         messageArrivalTimes.add(time);
+        SimulationProfiler.exit();
+        if (payload.getFlight() != null) {
+            payload.getFlight().recordArrival(this, time);
+        }
         queue.add(payload);
     }
 
@@ -119,6 +134,17 @@ public abstract class Node<T> implements QueueResults {
         return queue.pop();
     }
 
+    /**
+     * Sets the {@code statisticsCollector} that changes to the queue of the node are reported to.
+     */
+    public void setStatisticsCollector(StatisticsCollector statisticsCollector) {
+        this.statisticsCollector = statisticsCollector;
+    }
+
+    protected StatisticsCollector getStatisticsCollector() {
+        return statisticsCollector;
+    }
+
     @Override
     public QueueStatistics getQueueStatistics() {
         return queueStatistics;
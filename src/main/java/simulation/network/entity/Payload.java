@@ -1,5 +1,7 @@
 package simulation.network.entity;
 
+import simulation.trace.MessageFlight;
+
 /**
  * Encapsulates a payload traveling through a computer network.
  *
@@ -10,6 +12,7 @@ public class Payload<T> {
     private final T message;
     private final String destination;
     private final int programId;
+    private MessageFlight flight;
 
     public Payload(T message, String destination, int programId) {
         this.message = message;
@@ -29,6 +32,17 @@ public class Payload<T> {
         return programId;
     }
 
+    /**
+     * Returns the flight of the payload through the network, or null if the payload was not sampled.
+     */
+    public MessageFlight getFlight() {
+        return flight;
+    }
+
+    public void setFlight(MessageFlight flight) {
+        this.flight = flight;
+    }
+
     @Override
     public String toString() {
         return "Payload: (" + message + ", " + destination + ")";
@@ -1,9 +1,12 @@
 package simulation.network.entity;
 
+import simulation.metrics.SimulationProfiler;
 import simulation.network.entity.timer.TimerNotifier;
 import simulation.protocol.ConsensusProgram;
 import simulation.simulator.ValidatorResults;
 import simulation.statistics.ConsensusStatistics;
+import simulation.statistics.StatisticsCollector;
+import simulation.trace.FlightRecorder;
 import simulation.util.Pair;
 import simulation.util.rng.RandomNumberGenerator;
 
@@ -11,6 +14,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Encapsulates an {@code EndpointNode} that runs a BFT protocol.
@@ -20,6 +24,8 @@ import java.util.stream.Collectors;
 public class Validator<T extends BFTMessage> extends EndpointNode<T>
         implements ValidatorResults, TimerNotifier<ConsensusProgram<T>> {
 
+    private static final String CONVERT_MESSAGES_FRAME = "Validator.convertMessagesToPayloads";
+
     private final Map<Integer, Validator<T>> allNodes;
     private final int consensusLimit;
     private final TimerNotifier<Validator<T>> timerNotifier;
@@ -30,6 +36,7 @@ public class Validator<T extends BFTMessage> extends EndpointNode<T>
     private final Map<ConsensusProgram<T>, Integer> programToIdMap;
 
     private double previousRecordedTime;
+    private FlightRecorder flightRecorder;
 
     /**
      * @param name Name of validator.
@@ -53,6 +60,31 @@ public class Validator<T extends BFTMessage> extends EndpointNode<T>
     public void addConsensusProgram(ConsensusProgram<T> consensusProgram) {
         this.consensusPrograms.put(this.consensusPrograms.size() + 1, consensusProgram);
         this.programToIdMap.put(consensusProgram, this.programToIdMap.size() + 1);
+        consensusProgram.setStatisticsCollector(getStatisticsCollector());
+    }
+
+    /**
+     * Sets the {@code statisticsCollector} of the validator and its consensus programs.
+     */
+    @Override
+    public void setStatisticsCollector(StatisticsCollector statisticsCollector) {
+        super.setStatisticsCollector(statisticsCollector);
+        consensusPrograms.values().forEach(program -> program.setStatisticsCollector(statisticsCollector));
+    }
+
+    /**
+     * Sets the {@code flightRecorder} that the payloads created by the validator are sampled by.
+     */
+    public void setFlightRecorder(FlightRecorder flightRecorder) {
+        this.flightRecorder = flightRecorder;
+    }
+
+    /**
+     * Returns the consensus program numbered {@code programNumber}, numbered from 1 in the order the programs were
+     * added.
+     */
+    public ConsensusProgram<T> getConsensusProgram(int programNumber) {
+        return consensusPrograms.get(programNumber);
     }
 
     @Override
@@ -65,6 +97,13 @@ public class Validator<T extends BFTMessage> extends EndpointNode<T>
         return consensusPrograms.size();
     }
 
+    /**
+     * Returns the consensus counts of the consensus programs run by the validator.
+     */
+    public IntStream getConsensusCounts() {
+        return consensusPrograms.values().stream().mapToInt(ConsensusProgram::getConsensusCount);
+    }
+
     @Override
     public boolean isStillRequiredToRun() {
         return consensusPrograms.values().stream().anyMatch(p -> p.getConsensusCount() < consensusLimit);
@@ -92,11 +131,18 @@ public class Validator<T extends BFTMessage> extends EndpointNode<T>
     public Pair<Double, List<Payload<T>>> processPayload(double time, Payload<T> payload) {
         double duration = rng.generateRandomNumber();
         previousRecordedTime = time + duration;
+        return new Pair<>(duration, completePayload(previousRecordedTime, payload));
+    }
+
+    /**
+     * Processes {@code payload} to completion at {@code completionTime} and returns the resulting payloads.
+     */
+    public List<Payload<T>> completePayload(double completionTime, Payload<T> payload) {
         T message = payload.getMessage();
         int programId = payload.getProgramId();
         ConsensusProgram<T> consensusProgram = consensusPrograms.get(programId);
-        List<T> responseMessages = consensusProgram.processAndRegisterMessage(message, previousRecordedTime);
-        return new Pair<>(duration, convertMessagesToPayloads(responseMessages, programId));
+        List<T> responseMessages = consensusProgram.processAndRegisterMessage(message, completionTime);
+        return convertMessagesToPayloads(responseMessages, programId);
     }
 
     private String getIdNodeName(int id) {
@@ -104,14 +150,28 @@ public class Validator<T extends BFTMessage> extends EndpointNode<T>
     }
 
     private List<Payload<T>> convertMessagesToPayloads(List<? extends T> messages, int programId) {
-        return messages.stream().map(m -> new Payload<T>(m, getIdNodeName(m.getRecipientId()), programId))
+        SimulationProfiler.enter(CONVERT_MESSAGES_FRAME);
+        List<Payload<T>> payloads = messages.stream()
+                .map(m -> new Payload<T>(m, getIdNodeName(m.getRecipientId()), programId))
                 .collect(Collectors.toList());
+        if (flightRecorder != null) {
+            payloads.forEach(payload -> flightRecorder.sample(payload, programId));
+        }
+        SimulationProfiler.exit();
+        return payloads;
     }
 
     public List<Payload<T>> notifyTime(int id, int timerCount) {
         return convertMessagesToPayloads(consensusPrograms.get(id).notifyTime(timerCount), id);
     }
 
+    /**
+     * Returns true if the timer with {@code timerCount} of the consensus program with {@code id} is still active.
+     */
+    public boolean isTimerActive(int id, int timerCount) {
+        return consensusPrograms.get(id).isTimerActive(timerCount);
+    }
+
     @Override
     public void notifyAtTime(ConsensusProgram<T> program, double time, int id, int timerCount) {
         timerNotifier.notifyAtTime(this, time, programToIdMap.get(program), timerCount);
@@ -11,6 +11,7 @@ import simulation.util.rng.RandomNumberGenerator;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * Represents a defunct validator that stopped responding.
@@ -38,11 +39,22 @@ public class UnresponsiveValidator<T extends BFTMessage> extends Validator<T> {
         return false;
     }
 
+    @Override
+    public IntStream getConsensusCounts() {
+        // takes no part in consensus even though consensus programs are assigned to it
+        return IntStream.empty();
+    }
+
     @Override
     public Pair<Double, List<Payload<T>>> processPayload(double time, Payload<T> payload) {
         return new Pair<>(0.0, List.of());
     }
 
+    @Override
+    public List<Payload<T>> completePayload(double completionTime, Payload<T> payload) {
+        return List.of();
+    }
+
     @Override
     public void notifyAtTime(ConsensusProgram<T> program, double time, int id, int timerCount) {
         return;
@@ -1,5 +1,7 @@
 package simulation.network.router;
 
+import simulation.jfr.RoutingTableBuildEvent;
+
 import java.util.List;
 
 /**
@@ -11,9 +13,15 @@ public class RoutingUtil {
      * Updates the routing tables of in the list of {@code switches}.
      */
     public static <T> void updateRoutingTables(List<Switch<T>> switches) {
+        RoutingTableBuildEvent event = new RoutingTableBuildEvent(switches.size());
+        event.begin();
+        int numPasses = 0;
         boolean isAnyNodeUpdated;
         do {
             isAnyNodeUpdated = switches.stream().anyMatch(Switch::update);
+            numPasses++;
         } while (isAnyNodeUpdated);
+        event.setNumPasses(numPasses);
+        event.commit();
     }
 }
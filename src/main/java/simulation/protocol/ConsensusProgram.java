@@ -2,6 +2,7 @@ package simulation.protocol;
 
 import simulation.network.entity.BFTMessage;
 import simulation.statistics.ConsensusStatistics;
+import simulation.statistics.StatisticsCollector;
 
 import java.util.Collection;
 import java.util.List;
@@ -35,10 +36,31 @@ public interface ConsensusProgram<T extends BFTMessage> {
      */
     List<T> notifyTime(int timerCount);
 
+    /**
+     * Returns true if the timer with {@code timerCount} is the latest timer started and has not been superseded.
+     * Notifications of timers that are not active are stale and ignored.
+     */
+    boolean isTimerActive(int timerCount);
+
     int getConsensusCount();
     int getNumConsecutiveFailure();
     String getState();
+
+    /**
+     * Returns the index of the current state in {@code getStates}.
+     */
+    int getStateIndex();
     Collection<String> getStates();
 
+    /**
+     * Returns the types of messages sent between programs, in the order given by {@code BFTMessage.getTypeIndex}.
+     */
+    Collection<String> getMessageTypes();
+
     ConsensusStatistics getStatistics();
+
+    /**
+     * Sets the {@code statisticsCollector} that the progress of the program is reported to.
+     */
+    void setStatisticsCollector(StatisticsCollector statisticsCollector);
 }
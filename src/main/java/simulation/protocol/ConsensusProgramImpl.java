@@ -1,8 +1,11 @@
 package simulation.protocol;
 
+import simulation.metrics.SimulationProfiler;
 import simulation.network.entity.BFTMessage;
 import simulation.network.entity.timer.TimerNotifier;
+import simulation.statistics.AverageStatisticsCollector;
 import simulation.statistics.ConsensusStatistics;
+import simulation.statistics.StatisticsCollector;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +18,10 @@ import java.util.stream.IntStream;
  */
 public abstract class ConsensusProgramImpl<T extends BFTMessage> implements ConsensusProgram<T> {
 
+    private static final String STATISTICS_FRAME = "ConsensusStatistics";
+    private static final String PROCESS_MESSAGE_FRAME = "ConsensusProgram.processMessage";
+    private static final String TIMER_EXPIRY_FRAME = "ConsensusProgram.onTimerExpiry";
+
     /**
      * Stores payloads while node is processing a message.
      * All payloads are retrieved and sent out after message processing.
@@ -22,11 +29,13 @@ public abstract class ConsensusProgramImpl<T extends BFTMessage> implements Cons
     private List<T> tempMessageStore;
 
     private final ConsensusStatistics statistics;
+    private StatisticsCollector statisticsCollector;
     private final TimerNotifier<ConsensusProgram<T>> timerNotifier;
     private final int numNodes;
     private int timerCount; // Used to differentiate multiple timers in the same instance & round
     private double timeoutTime;
     private double previousRecordedTime;
+    private double previousDecisionTime;
 
     /**
      * @param numNodes Number of nodes in the consensus program.
@@ -39,42 +48,76 @@ public abstract class ConsensusProgramImpl<T extends BFTMessage> implements Cons
         this.timeoutTime = 0;
         this.timerCount = 0;
         this.previousRecordedTime = 0;
-        this.statistics = new ConsensusStatistics(getStates());
-    }
-
-    /**
-     * Tracks consensus related statistics.
-     */
-    private void registerTimeElapsed(double time) {
-        statistics.addTime(getState(), time);
-        statistics.addRoundTime((getNumConsecutiveFailure() + 1), getState(), time);
-        statistics.setConsensusCount(getConsensusCount());
+        this.previousDecisionTime = 0;
+        this.statistics = new ConsensusStatistics(getStates(), getMessageTypes());
+        this.statisticsCollector = AverageStatisticsCollector.DEFAULT_STATISTICS_COLLECTOR;
     }
 
     public void registerMessageProcessed(T message, double currentTime) {
         double timeTaken = currentTime - previousRecordedTime;
         previousRecordedTime = currentTime;
-        registerTimeElapsed(timeTaken);
-        statistics.addMessageCountForState(message.getType());
+        statisticsCollector.onTimeElapsed(this, timeTaken);
+        statisticsCollector.onMessageReceived(this, message);
     }
 
     public void registerMessagesSent(List<T> messages) {
-        messages.forEach(m -> statistics.addMessageSent(m.getType()));
+        for (T message : messages) {
+            statisticsCollector.onMessageSent(this, message);
+        }
     }
 
     @Override
     public List<T> processAndRegisterMessage(T message, double currentTime) {
+        SimulationProfiler.enter(STATISTICS_FRAME);
         registerMessageProcessed(message, currentTime);
+        SimulationProfiler.exit();
+        int previousConsensusCount = getConsensusCount();
+        SimulationProfiler.enter(PROCESS_MESSAGE_FRAME);
         List<T> messages = processMessage(message);
+        SimulationProfiler.exit();
+        SimulationProfiler.enter(STATISTICS_FRAME);
+        registerDecisions(getConsensusCount() - previousConsensusCount, currentTime);
         registerMessagesSent(messages);
+        SimulationProfiler.exit();
         return messages;
     }
 
+    /**
+     * Records {@code numDecisions} consensus instances being decided at {@code currentTime}.
+     * Only the first instance is taken to have waited since the previous decision.
+     */
+    private void registerDecisions(int numDecisions, double currentTime) {
+        for (int i = 0; i < numDecisions; i++) {
+            statisticsCollector.onDecision(this, currentTime - previousDecisionTime);
+            previousDecisionTime = currentTime;
+        }
+    }
+
+    /**
+     * Records the program of {@code validator} deciding on {@code consensusInstance} in {@code view}, after taking
+     * {@code numRounds} rounds or views since deciding the previous instance.
+     */
+    protected void registerInstanceDecided(int validator, int consensusInstance, int view, int numRounds) {
+        statisticsCollector.onInstanceDecided(this, validator, consensusInstance, view, numRounds, getTime());
+    }
+
+    /**
+     * Records the program moving to a new view or round, as a result of timing out if {@code isTimeout}.
+     */
+    protected void registerViewChange(boolean isTimeout) {
+        statisticsCollector.onViewChange(this, isTimeout);
+    }
+
     @Override
     public ConsensusStatistics getStatistics() {
         return statistics;
     }
 
+    @Override
+    public void setStatisticsCollector(StatisticsCollector statisticsCollector) {
+        this.statisticsCollector = statisticsCollector;
+    }
+
     // Payload handling responsibilities during processing
 
     /**
@@ -137,15 +180,24 @@ public abstract class ConsensusProgramImpl<T extends BFTMessage> implements Cons
      * @return List of payloads to be sent at the given time.
      */
     public List<T> notifyTime(int timerCount) {
-        if (timerCount == this.timerCount) {
-            statistics.addRoundChangeStateCount(getState());
+        if (isTimerActive(timerCount)) {
+            statisticsCollector.onRoundChange(this);
+            SimulationProfiler.enter(TIMER_EXPIRY_FRAME);
             List<T> messages = onTimerExpiry();
+            SimulationProfiler.exit();
+            SimulationProfiler.enter(STATISTICS_FRAME);
             registerMessagesSent(messages);
+            SimulationProfiler.exit();
             return messages;
         }
         return List.of();
     }
 
+    @Override
+    public boolean isTimerActive(int timerCount) {
+        return timerCount == this.timerCount;
+    }
+
     /**
      * Operation to be called on timer expiry.
      */
@@ -2,6 +2,7 @@ package simulation.protocol;
 
 import simulation.network.entity.BFTMessage;
 import simulation.statistics.ConsensusStatistics;
+import simulation.statistics.StatisticsCollector;
 
 import java.util.Collection;
 import java.util.List;
@@ -28,6 +29,11 @@ public class NoProgram<T extends BFTMessage> implements ConsensusProgram<T> {
         return List.of();
     }
 
+    @Override
+    public boolean isTimerActive(int timerCount) {
+        return false;
+    }
+
     @Override
     public int getConsensusCount() {
         return 0;
@@ -43,13 +49,28 @@ public class NoProgram<T extends BFTMessage> implements ConsensusProgram<T> {
         return "";
     }
 
+    @Override
+    public int getStateIndex() {
+        return 0;
+    }
+
     @Override
     public Collection<String> getStates() {
         return List.of();
     }
 
+    @Override
+    public Collection<String> getMessageTypes() {
+        return List.of();
+    }
+
     @Override
     public ConsensusStatistics getStatistics() {
-        return new ConsensusStatistics(List.of());
+        return new ConsensusStatistics(List.of(), List.of());
+    }
+
+    @Override
+    public void setStatisticsCollector(StatisticsCollector statisticsCollector) {
+        // a program that does nothing has no statistics to collect
     }
 }
@@ -40,11 +40,26 @@ public class HSMessage extends BFTMessage {
         return type.toString();
     }
 
+    @Override
+    public int getTypeIndex() {
+        return type.ordinal();
+    }
+
     @Override
     public int getRecipientId() {
         return recipient;
     }
 
+    @Override
+    public int getSenderId() {
+        return sender;
+    }
+
+    @Override
+    public int getViewOrRound() {
+        return viewNumber;
+    }
+
     public int getViewNumber() {
         return viewNumber;
     }
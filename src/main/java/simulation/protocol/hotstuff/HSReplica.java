@@ -1,5 +1,8 @@
 package simulation.protocol.hotstuff;
 
+import simulation.jfr.ConsensusDecisionEvent;
+import simulation.jfr.ViewChangeEvent;
+import simulation.metrics.SimulationProfiler;
 import simulation.network.entity.timer.TimerNotifier;
 import simulation.protocol.ConsensusProgram;
 import simulation.protocol.ConsensusProgramImpl;
@@ -18,6 +21,13 @@ import java.util.stream.IntStream;
  */
 public class HSReplica extends ConsensusProgramImpl<HSMessage> {
 
+    private static final String PROTOCOL_NAME = "HotStuff";
+    private static final String PREPARE_FRAME = "HSReplica.prepareOperation";
+    private static final String PRE_COMMIT_FRAME = "HSReplica.preCommitOperation";
+    private static final String COMMIT_FRAME = "HSReplica.commitOperation";
+    private static final String DECIDE_FRAME = "HSReplica.decideOperation";
+    private static final String START_NEXT_VIEW_FRAME = "HSReplica.startNextView";
+
     private final Logger logger;
 
     private int numConsensus;
@@ -30,6 +40,7 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
     private int leader;
 
     private int curView;
+    private int previousDecisionView; // view in which the previous consensus instance was decided
     private HSMessageType state;
 
     private final HSMessageHolder messageHolder;
@@ -61,6 +72,7 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
         this.f = (this.n - 1) / 3;
         this.baseTimeLimit = baseTimeLimit;
         this.curView = 1;
+        this.previousDecisionView = 0;
         this.state = HSMessageType.PREPARE;
         this.messageHolder = new HSMessageHolder();
         this.numConsecutiveFailures = 0;
@@ -207,6 +219,7 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
      * This block translates the code of the basic HotStuff protocol in Algorithm 2 as per the HotStuff paper.
      */
     private void prepareOperation() {
+        SimulationProfiler.enter(PREPARE_FRAME);
         if (id == leader) {
             if (messageHolder.hasQuorumOfMessages(HSMessageType.NEW_VIEW, curView - 1, n - f)) {
                 List<HSMessage> newViewMessages = messageHolder.getVoteMessages(HSMessageType.NEW_VIEW, curView - 1);
@@ -228,6 +241,7 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
                 }
             }
         }
+        SimulationProfiler.exit();
     }
 
     /**
@@ -252,6 +266,7 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
      * This block translates the code of the basic HotStuff protocol in Algorithm 2 as per the HotStuff paper.
      */
     private void preCommitOperation() {
+        SimulationProfiler.enter(PRE_COMMIT_FRAME);
         if (id == leader) {
             if (messageHolder.hasQuorumOfMessages(HSMessageType.PREPARE, curView, n - f)) {
                 List<HSMessage> prepareMessages = messageHolder.getVoteMessages(HSMessageType.PREPARE, curView);
@@ -268,6 +283,7 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
                 commitOperation();
             }
         }
+        SimulationProfiler.exit();
     }
 
     /**
@@ -275,6 +291,7 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
      * This block translates the code of the basic HotStuff protocol in Algorithm 2 as per the HotStuff paper.
      */
     private void commitOperation() {
+        SimulationProfiler.enter(COMMIT_FRAME);
         if (id == leader) {
             if (messageHolder.hasQuorumOfMessages(HSMessageType.PRE_COMMIT, curView, n - f)) {
                 List<HSMessage> preCommitMessages = messageHolder.getVoteMessages(HSMessageType.PRE_COMMIT, curView);
@@ -291,6 +308,7 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
                 decideOperation();
             }
         }
+        SimulationProfiler.exit();
     }
 
     /**
@@ -298,11 +316,13 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
      * This block translates the code of the basic HotStuff protocol in Algorithm 2 as per the HotStuff paper.
      */
     private void decideOperation() {
+        SimulationProfiler.enter(DECIDE_FRAME);
         if (id == leader) {
             if (messageHolder.hasQuorumOfMessages(HSMessageType.COMMIT, curView, n - f)) {
                 List<HSMessage> commitMessages = messageHolder.getVoteMessages(HSMessageType.COMMIT, curView);
                 commitQc = new QuorumCertificate(commitMessages);
                 broadcastMessage(id -> msg(id, HSMessageType.DECIDE, null, commitQc));
+                SimulationProfiler.exit();
                 return;
             }
         }
@@ -315,9 +335,13 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
             if (m.getSender() == leader && matchingQc(m.getJustify(), HSMessageType.COMMIT, curView)) {
                 numConsensus++;
                 commit(m.getJustify().getNode());
-                startNextView();
+                ConsensusDecisionEvent.commit(PROTOCOL_NAME, id, numConsensus, getTime());
+                registerInstanceDecided(id, numConsensus, curView, curView - previousDecisionView);
+                previousDecisionView = curView;
+                startNextView(false);
             }
         }
+        SimulationProfiler.exit();
     }
 
     /**
@@ -336,21 +360,27 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
         numConsecutiveFailures++;
 //        logger.log(String.format("Time: %s, (EXPIRY) State: %s, Leader: %s, CurView: %s, Consensus: %s, Consecutive Failures: %s",
 //                getTime(),  state, getLeader(curView), curView, numConsensus, numConsecutiveFailures));
-        startNextView();
+        startNextView(true);
         return getMessages();
     }
 
     /**
      * Starts the next view by sending out a NEW_VIEW message to the leader of the next view.
+     *
+     * @param isTimeout True if the view is started as the timer of the current view expired.
      */
-    private void startNextView() {
+    private void startNextView(boolean isTimeout) {
+        SimulationProfiler.enter(START_NEXT_VIEW_FRAME);
         leader = getLeader(curView + 1);
         sendMessage(voteMsg(leader, HSMessageType.NEW_VIEW, null, prepareQc));
         startHsTimer();
         messageHolder.advanceView(curView, curView + 1);
         curView++;
+        ViewChangeEvent.commit(PROTOCOL_NAME, id, numConsensus + 1, curView, isTimeout, getTime());
+        registerViewChange(isTimeout);
         state = HSMessageType.PREPARE;
         prepareOperation();
+        SimulationProfiler.exit();
     }
 
     @Override
@@ -376,8 +406,18 @@ public class HSReplica extends ConsensusProgramImpl<HSMessage> {
         return state.toString();
     }
 
+    @Override
+    public int getStateIndex() {
+        return state.ordinal();
+    }
+
     @Override
     public Collection<String> getStates() {
         return Arrays.stream(HSMessageType.values()).map(HSMessageType::toString).collect(Collectors.toList());
     }
+
+    @Override
+    public Collection<String> getMessageTypes() {
+        return getStates();
+    }
 }
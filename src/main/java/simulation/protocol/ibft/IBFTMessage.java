@@ -136,8 +136,23 @@ public class IBFTMessage extends BFTMessage {
         return getMessageType().toString();
     }
 
+    @Override
+    public int getTypeIndex() {
+        return getMessageType().ordinal();
+    }
+
     @Override
     public int getRecipientId() {
         return recipient;
     }
+
+    @Override
+    public int getSenderId() {
+        return identifier;
+    }
+
+    @Override
+    public int getViewOrRound() {
+        return round;
+    }
 }
@@ -1,5 +1,8 @@
 package simulation.protocol.ibft;
 
+import simulation.jfr.ConsensusDecisionEvent;
+import simulation.jfr.ViewChangeEvent;
+import simulation.metrics.SimulationProfiler;
 import simulation.network.entity.timer.TimerNotifier;
 import simulation.protocol.ConsensusProgram;
 import simulation.protocol.ConsensusProgramImpl;
@@ -29,6 +32,13 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
      */
     private static final int DUMMY_VALUE = 1;
     public static final int FIRST_CONSENSUS_INSTANCE = 1;
+    private static final String PROTOCOL_NAME = "IBFT";
+    private static final String TIMEOUT_FRAME = "IBFTNode.timeoutOperation";
+    private static final String F_PLUS_ONE_ROUND_CHANGE_FRAME = "IBFTNode.fPlusOneRoundChangeOperation";
+    private static final String LEADER_ROUND_CHANGE_FRAME = "IBFTNode.leaderRoundChangeOperation";
+    private static final String PRE_PREPARE_FRAME = "IBFTNode.prePrepareOperation";
+    private static final String PREPARE_FRAME = "IBFTNode.prepareOperation";
+    private static final String COMMIT_FRAME = "IBFTNode.commitOperation";
 
     private final Logger logger;
 
@@ -104,11 +114,21 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
         return state.toString();
     }
 
+    @Override
+    public int getStateIndex() {
+        return state.ordinal();
+    }
+
     @Override
     public Collection<String> getStates() {
         return Arrays.stream(IBFTState.values()).map(IBFTState::toString).collect(Collectors.toList());
     }
 
+    @Override
+    public Collection<String> getMessageTypes() {
+        return Arrays.stream(IBFTMessageType.values()).map(IBFTMessageType::toString).collect(Collectors.toList());
+    }
+
     @Override
     public String toString() {
         return String.format("IBFT (%s, %d, %d) (timeout at %.3f)",
@@ -269,9 +289,12 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
      * This corresponds to the first code block in Algorithm 3.
      */
     private void timeoutOperation() {
+        SimulationProfiler.enter(TIMEOUT_FRAME);
         resetRoundBooleans();
 
         updateRound(r_i + 1);
+        ViewChangeEvent.commit(PROTOCOL_NAME, p_i, lambda_i, r_i, true, getTime());
+        registerViewChange(true);
         state = IBFTState.ROUND_CHANGE;
         startIbftTimer();
         if (pr_i == NULL_VALUE && pv_i == NULL_VALUE) {
@@ -282,6 +305,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
         }
         prePrepareOperation();
         prepareOperation();
+        SimulationProfiler.exit();
     }
 
     /**
@@ -289,15 +313,19 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
      * This corresponds to the second code block in Algorithm 3.
      */
     private void fPlusOneRoundChangeOperation() {
+        SimulationProfiler.enter(F_PLUS_ONE_ROUND_CHANGE_FRAME);
         if (messageHolder.hasMoreHigherRoundChangeMessagesThan(lambda_i, r_i)) {
             resetRoundBooleans();
             updateRound(messageHolder.getNextGreaterRoundChangeMessage(lambda_i, r_i));
+            ViewChangeEvent.commit(PROTOCOL_NAME, p_i, lambda_i, r_i, false, getTime());
+            registerViewChange(false);
             startIbftTimer();
             broadcastMessage(id -> createPreparedValuesMessage(id, IBFTMessageType.ROUND_CHANGE));
             state = IBFTState.ROUND_CHANGE;
             prePrepareOperation();
             prepareOperation();
         }
+        SimulationProfiler.exit();
     }
 
     private void updateRound(int newRound) {
@@ -310,6 +338,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
      * This corresponds to the third code block in Algorithm 3.
      */
     private void leaderRoundChangeOperation() {
+        SimulationProfiler.enter(LEADER_ROUND_CHANGE_FRAME);
         if (p_i == leader) {
             if (messageHolder.hasQuorumOfAnyValuedMessages(IBFTMessageType.ROUND_CHANGE, lambda_i, r_i)) {
                 List<IBFTMessage> roundChangeMessages =
@@ -328,6 +357,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
                 }
             }
         }
+        SimulationProfiler.exit();
     }
 
     // Algorithm 2 in IBFT Paper - Normal case operation
@@ -337,6 +367,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
      * This corresponds to the first code block in Algorithm 2.
      */
     private void prePrepareOperation() {
+        SimulationProfiler.enter(PRE_PREPARE_FRAME);
         List<IBFTMessage> preprepareMessages = messageHolder.getMessages(IBFTMessageType.PREPREPARED, lambda_i, r_i);
         for (IBFTMessage message : preprepareMessages) {
             int sender = message.getIdentifier();
@@ -349,6 +380,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
                 broadcastMessage(id -> createSingleValueMessage(id, IBFTMessageType.PREPARED, inputValue_i));
             }
         }
+        SimulationProfiler.exit();
     }
 
     /**
@@ -356,6 +388,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
      * This corresponds to the second code block in Algorithm 2.
      */
     private void prepareOperation() {
+        SimulationProfiler.enter(PREPARE_FRAME);
         if (messageHolder.hasQuorumOfSameValuedMessages(IBFTMessageType.PREPARED, lambda_i, r_i)
                 && !hasPrepared) {
             hasPrepared = true;
@@ -368,6 +401,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
             preparedMessageJustification = prepareMessages;
             broadcastMessage(id -> createSingleValueMessage(id, IBFTMessageType.COMMIT, inputValue_i));
         }
+        SimulationProfiler.exit();
     }
 
     /**
@@ -375,6 +409,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
      * This corresponds to the third code block in Algorithm 2.
      */
     private void commitOperation() {
+        SimulationProfiler.enter(COMMIT_FRAME);
         if (messageHolder.hasCommitQuorumOfMessages(lambda_i)) {
             Pair<Integer, List<IBFTMessage>> valueMessagesPair = messageHolder.getRoundValueToCommit(lambda_i);
             commit(lambda_i, valueMessagesPair.first(), valueMessagesPair.second());
@@ -382,6 +417,7 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
             lambda_i++;
             start(lambda_i, DUMMY_VALUE);
         }
+        SimulationProfiler.exit();
     }
 
     /**
@@ -390,6 +426,8 @@ public class IBFTNode extends ConsensusProgramImpl<IBFTMessage> {
     private void commit(int consensusInstance, int value, List<IBFTMessage> messages) {
         // Actual value being committed is not important.
         consensusQuorum.put(consensusInstance, messages);
+        ConsensusDecisionEvent.commit(PROTOCOL_NAME, p_i, consensusInstance, getTime());
+        registerInstanceDecided(p_i, consensusInstance, r_i, r_i);
     }
 
     // Message justification
@@ -0,0 +1,169 @@
+package simulation.server;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules simulation runs so that the predicted heap usage of concurrently running runs fits a memory budget.
+ *
+ * Runs are admitted in submission order while they fit. A run that does not fit does not block smaller runs
+ * behind it that do fit, so small runs are packed alongside big ones. To avoid starving a big run, once
+ * {@code MAX_BYPASSES} runs have been admitted ahead of the oldest waiting run, no further runs are admitted
+ * until it has started.
+ * A run predicted to exceed the whole budget is only started when no other run is running.
+ */
+public class AdmissionScheduler {
+
+    private static final int MAX_BYPASSES = 16;
+
+    private final long memoryBudget;
+    private final int maxConcurrentRuns;
+    private final int queueCapacity;
+    private final ExecutorService executor;
+    private final LinkedList<PendingRun> pendingRuns;
+    private long reservedBytes;
+    private int numRunning;
+    private boolean isShutdown;
+
+    /**
+     * @param memoryBudget Number of bytes that the predicted heap usage of running runs may add up to.
+     * @param maxConcurrentRuns Maximum number of runs running at the same time.
+     * @param queueCapacity Maximum number of runs waiting to be admitted before further runs are rejected.
+     */
+    public AdmissionScheduler(long memoryBudget, int maxConcurrentRuns, int queueCapacity) {
+        this.memoryBudget = memoryBudget;
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.queueCapacity = queueCapacity;
+        this.executor = Executors.newFixedThreadPool(maxConcurrentRuns);
+        this.pendingRuns = new LinkedList<>();
+        this.reservedBytes = 0;
+        this.numRunning = 0;
+        this.isShutdown = false;
+    }
+
+    /**
+     * Submits {@code task} predicted to use {@code estimatedBytes} of heap for execution once it can be admitted.
+     *
+     * @throws RejectedExecutionException If the scheduler is shut down or too many runs are waiting.
+     */
+    public synchronized <V> Future<V> submit(Callable<V> task, long estimatedBytes) {
+        if (isShutdown) {
+            throw new RejectedExecutionException("Scheduler has been shut down.");
+        } else if (pendingRuns.size() >= queueCapacity) {
+            throw new RejectedExecutionException("Admission queue is full.");
+        }
+        FutureTask<V> futureTask = new FutureTask<>(task);
+        pendingRuns.add(new PendingRun(futureTask, estimatedBytes));
+        admitPendingRuns();
+        return futureTask;
+    }
+
+    /**
+     * Returns the number of bytes reserved by running runs.
+     */
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public synchronized int getNumRunning() {
+        return numRunning;
+    }
+
+    public synchronized int getNumPending() {
+        return pendingRuns.size();
+    }
+
+    /**
+     * Stops accepting runs. Runs already submitted are still run.
+     */
+    public synchronized void shutdown() {
+        isShutdown = true;
+        if (pendingRuns.isEmpty()) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Blocks until all submitted runs are completed after a shutdown or until {@code timeout} elapses.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Starts pending runs that fit in the remaining budget.
+     */
+    private void admitPendingRuns() {
+        PendingRun oldestBlockedRun = null;
+        Iterator<PendingRun> iterator = pendingRuns.iterator();
+        while (iterator.hasNext() && numRunning < maxConcurrentRuns) {
+            PendingRun run = iterator.next();
+            if (run.task.isDone()) {
+                // cancelled while waiting for admission
+                iterator.remove();
+            } else if (fits(run.estimatedBytes)) {
+                if (oldestBlockedRun != null) {
+                    if (oldestBlockedRun.numBypasses >= MAX_BYPASSES) {
+                        break;
+                    }
+                    oldestBlockedRun.numBypasses++;
+                }
+                iterator.remove();
+                start(run);
+            } else if (oldestBlockedRun == null) {
+                oldestBlockedRun = run;
+            }
+        }
+        if (isShutdown && pendingRuns.isEmpty()) {
+            executor.shutdown();
+        }
+    }
+
+    private boolean fits(long estimatedBytes) {
+        return numRunning == 0 || reservedBytes + estimatedBytes <= memoryBudget;
+    }
+
+    private void start(PendingRun run) {
+        reservedBytes += run.estimatedBytes;
+        numRunning++;
+        executor.execute(() -> {
+            try {
+                run.task.run();
+            } finally {
+                onRunCompleted(run);
+            }
+        });
+    }
+
+    private synchronized void onRunCompleted(PendingRun run) {
+        reservedBytes -= run.estimatedBytes;
+        numRunning--;
+        admitPendingRuns();
+    }
+
+    /**
+     * A run waiting to be admitted.
+     */
+    private static class PendingRun {
+
+        private final FutureTask<?> task;
+        private final long estimatedBytes;
+        /**
+         * Number of runs admitted ahead of this run while it was the oldest waiting run.
+         */
+        private int numBypasses;
+
+        private PendingRun(FutureTask<?> task, long estimatedBytes) {
+            this.task = task;
+            this.estimatedBytes = estimatedBytes;
+            this.numBypasses = 0;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package simulation.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import simulation.cache.ResultCache;
+import simulation.json.input.RunConfigJson;
+import simulation.json.output.RunResultsJson;
+import simulation.simulator.MemoryEstimator;
+import simulation.simulator.RunResults;
+import simulation.simulator.SimulationEngine;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived simulation server listening on localhost.
+ * Keeps the JVM (and its JIT-compiled simulation code) warm across many run configurations.
+ *
+ * A run configuration is submitted as the body of a {@code POST /run} request.
+ * Each run of the configuration is executed on a bounded pool of simulation threads and the results are streamed
+ * back as newline-delimited JSON, one line per run (in seed order) followed by a line of the merged results.
+ * Runs are only started when their estimated heap usage fits alongside the runs already running.
+ */
+public class SimulationServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    private static final String RUN_PATH = "/run";
+    private static final String CONTENT_TYPE = "application/x-ndjson";
+    private static final int NUM_REQUEST_THREADS = 4;
+    /**
+     * Fraction of the maximum heap size that the estimated heap usage of running runs may add up to.
+     */
+    private static final double MEMORY_BUDGET_FRACTION = 0.75;
+
+    private static final Gson GSON = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final AdmissionScheduler simulationScheduler;
+    private final ResultCache resultCache;
+
+    /**
+     * @param port Localhost port to listen on.
+     * @param numThreads Number of simulation runs that may be executed concurrently.
+     * @param queueCapacity Number of runs that may wait for a simulation thread before requests are rejected.
+     * @param resultCache Cache of run results shared by all requests. {@code null} if results are not cached.
+     */
+    public SimulationServer(int port, int numThreads, int queueCapacity, ResultCache resultCache)
+            throws IOException {
+        this.resultCache = resultCache;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        requestExecutor = Executors.newFixedThreadPool(NUM_REQUEST_THREADS);
+        long memoryBudget = (long) (Runtime.getRuntime().maxMemory() * MEMORY_BUDGET_FRACTION);
+        simulationScheduler = new AdmissionScheduler(memoryBudget, numThreads, queueCapacity);
+        server.createContext(RUN_PATH, this::handleRun);
+        server.setExecutor(requestExecutor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and shuts down the simulation threads once queued runs are completed.
+     */
+    public void stop() {
+        server.stop(0);
+        requestExecutor.shutdown();
+        simulationScheduler.shutdown();
+        if (resultCache != null) {
+            try {
+                simulationScheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            resultCache.close();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Runs the configuration in the body of {@code exchange} and streams back the results of each run.
+     */
+    private void handleRun(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                sendError(exchange, 405, "Only POST requests are accepted.");
+                return;
+            }
+
+            RunConfigJson runConfigJson;
+            try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                runConfigJson = GSON.fromJson(reader, RunConfigJson.class);
+            } catch (JsonParseException e) {
+                sendError(exchange, 400, "Unable to parse run configuration: " + e.getMessage());
+                return;
+            }
+            if (runConfigJson == null) {
+                sendError(exchange, 400, "Empty run configuration.");
+                return;
+            }
+
+            SimulationEngine engine;
+            long estimatedBytes;
+            try {
+                engine = SimulationEngine.builder(runConfigJson)
+                        .setResultCache(resultCache)
+                        .build();
+                estimatedBytes = MemoryEstimator.estimateBytes(runConfigJson);
+            } catch (RuntimeException e) {
+                // missing or invalid settings of the configuration
+                sendError(exchange, 400, "Invalid run configuration: " + e);
+                return;
+            }
+            List<Long> seeds = engine.getSeeds();
+            List<Future<RunResults>> futures = new ArrayList<>();
+            try {
+                for (long seed : seeds) {
+                    futures.add(simulationScheduler.submit(() -> engine.runSingle(seed), estimatedBytes));
+                }
+            } catch (RejectedExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                sendError(exchange, 503, "Simulation queue is full.");
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream outputStream = exchange.getResponseBody();
+            RunResults runResults = null;
+            for (int i = 0; i < futures.size(); i++) {
+                RunResults currentRunResults;
+                try {
+                    currentRunResults = futures.get(i).get();
+                } catch (ExecutionException | InterruptedException e) {
+                    futures.forEach(future -> future.cancel(true));
+                    writeLine(outputStream, GSON.toJson(new ErrorJson("Run with seed " + seeds.get(i)
+                            + " failed: " + e.getCause())));
+                    return;
+                }
+                writeLine(outputStream, GSON.toJson(new RunResultsJson(List.of(seeds.get(i)), currentRunResults)));
+                runResults = runResults == null ? currentRunResults : runResults.mergeRunResults(currentRunResults);
+            }
+            if (runResults != null) {
+                writeLine(outputStream, GSON.toJson(new RunResultsJson(seeds, runResults)));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void writeLine(OutputStream outputStream, String line) throws IOException {
+        outputStream.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
+
+    private static void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        byte[] bytes = (GSON.toJson(new ErrorJson(message)) + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Error line returned to the client.
+     */
+    private static class ErrorJson {
+
+        private final String error;
+
+        private ErrorJson(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package simulation.simulator;
+
+import simulation.json.input.NetworkConfigurationJson;
+import simulation.json.input.RunConfigJson;
+import simulation.json.input.ValidatorConfigJson;
+import simulation.util.MathUtil;
+
+import java.util.List;
+
+/**
+ * Contains utility methods for estimating the peak heap usage of a simulation run from its run configuration.
+ *
+ * The estimate is a heuristic made up of the dominant contributions to the heap in a run:
+ * - Routing tables, where every switch holds a full table over all validators.
+ * - Broadcast messages, where each of the n validators sends a message to all n validators for every program.
+ *   These live on as payloads in node queues and events, and as backlogs in the protocol message holders.
+ * - Per-program state such as statistics and timers.
+ */
+public class MemoryEstimator {
+
+    /**
+     * Fixed heap overhead of a run regardless of its size.
+     */
+    private static final long BASE_BYTES = 2_000_000;
+    /**
+     * Bytes per program on a validator for protocol state, statistics and message holders.
+     */
+    private static final long BYTES_PER_PROGRAM = 20_000;
+    /**
+     * Bytes per validator entry in the routing table and name map of a switch.
+     */
+    private static final long BYTES_PER_ROUTING_ENTRY = 250;
+    /**
+     * Bytes per validator pair per program for in-flight broadcast messages and message backlogs.
+     */
+    private static final long BYTES_PER_BROADCAST_MESSAGE = 400;
+
+    /**
+     * Returns the estimated peak number of bytes of heap used by a run of {@code runConfig}.
+     */
+    public static long estimateBytes(RunConfigJson runConfig) {
+        ValidatorConfigJson validatorSettings = runConfig.getValidatorSettings();
+        long numNodes = validatorSettings.getNumNodes();
+        long numPrograms = validatorSettings.getNumPrograms();
+        long numSwitches = estimateNumSwitches(runConfig.getNetworkSettings(), validatorSettings.getNumNodes());
+
+        return BASE_BYTES
+                + numNodes * numPrograms * BYTES_PER_PROGRAM
+                + numSwitches * numNodes * BYTES_PER_ROUTING_ENTRY
+                + numNodes * numNodes * numPrograms * BYTES_PER_BROADCAST_MESSAGE;
+    }
+
+    /**
+     * Returns the (approximate) number of switches in the network topology of {@code networkSettings}
+     * connecting {@code numNodes} validators.
+     */
+    public static long estimateNumSwitches(NetworkConfigurationJson networkSettings, int numNodes) {
+        String networkType = networkSettings.getNetworkType();
+        List<Integer> networkParameters = networkSettings.getNetworkParameters();
+        switch (networkType) {
+            case "foldedclos": case "fc":
+            case "butterfly": case "b":
+                int numFirstLayerSwitches = networkParameters.get(0);
+                int radix = networkParameters.get(1);
+                int numLayers = 1 + Math.max(1, (int) Math.ceil(MathUtil.log(numFirstLayerSwitches, radix)));
+                return (long) numFirstLayerSwitches * numLayers;
+            case "dragonfly": case "df":
+                int groupSize = networkParameters.get(0);
+                return (long) groupSize * (groupSize + 1);
+            case "clique": case "c":
+            case "torus": case "t":
+            case "mesh": case "m":
+                return numNodes;
+            default:
+                throw new RuntimeException(String.format("The network type %s has not been defined/implemented.",
+                        networkType));
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package simulation.simulator;
+
+import simulation.metrics.RunProgress;
+import simulation.metrics.SimulationMetrics;
+import simulation.metrics.SimulationProfiler;
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Payload;
+import simulation.network.entity.Validator;
+import simulation.network.entity.timer.TimerNotifier;
+import simulation.statistics.StatisticsCollector;
+import simulation.trace.FlightRecorder;
+import simulation.trace.MessageTimings;
+import simulation.trace.TraceRecorder;
+
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Simulator that replays the consensus programs of its validators against the message delivery times of a recorded
+ * trace (see {@code MessageTimings}) instead of simulating the network.
+ *
+ * Messages are processed by the programs of their recipients at the times their processing started and ended in the
+ * trace, relative to the time they are sent in the replay, while timers are run as in a full simulation. Switches are
+ * not simulated and the queues of validators are not modelled, so the queue statistics of a replay are empty.
+ *
+ * Events at the same time are replayed in the order of the sequence numbers of the events of the trace they replay.
+ * Events without a recorded event, such as timers, take the sequence number of the event that created them, and are
+ * otherwise replayed in the order they were created. Metrics, profiles, traces and flights are not recorded for
+ * replays.
+ *
+ * @param <T> Message class used by nodes in the simulation.
+ */
+public class ReplaySimulator<T extends BFTMessage> implements Simulator, TimerNotifier<Validator<T>> {
+
+    private static final double TIME_CUTOFF = 1000000000; // for safety
+    private static final String VALIDATOR_GROUP = "validators";
+
+    private final MessageTimings messageTimings;
+    private PriorityQueue<ReplayEvent<T>> eventQueue;
+    private long roundCount;
+    private long currentSequence;
+    private long numEventsCreated;
+    private List<Validator<T>> nodes;
+    private List<Validator<T>> unfinishedValidatorsTracker;
+    private double currentTime;
+    private RunProgress progress;
+
+    /**
+     * @param messageTimings Delivery times of messages in the trace being replayed.
+     */
+    public ReplaySimulator(MessageTimings messageTimings) {
+        this.messageTimings = messageTimings;
+    }
+
+    /**
+     * Sets the validator nodes for the current replay, whose ids are their indices in {@code validators}.
+     */
+    public void setNodes(List<? extends Validator<T>> validators) {
+        this.nodes = new ArrayList<>(validators);
+        messageTimings.checkCompatibility(nodes.size(), nodes.get(0).getConsensusProgram(1).getMessageTypes());
+        eventQueue = new PriorityQueue<>();
+        roundCount = 0;
+        currentSequence = 0;
+        numEventsCreated = 0;
+        for (Validator<T> node : validators) {
+            eventQueue.add(ReplayEvent.initialization(node, numEventsCreated++));
+        }
+        currentTime = 0;
+        unfinishedValidatorsTracker = new ArrayList<>(validators);
+    }
+
+    public List<Validator<T>> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Replays a singular event, which is the initialization of a validator, the delivery of a message or the expiry
+     * of a timer, and sends the resulting messages.
+     */
+    @Override
+    public Optional<String> simulate() {
+        ReplayEvent<T> nextEvent = eventQueue.poll();
+        assert nextEvent != null; // isSimulationOver should be used to check before calling this function
+        currentTime = nextEvent.time;
+        currentSequence = nextEvent.sequence;
+        if (currentTime > TIME_CUTOFF) {
+            return Optional.empty();
+        }
+        Validator<T> node = nextEvent.node;
+        double sendTime = currentTime;
+        List<Payload<T>> payloads;
+        if (nextEvent.payload != null) {
+            sendTime = nextEvent.completionTime;
+            payloads = node.completePayload(sendTime, nextEvent.payload);
+        } else if (nextEvent.timerCount != 0) {
+            payloads = node.notifyTime(nextEvent.programId, nextEvent.timerCount);
+        } else {
+            payloads = node.initializationPayloads();
+        }
+        for (Payload<T> payload : payloads) {
+            send(sendTime, payload);
+        }
+
+        if (!node.isStillRequiredToRun()) {
+            unfinishedValidatorsTracker.remove(node);
+        }
+        roundCount++;
+        if (progress != null && roundCount % RunProgress.UPDATE_INTERVAL == 0) {
+            updateProgress();
+        }
+        return Optional.of(nextEvent.toString());
+    }
+
+    /**
+     * Schedules the processing of {@code payload} by its recipient at the times of its message in the trace, unless
+     * the message was dropped in the trace.
+     */
+    private void send(double sendTime, Payload<T> payload) {
+        T message = payload.getMessage();
+        Optional<MessageTimings.Delivery> delivery = messageTimings.pollDelivery(message, payload.getProgramId(),
+                sendTime);
+        if (delivery.isEmpty()) {
+            return;
+        }
+        long sequence = delivery.get().getSequence() == MessageTimings.Delivery.NO_SEQUENCE
+                ? currentSequence
+                : delivery.get().getSequence();
+        Validator<T> recipient = nodes.get(message.getRecipientId());
+        eventQueue.add(ReplayEvent.delivery(delivery.get().getStartTime(), sequence, numEventsCreated++, recipient,
+                payload, delivery.get().getEndTime()));
+    }
+
+    /**
+     * Publishes the current state of the replay to the progress.
+     * Validators that do not run any consensus program are not considered for the consensus counts.
+     */
+    private void updateProgress() {
+        IntSummaryStatistics consensusCounts = nodes.stream()
+                .flatMapToInt(Validator::getConsensusCounts)
+                .summaryStatistics();
+        progress.update(currentTime, roundCount, consensusCounts.getCount() == 0 ? 0 : consensusCounts.getMin(),
+                consensusCounts.getCount() == 0 ? 0 : consensusCounts.getMax(), eventQueue.size());
+    }
+
+    @Override
+    public String getSnapshotOfNodes() {
+        return nodes.stream()
+                .map(Validator::toString)
+                .reduce((x, y) -> x + "\n" + y)
+                .orElse("");
+    }
+
+    @Override
+    public boolean isSimulationOver() {
+        return unfinishedValidatorsTracker.isEmpty() || eventQueue.isEmpty() || getTime() > TIME_CUTOFF;
+    }
+
+    @Override
+    public RunResults getRunResults() {
+        return SimulatorImpl.createRunResults(nodes, List.of());
+    }
+
+    /**
+     * Returns the number of messages sent in the replay that matched a message of the trace.
+     */
+    public int getNumMatchedMessages() {
+        return messageTimings.getNumMatched();
+    }
+
+    /**
+     * Returns the number of messages sent in the replay that did not match any message of the trace.
+     */
+    public int getNumUnmatchedMessages() {
+        return messageTimings.getNumUnmatched();
+    }
+
+    @Override
+    public void setMetrics(SimulationMetrics metrics) {
+        // the events of a replay are not those of a simulation
+    }
+
+    @Override
+    public void setProgress(RunProgress progress) {
+        this.progress = progress;
+    }
+
+    @Override
+    public void setProfiler(SimulationProfiler profiler) {
+        // the events of a replay are not those of a simulation
+    }
+
+    @Override
+    public void setStatisticsCollector(StatisticsCollector statisticsCollector) {
+        for (Validator<T> node : nodes) {
+            statisticsCollector.registerNode(node, VALIDATOR_GROUP);
+            node.setStatisticsCollector(statisticsCollector);
+        }
+    }
+
+    @Override
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        // the events of a replay are not those of a simulation
+    }
+
+    @Override
+    public void setFlightRecorder(FlightRecorder flightRecorder) {
+        // no network is simulated for messages to take flights through
+    }
+
+    @Override
+    public void notifyAtTime(Validator<T> node, double time, int id, int timerCount) {
+        eventQueue.add(ReplayEvent.timer(time, currentSequence, numEventsCreated++, node, id, timerCount));
+    }
+
+    @Override
+    public double getTime() {
+        return currentTime;
+    }
+
+    /**
+     * Event of a replay at {@code node}, which is the delivery of {@code payload} if it is non-null, the expiry of
+     * timer {@code timerCount} of program {@code programId} if the timer count is non-zero and the initialization of
+     * the node otherwise.
+     * Events at the same time are ordered by {@code sequence} and then by {@code creationIndex}.
+     */
+    private static class ReplayEvent<T extends BFTMessage> implements Comparable<ReplayEvent<T>> {
+
+        private final double time;
+        private final long sequence;
+        private final long creationIndex;
+        private final Validator<T> node;
+        private final Payload<T> payload;
+        private final double completionTime;
+        private final int programId;
+        private final int timerCount;
+
+        private ReplayEvent(double time, long sequence, long creationIndex, Validator<T> node, Payload<T> payload,
+                double completionTime, int programId, int timerCount) {
+            this.time = time;
+            this.sequence = sequence;
+            this.creationIndex = creationIndex;
+            this.node = node;
+            this.payload = payload;
+            this.completionTime = completionTime;
+            this.programId = programId;
+            this.timerCount = timerCount;
+        }
+
+        private static <T extends BFTMessage> ReplayEvent<T> initialization(Validator<T> node, long creationIndex) {
+            return new ReplayEvent<>(0, 0, creationIndex, node, null, 0, 0, 0);
+        }
+
+        private static <T extends BFTMessage> ReplayEvent<T> delivery(double time, long sequence, long creationIndex,
+                Validator<T> node, Payload<T> payload, double completionTime) {
+            return new ReplayEvent<>(time, sequence, creationIndex, node, payload, completionTime, 0, 0);
+        }
+
+        private static <T extends BFTMessage> ReplayEvent<T> timer(double time, long sequence, long creationIndex,
+                Validator<T> node, int programId, int timerCount) {
+            return new ReplayEvent<>(time, sequence, creationIndex, node, null, time, programId, timerCount);
+        }
+
+        @Override
+        public int compareTo(ReplayEvent<T> e) {
+            int timeComparison = Double.compare(this.time, e.time);
+            if (timeComparison != 0) {
+                return timeComparison;
+            }
+            int sequenceComparison = Long.compare(this.sequence, e.sequence);
+            return sequenceComparison != 0 ? sequenceComparison : Long.compare(this.creationIndex, e.creationIndex);
+        }
+
+        @Override
+        public String toString() {
+            if (payload != null) {
+                return String.format("%.3f (Replay): Processing payload at %s (%s)", time, node, payload);
+            } else if (timerCount != 0) {
+                return String.format("%.3f (Replay): Notifying %s at %s", time, node, time);
+            }
+            return String.format("%.3f (Replay): Initialization of %s", time, node);
+        }
+    }
+}
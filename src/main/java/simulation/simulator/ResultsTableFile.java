@@ -0,0 +1,176 @@
+package simulation.simulator;
+
+import simulation.io.ColumnarTable;
+import simulation.json.input.RunConfigJson;
+import simulation.json.input.ValidatorConfigJson;
+import simulation.statistics.ConsensusStatistics;
+import simulation.statistics.QueueStatistics;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contains utility methods for storing the results of individual runs of a sweep over run configurations in a single
+ * columnar file (see {@code ColumnarTable}), so that a sweep can be loaded at once instead of from one json file per
+ * configuration.
+ *
+ * The table has one row per sweep point, seed and validator class. The validator classes are the fastest validator,
+ * the remaining validators and each switch group. Each row holds the sweep point, the main settings of its run
+ * configuration, the seed and the validator class, followed by every metric of the {@code ValidatorResultsJson} or
+ * {@code QueueResultsJson} of the class. Metrics are named after their json fields without the validator class, with
+ * the keys of map fields appended after a dot, e.g. {@code stateTime.PREPARE} or {@code roundStateTime.2.PREPARE}.
+ * Metrics that do not apply to a row are NaN.
+ */
+public class ResultsTableFile {
+
+    public static final String FASTEST_VALIDATOR_CLASS = "fastest";
+    public static final String REMAINDER_VALIDATOR_CLASS = "remainder";
+    public static final String SWITCH_GROUP_CLASS = "switch_group_%d";
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+
+    /**
+     * Creates the table of the results {@code runResults} of the runs with {@code seeds} of {@code runConfig}, at
+     * {@code sweepPoint} of a sweep.
+     */
+    public static ColumnarTable createTable(String sweepPoint, RunConfigJson runConfig, List<Long> seeds,
+            List<RunResults> runResults) {
+        List<Long> rowSeeds = new ArrayList<>();
+        List<String> rowClasses = new ArrayList<>();
+        List<Map<String, Double>> rowMetrics = new ArrayList<>();
+        for (int i = 0; i < seeds.size(); i++) {
+            RunResults currentRunResults = runResults.get(i);
+            rowSeeds.add(seeds.get(i));
+            rowClasses.add(FASTEST_VALIDATOR_CLASS);
+            rowMetrics.add(getValidatorMetrics(currentRunResults.getFastestValidatorStatistics(),
+                    currentRunResults.getFastestValidatorQueueStatistics()));
+            rowSeeds.add(seeds.get(i));
+            rowClasses.add(REMAINDER_VALIDATOR_CLASS);
+            rowMetrics.add(getValidatorMetrics(currentRunResults.getRemainderValidatorStatistics(),
+                    currentRunResults.getRemainderValidatorQueueStatistics()));
+            List<QueueStatistics> switchStatistics = currentRunResults.getSwitchStatistics();
+            for (int j = 0; j < switchStatistics.size(); j++) {
+                rowSeeds.add(seeds.get(i));
+                rowClasses.add(String.format(SWITCH_GROUP_CLASS, j));
+                rowMetrics.add(getQueueMetrics(switchStatistics.get(j)));
+            }
+        }
+
+        ColumnarTable table = new ColumnarTable();
+        ColumnarTable.StringColumn sweepPointColumn = table.addStringColumn("sweepPoint");
+        ColumnarTable.StringColumn protocolColumn = table.addStringColumn("consensusProtocol");
+        ColumnarTable.StringColumn networkTypeColumn = table.addStringColumn("networkType");
+        ColumnarTable.StringColumn faultTypeColumn = table.addStringColumn("faultType");
+        ColumnarTable.LongColumn numNodesColumn = table.addLongColumn("numNodes");
+        ColumnarTable.LongColumn numConsensusColumn = table.addLongColumn("numConsensus");
+        ColumnarTable.LongColumn numFaultsColumn = table.addLongColumn("numFaults");
+        ColumnarTable.DoubleColumn baseTimeLimitColumn = table.addDoubleColumn("baseTimeLimit");
+        ColumnarTable.LongColumn seedColumn = table.addLongColumn("seed");
+        ColumnarTable.StringColumn classColumn = table.addStringColumn("validatorClass");
+        Set<String> metricNames = new LinkedHashSet<>();
+        rowMetrics.forEach(metrics -> metricNames.addAll(metrics.keySet()));
+        List<ColumnarTable.DoubleColumn> metricColumns = new ArrayList<>();
+        for (String metricName : metricNames) {
+            metricColumns.add(table.addDoubleColumn(metricName));
+        }
+
+        ValidatorConfigJson validatorSettings = runConfig.getValidatorSettings();
+        for (int i = 0; i < rowMetrics.size(); i++) {
+            sweepPointColumn.add(sweepPoint);
+            protocolColumn.add(validatorSettings.getConsensusProtocol());
+            networkTypeColumn.add(runConfig.getNetworkSettings().getNetworkType());
+            faultTypeColumn.add(validatorSettings.getFaultSettings().getFaultType());
+            numNodesColumn.add(validatorSettings.getNumNodes());
+            numConsensusColumn.add(validatorSettings.getNumConsensus());
+            numFaultsColumn.add(validatorSettings.getFaultSettings().getNumFaults());
+            baseTimeLimitColumn.add(validatorSettings.getBaseTimeLimit());
+            seedColumn.add(rowSeeds.get(i));
+            classColumn.add(rowClasses.get(i));
+            Map<String, Double> metrics = rowMetrics.get(i);
+            for (ColumnarTable.DoubleColumn metricColumn : metricColumns) {
+                metricColumn.add(metrics.getOrDefault(metricColumn.getName(), Double.NaN));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the metrics of {@code ValidatorResultsJson} for a validator class with {@code consensusStatistics} and
+     * {@code queueStatistics}.
+     */
+    private static Map<String, Double> getValidatorMetrics(ConsensusStatistics consensusStatistics,
+            QueueStatistics queueStatistics) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        metrics.put("t_total", consensusStatistics.getAverageConsensusTime());
+        metrics.put("t_p50", consensusStatistics.getDecisionLatencyPercentile(50));
+        metrics.put("t_p99", consensusStatistics.getDecisionLatencyPercentile(99));
+        metrics.put("t_p999", consensusStatistics.getDecisionLatencyPercentile(99.9));
+        metrics.putAll(getQueueMetrics(queueStatistics));
+        putAll(metrics, "stateTime", consensusStatistics.getNormalizedStateTimeMap());
+        consensusStatistics.getNormalizedRoundStateTimeMap()
+                .forEach((round, stateTimeMap) -> putAll(metrics, "roundStateTime." + round, stateTimeMap));
+        putAll(metrics, "messageCount", consensusStatistics.getNormalizedMessageCountMap());
+        putAll(metrics, "messageSent", consensusStatistics.getNormalizedMessageSentMap());
+        putAll(metrics, "roundChangeStateCount", consensusStatistics.getNormalizedRoundChangeStateCountMap());
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of {@code QueueResultsJson} for {@code queueStatistics}.
+     */
+    private static Map<String, Double> getQueueMetrics(QueueStatistics queueStatistics) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        metrics.put("L", queueStatistics.getAverageNumMessagesInQueue());
+        metrics.put("lambda", queueStatistics.getMessageArrivalRate());
+        metrics.put("W", queueStatistics.getAverageMessageWaitingTime());
+        return metrics;
+    }
+
+    private static void putAll(Map<String, Double> metrics, String prefix, Map<String, Double> values) {
+        values.forEach((key, value) -> metrics.put(prefix + "." + key, value));
+    }
+
+    /**
+     * Appends the rows of {@code table} to the results table at {@code path}, creating it if it does not exist.
+     * The combined table is written to a temporary file that is then moved over the table, so that the existing rows
+     * are kept if the process fails while writing. The lock file {@code <path>.lock} is locked meanwhile, so runs in
+     * separate processes can append to the same table.
+     */
+    public static void append(Path path, ColumnarTable table) {
+        Path absolutePath = path.toAbsolutePath();
+        Path lockPath = absolutePath.resolveSibling(absolutePath.getFileName() + LOCK_FILE_SUFFIX);
+        try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            FileLock lock = lockChannel.lock();
+            try {
+                ColumnarTable combinedTable = Files.exists(absolutePath)
+                        ? ColumnarTable.read(absolutePath)
+                        : new ColumnarTable();
+                combinedTable.appendRows(table);
+                Path temporaryPath = Files.createTempFile(absolutePath.getParent(),
+                        absolutePath.getFileName().toString(), ".tmp");
+                try {
+                    combinedTable.write(temporaryPath);
+                    Files.move(temporaryPath, absolutePath, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temporaryPath);
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Unable to append results to %s.\n%s", path, e));
+        }
+    }
+}
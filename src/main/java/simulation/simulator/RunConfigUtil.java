@@ -1,5 +1,6 @@
 package simulation.simulator;
 
+import simulation.jfr.TopologyConstructionEvent;
 import simulation.json.input.FaultConfigJson;
 import simulation.json.input.NetworkConfigurationJson;
 import simulation.json.input.RngConfigJson;
@@ -21,12 +22,18 @@ import simulation.protocol.hotstuff.HSMessage;
 import simulation.protocol.hotstuff.HSReplica;
 import simulation.protocol.ibft.IBFTMessage;
 import simulation.protocol.ibft.IBFTNode;
+import simulation.statistics.AverageStatisticsCollector;
+import simulation.statistics.NoStatisticsCollector;
+import simulation.statistics.NodeDistributionCollector;
+import simulation.statistics.StatisticsCollector;
+import simulation.trace.MessageTimings;
 import simulation.util.Pair;
 import simulation.util.rng.DegenerateDistribution;
 import simulation.util.rng.ExponentialDistribution;
 import simulation.util.rng.RandomNumberGenerator;
 import simulation.util.rng.UniformDistribution;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -44,7 +51,6 @@ public class RunConfigUtil {
         ValidatorConfigJson validatorSettings = json.getValidatorSettings();
         String consensusProtocol = validatorSettings.getConsensusProtocol();
         int numNodes = validatorSettings.getNumNodes();
-        double baseTimeLimit = validatorSettings.getBaseTimeLimit();
         int consensusLimit = validatorSettings.getNumConsensus();
 
         RandomNumberGenerator nodeRng = getRngFromConfig(validatorSettings.getNodeProcessingDistribution());
@@ -57,20 +63,14 @@ public class RunConfigUtil {
                     nodeRng, consensusLimit, hsSimulator, faultSettings);
 
             List<Validator<HSMessage>> hsNodes = hsPair.first();
-            Map<Integer, String> idNameMap = hsPair.second();
-
-            for (int i = 0; i < numNodes; i++) {
-                Validator<HSMessage> currentNode = hsNodes.get(i);
-                for (int j = 0; j < validatorSettings.getNumPrograms(); j++) {
-                    String programName = idNameMap.get(i) + "-P" + j;
-                    ConsensusProgram<HSMessage> program = new HSReplica(programName, i, baseTimeLimit,
-                            numNodes, currentNode);
-                    currentNode.addConsensusProgram(program);
-                }
-            }
+            addHotStuffPrograms(hsNodes, hsPair.second(), validatorSettings);
 
             hsSimulator.setNodes(hsNodes);
             fixNetworkConnections(json, hsSimulator);
+            if (json.getTraceFilter() != null) {
+                hsSimulator.setEventFilter(json.getTraceFilter());
+            }
+            hsSimulator.setStatisticsCollector(createStatisticsCollector(json.getStatisticsCollector()));
             return hsSimulator;
         case "ibft":
             SimulatorImpl<IBFTMessage> ibftSimulator = new SimulatorImpl<>();
@@ -78,26 +78,90 @@ public class RunConfigUtil {
                     nodeRng, consensusLimit, ibftSimulator, faultSettings);
 
             List<Validator<IBFTMessage>> ibftNodes = ibftPair.first();
-            idNameMap = ibftPair.second();
-
-            for (int i = 0; i < numNodes; i++) {
-                Validator<IBFTMessage> currentNode = ibftNodes.get(i);
-                for (int j = 0; j < validatorSettings.getNumPrograms(); j++) {
-                    String programName = idNameMap.get(i) + "-P" + j;
-                    ConsensusProgram<IBFTMessage> program = new IBFTNode(programName, i, baseTimeLimit,
-                            numNodes, currentNode);
-                    currentNode.addConsensusProgram(program);
-                }
-            }
+            addIbftPrograms(ibftNodes, ibftPair.second(), validatorSettings);
 
             ibftSimulator.setNodes(ibftNodes);
             fixNetworkConnections(json, ibftSimulator);
+            if (json.getTraceFilter() != null) {
+                ibftSimulator.setEventFilter(json.getTraceFilter());
+            }
+            ibftSimulator.setStatisticsCollector(createStatisticsCollector(json.getStatisticsCollector()));
             return ibftSimulator;
         default:
             throw new RuntimeException(String.format("%s is an unrecognised validator node type.", consensusProtocol));
         }
     }
 
+    /**
+     * Creates a {@code ReplaySimulator} of the validators of the given run configuration {@code json}, replaying the
+     * message delivery times of the delivery file of a trace at {@code deliveryPath}.
+     */
+    public static ReplaySimulator<?> createReplaySimulator(RunConfigJson json, Path deliveryPath) {
+        ValidatorConfigJson validatorSettings = json.getValidatorSettings();
+        String consensusProtocol = validatorSettings.getConsensusProtocol();
+        int numNodes = validatorSettings.getNumNodes();
+        int consensusLimit = validatorSettings.getNumConsensus();
+
+        RandomNumberGenerator nodeRng = getRngFromConfig(validatorSettings.getNodeProcessingDistribution());
+        FaultConfigJson faultSettings = validatorSettings.getFaultSettings();
+        MessageTimings messageTimings = MessageTimings.read(deliveryPath);
+
+        switch (consensusProtocol) {
+        case "hs": case "hotstuff":
+            ReplaySimulator<HSMessage> hsSimulator = new ReplaySimulator<>(messageTimings);
+            Pair<List<Validator<HSMessage>>, Map<Integer, String>> hsPair = createValidatorNodes(numNodes,
+                    nodeRng, consensusLimit, hsSimulator, faultSettings);
+            addHotStuffPrograms(hsPair.first(), hsPair.second(), validatorSettings);
+            hsSimulator.setNodes(hsPair.first());
+            hsSimulator.setStatisticsCollector(createStatisticsCollector(json.getStatisticsCollector()));
+            return hsSimulator;
+        case "ibft":
+            ReplaySimulator<IBFTMessage> ibftSimulator = new ReplaySimulator<>(messageTimings);
+            Pair<List<Validator<IBFTMessage>>, Map<Integer, String>> ibftPair = createValidatorNodes(numNodes,
+                    nodeRng, consensusLimit, ibftSimulator, faultSettings);
+            addIbftPrograms(ibftPair.first(), ibftPair.second(), validatorSettings);
+            ibftSimulator.setNodes(ibftPair.first());
+            ibftSimulator.setStatisticsCollector(createStatisticsCollector(json.getStatisticsCollector()));
+            return ibftSimulator;
+        default:
+            throw new RuntimeException(String.format("%s is an unrecognised validator node type.", consensusProtocol));
+        }
+    }
+
+    /**
+     * Adds the configured number of HotStuff programs to each of the {@code nodes}.
+     */
+    private static void addHotStuffPrograms(List<Validator<HSMessage>> nodes, Map<Integer, String> idNameMap,
+            ValidatorConfigJson validatorSettings) {
+        int numNodes = nodes.size();
+        for (int i = 0; i < numNodes; i++) {
+            Validator<HSMessage> currentNode = nodes.get(i);
+            for (int j = 0; j < validatorSettings.getNumPrograms(); j++) {
+                String programName = idNameMap.get(i) + "-P" + j;
+                ConsensusProgram<HSMessage> program = new HSReplica(programName, i,
+                        validatorSettings.getBaseTimeLimit(), numNodes, currentNode);
+                currentNode.addConsensusProgram(program);
+            }
+        }
+    }
+
+    /**
+     * Adds the configured number of IBFT programs to each of the {@code nodes}.
+     */
+    private static void addIbftPrograms(List<Validator<IBFTMessage>> nodes, Map<Integer, String> idNameMap,
+            ValidatorConfigJson validatorSettings) {
+        int numNodes = nodes.size();
+        for (int i = 0; i < numNodes; i++) {
+            Validator<IBFTMessage> currentNode = nodes.get(i);
+            for (int j = 0; j < validatorSettings.getNumPrograms(); j++) {
+                String programName = idNameMap.get(i) + "-P" + j;
+                ConsensusProgram<IBFTMessage> program = new IBFTNode(programName, i,
+                        validatorSettings.getBaseTimeLimit(), numNodes, currentNode);
+                currentNode.addConsensusProgram(program);
+            }
+        }
+    }
+
     /**
      * Creates the validator nodes required for setup.
      *
@@ -158,6 +222,21 @@ public class RunConfigUtil {
         double messageChannelSuccessRate = switchSettings.getMessageChannelSuccessRate();
         String networkType = networkSettings.getNetworkType();
         List<Integer> networkParameters = networkSettings.getNetworkParameters();
+        TopologyConstructionEvent event = new TopologyConstructionEvent(networkType, nodes.size());
+        event.begin();
+        List<List<Switch<T>>> switches = arrangeNodesInTopology(networkType, networkParameters, nodes,
+                messageChannelSuccessRate, switchServiceTimeGenerator);
+        event.setNumSwitches(switches.stream().mapToInt(List::size).sum());
+        event.commit();
+        return switches;
+    }
+
+    /**
+     * Arranges the {@code nodes} in the network topology of {@code networkType}.
+     */
+    private static <T> List<List<Switch<T>>> arrangeNodesInTopology(String networkType,
+            List<Integer> networkParameters, List<? extends EndpointNode<T>> nodes,
+            double messageChannelSuccessRate, RandomNumberGenerator switchServiceTimeGenerator) {
         switch (networkType) {
             case "foldedclos": case "fc":
                 return ButterflyTopology.arrangeFoldedClosStructure(nodes, networkParameters,
@@ -183,6 +262,27 @@ public class RunConfigUtil {
         }
     }
 
+    /**
+     * Returns the statistics collector named {@code collectorName}, which is case-sensitive.
+     * Defaults to the {@code AverageStatisticsCollector} if no name is given.
+     */
+    public static StatisticsCollector createStatisticsCollector(String collectorName) {
+        if (collectorName == null) {
+            return new AverageStatisticsCollector();
+        }
+        switch (collectorName) {
+            case AverageStatisticsCollector.NAME: case "avg":
+                return new AverageStatisticsCollector();
+            case NoStatisticsCollector.NAME:
+                return new NoStatisticsCollector();
+            case NodeDistributionCollector.NAME:
+                return new NodeDistributionCollector();
+            default:
+                throw new RuntimeException(String.format("%s is an unrecognised statistics collector.",
+                        collectorName));
+        }
+    }
+
     /**
      * Returns the appropriate rng distribution from the given {@code rngConfigJson}.
      */
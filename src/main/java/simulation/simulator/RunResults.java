@@ -3,6 +3,10 @@ package simulation.simulator;
 import simulation.statistics.ConsensusStatistics;
 import simulation.statistics.QueueStatistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -13,6 +17,12 @@ import java.util.stream.IntStream;
  */
 public class RunResults {
 
+    /**
+     * Version of the binary format written by {@code writeTo}.
+     * Must be incremented whenever the binary format of any of the contained statistics changes.
+     */
+    public static final int SERIALIZATION_VERSION = 2;
+
     private final ConsensusStatistics fastestValidatorStatistics;
     private final ConsensusStatistics remainderValidatorStatistics;
     private final QueueStatistics fastestValidatorQueueStatistics;
@@ -71,6 +81,45 @@ public class RunResults {
                 newFastestQueueStatistics, newRemainderQueueStatistics, newSwitchStatistics);
     }
 
+    /**
+     * Writes these results to {@code out} in a compact, versioned binary form readable by {@code readFrom}.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(SERIALIZATION_VERSION);
+        fastestValidatorStatistics.writeTo(out);
+        remainderValidatorStatistics.writeTo(out);
+        fastestValidatorQueueStatistics.writeTo(out);
+        remainderValidatorQueueStatistics.writeTo(out);
+        out.writeInt(switchStatistics.size());
+        for (QueueStatistics queueStatistics : switchStatistics) {
+            queueStatistics.writeTo(out);
+        }
+    }
+
+    /**
+     * Reads {@code RunResults} written by {@code writeTo} from {@code in}.
+     *
+     * @throws IOException If the results were written with a different binary format version.
+     */
+    public static RunResults readFrom(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != SERIALIZATION_VERSION) {
+            throw new IOException(String.format("Unsupported run results format version %d (expected %d).",
+                    version, SERIALIZATION_VERSION));
+        }
+        ConsensusStatistics fastestValidatorStatistics = ConsensusStatistics.readFrom(in);
+        ConsensusStatistics remainderValidatorStatistics = ConsensusStatistics.readFrom(in);
+        QueueStatistics fastestValidatorQueueStatistics = QueueStatistics.readFrom(in);
+        QueueStatistics remainderValidatorQueueStatistics = QueueStatistics.readFrom(in);
+        int numSwitchGroups = in.readInt();
+        List<QueueStatistics> switchStatistics = new ArrayList<>();
+        for (int i = 0; i < numSwitchGroups; i++) {
+            switchStatistics.add(QueueStatistics.readFrom(in));
+        }
+        return new RunResults(fastestValidatorStatistics, remainderValidatorStatistics,
+                fastestValidatorQueueStatistics, remainderValidatorQueueStatistics, switchStatistics);
+    }
+
     @Override
     public String toString() {
         return String.format("Validator Stats:\n%s\nValidator Queue Stats:\n%s\nSwitch Stats%s",
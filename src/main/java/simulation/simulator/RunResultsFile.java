@@ -0,0 +1,99 @@
+package simulation.simulator;
+
+import simulation.cache.ResultCache;
+import simulation.json.input.RunConfigJson;
+import simulation.util.Pair;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contains utility methods for storing merged {@code RunResults} in compact binary files.
+ * Used to combine the results of runs split across processes.
+ *
+ * A file consists of a magic number, a format version, the hash of the run configuration (see
+ * {@code ResultCache::computeConfigHash}), the seeds of the runs merged into the results and, if there is at least
+ * one seed, the results themselves in the versioned binary form written by {@code RunResults::writeTo}.
+ */
+public class RunResultsFile {
+
+    private static final int MAGIC_NUMBER = 0x42465452; // "BFTR"
+    private static final int VERSION = 2;
+
+    /**
+     * Writes {@code runResults} of the runs of {@code runConfig} with {@code seeds} to {@code path}.
+     * {@code runResults} is ignored and may be null if there are no seeds.
+     */
+    public static void write(Path path, RunConfigJson runConfig, List<Long> seeds, RunResults runResults) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC_NUMBER);
+            out.writeInt(VERSION);
+            out.writeUTF(ResultCache.computeConfigHash(runConfig));
+            out.writeInt(seeds.size());
+            for (long seed : seeds) {
+                out.writeLong(seed);
+            }
+            if (!seeds.isEmpty()) {
+                runResults.writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Unable to write run results to %s.\n%s", path, e));
+        }
+    }
+
+    /**
+     * Reads the files at {@code paths} and returns the seeds of all their runs and their merged results.
+     *
+     * @throws RuntimeException If the files were written for different run configurations or engine versions, if
+     *         a seed is in more than one file or if the files have no runs.
+     */
+    public static Pair<List<Long>, RunResults> merge(List<Path> paths) {
+        String configHash = null;
+        Map<Long, Path> seedPathMap = new HashMap<>();
+        List<Long> seeds = new ArrayList<>();
+        RunResults runResults = null;
+        for (Path path : paths) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                if (in.readInt() != MAGIC_NUMBER || in.readInt() != VERSION) {
+                    throw new IOException("Not a run results file of version " + VERSION + ".");
+                }
+                String fileConfigHash = in.readUTF();
+                if (configHash == null) {
+                    configHash = fileConfigHash;
+                } else if (!configHash.equals(fileConfigHash)) {
+                    throw new RuntimeException(String.format("Run results in %s are of a different run configuration "
+                            + "or engine version than those in %s.", path, paths.get(0)));
+                }
+                int numSeeds = in.readInt();
+                for (int i = 0; i < numSeeds; i++) {
+                    long seed = in.readLong();
+                    Path previousPath = seedPathMap.putIfAbsent(seed, path);
+                    if (previousPath != null) {
+                        throw new RuntimeException(String.format("Run with seed %d is in both %s and %s.",
+                                seed, previousPath, path));
+                    }
+                    seeds.add(seed);
+                }
+                if (numSeeds > 0) {
+                    RunResults fileRunResults = RunResults.readFrom(in);
+                    runResults = runResults == null ? fileRunResults : runResults.mergeRunResults(fileRunResults);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Unable to read run results from %s.\n%s", path, e));
+            }
+        }
+        if (runResults == null) {
+            throw new RuntimeException("No runs in the run results files to merge.");
+        }
+        return new Pair<>(seeds, runResults);
+    }
+}
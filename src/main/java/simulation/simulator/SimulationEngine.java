@@ -0,0 +1,655 @@
+package simulation.simulator;
+
+import simulation.cache.ResultCache;
+import simulation.io.IoInterface;
+import simulation.io.NoIo;
+import simulation.jfr.RunEvent;
+import simulation.json.input.RunConfigJson;
+import simulation.metrics.RunProgress;
+import simulation.metrics.SimulationMetrics;
+import simulation.metrics.SimulationProfiler;
+import simulation.statistics.DecisionLogCollector;
+import simulation.statistics.NodeDistributionCollector;
+import simulation.statistics.StatisticsCollector;
+import simulation.statistics.TimeSeriesCollector;
+import simulation.trace.FlightRecorder;
+import simulation.trace.TraceRecorder;
+import simulation.util.rng.RNGUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Embeddable entry point for running simulations programmatically.
+ * Results are returned in memory and no files are read, written or deleted unless enabled through the builder or
+ * the run configuration.
+ *
+ * An engine is created through its {@code Builder}:
+ * <pre>
+ *     RunResults results = SimulationEngine.builder(runConfigJson)
+ *             .setNumRuns(10)
+ *             .setStartingSeed(42)
+ *             .build()
+ *             .run();
+ * </pre>
+ * Settings not specified in the builder default to those in the run configuration.
+ */
+public class SimulationEngine {
+
+    /**
+     * Version of the simulation engine.
+     * Must be incremented whenever a change alters the results of a run so that cached results are not reused.
+     */
+    public static final String ENGINE_VERSION = "2";
+    private static final String METRICS_TIME_SERIES_FILENAME = "metrics_%d.csv";
+    private static final String METRICS_SUMMARY_FILENAME = "metrics_%d.json";
+    private static final String PROFILE_TIME_FILENAME = "profile_%d_time.collapsed";
+    private static final String PROFILE_ALLOCATION_FILENAME = "profile_%d_alloc.collapsed";
+    private static final String PROFILE_SUMMARY_FILENAME = "profile_%d.txt";
+    /**
+     * Directory the node distributions are written to if they are collected as the run configuration names the
+     * {@code NodeDistributionCollector} but no node distribution directory is set.
+     */
+    private static final Path DEFAULT_NODE_DISTRIBUTION_DIRECTORY = Paths.get("distributions");
+    private static final String NODE_DISTRIBUTION_FILENAME = "node_distributions_%d.col";
+    private static final String TIME_SERIES_FILENAME = "time_series_%d.csv";
+    private static final String DECISION_LOG_FILENAME = "decisions_%d.bin";
+    private static final String TRACE_FILENAME = "trace_%d.bin";
+    private static final String DELIVERY_FILENAME = "deliveries_%d.bin";
+    private static final String FLIGHT_FILENAME = "flights_%d.bin";
+    private static final String FLIGHT_SUMMARY_FILENAME = "flights_%d.csv";
+
+    private final RunConfigJson runConfig;
+    private final IoInterface io;
+    private final int numRuns;
+    private final long startingSeed;
+    private final long seedMultiplier;
+    private final int shardIndex;
+    private final int numShards;
+    private final ResultCache resultCache;
+    private final Path metricsDirectory;
+    private final Path profileDirectory;
+    private final Supplier<? extends StatisticsCollector> statisticsCollectorFactory;
+    private final Path nodeDistributionDirectory;
+    private final Path timeSeriesDirectory;
+    private final double timeSeriesWindowWidth;
+    private final Path decisionLogDirectory;
+    private final Path resultsTablePath;
+    private final String sweepPoint;
+    private final Path traceDirectory;
+    private final Path replayDirectory;
+    private final Path flightDirectory;
+    private final double flightSampleRate;
+    private final boolean isProgressRegistered;
+
+    private SimulationEngine(Builder builder) {
+        this.runConfig = builder.runConfig;
+        this.io = builder.io;
+        this.numRuns = builder.numRuns;
+        this.startingSeed = builder.startingSeed;
+        this.seedMultiplier = builder.seedMultiplier;
+        this.shardIndex = builder.shardIndex;
+        this.numShards = builder.numShards;
+        this.resultCache = builder.resultCache;
+        this.metricsDirectory = builder.metricsDirectory;
+        this.profileDirectory = builder.profileDirectory;
+        this.statisticsCollectorFactory = builder.statisticsCollectorFactory;
+        this.nodeDistributionDirectory = builder.nodeDistributionDirectory == null && builder.isNodeDistributionNamed()
+                ? DEFAULT_NODE_DISTRIBUTION_DIRECTORY
+                : builder.nodeDistributionDirectory;
+        this.timeSeriesDirectory = builder.timeSeriesDirectory;
+        this.timeSeriesWindowWidth = builder.timeSeriesWindowWidth;
+        this.decisionLogDirectory = builder.decisionLogDirectory;
+        this.resultsTablePath = builder.resultsTablePath;
+        this.sweepPoint = builder.sweepPoint;
+        this.traceDirectory = builder.traceDirectory;
+        this.replayDirectory = builder.replayDirectory;
+        this.flightDirectory = builder.flightDirectory;
+        this.flightSampleRate = builder.flightSampleRate;
+        this.isProgressRegistered = builder.isProgressRegistered;
+    }
+
+    /**
+     * Returns a builder for an engine running the simulation described by {@code runConfig}.
+     */
+    public static Builder builder(RunConfigJson runConfig) {
+        return new Builder(runConfig);
+    }
+
+    public RunConfigJson getRunConfig() {
+        return runConfig;
+    }
+
+    /**
+     * Returns the seeds of each run in the order they are run.
+     * If the runs are sharded, only the seeds of the runs belonging to this engine's shard are returned.
+     */
+    public List<Long> getSeeds() {
+        List<Long> seeds = new ArrayList<>();
+        for (int i = shardIndex; i < numRuns; i += numShards) {
+            seeds.add(startingSeed + seedMultiplier * i);
+        }
+        return seeds;
+    }
+
+    /**
+     * Runs all simulation runs and returns their merged results.
+     * A summary of each run is output via the engine's {@code IoInterface}, which is left open.
+     * If a results table is set, the results of each run are appended to it once all runs are done.
+     */
+    public RunResults run() {
+        RunResults runResults = null;
+        List<RunResults> seedRunResults = new ArrayList<>();
+        for (long seed : getSeeds()) {
+            RunResults currentRunResults = runSingle(seed);
+
+            io.output("\nSummary:");
+            io.output(currentRunResults.toString());
+
+            if (resultsTablePath != null) {
+                seedRunResults.add(currentRunResults);
+            }
+            runResults = runResults == null ? currentRunResults : runResults.mergeRunResults(currentRunResults);
+        }
+        if (runResults == null) {
+            throw new IllegalStateException("At least one run is required to produce results.");
+        }
+        if (resultsTablePath != null) {
+            ResultsTableFile.append(resultsTablePath,
+                    ResultsTableFile.createTable(sweepPoint, runConfig, getSeeds(), seedRunResults));
+        }
+        io.output(runResults.toString());
+        return runResults;
+    }
+
+    /**
+     * Runs a singular simulation run with {@code seed} and returns its results.
+     * If a result cache is set and contains the results of this run, the cached results are returned instead and
+     * no simulation events are output. Results of runs with a statistics collector set through the builder or with
+     * node distributions, time-series or decision logs enabled are neither looked up in nor stored in the cache, as
+     * the cache does not distinguish between collectors. Neither are the results of replays of traces, nor those of
+     * runs writing metrics, profiles, traces or flights, as a cached run would not write them.
+     * Safe to call concurrently from multiple threads as the random number generator is kept per thread.
+     */
+    public RunResults runSingle(long seed) {
+        boolean isCached = resultCache != null && statisticsCollectorFactory == null
+                && nodeDistributionDirectory == null && timeSeriesDirectory == null && decisionLogDirectory == null
+                && replayDirectory == null && metricsDirectory == null && profileDirectory == null
+                && traceDirectory == null && flightDirectory == null;
+        if (isCached) {
+            Optional<RunResults> cachedResults = resultCache.get(runConfig, seed);
+            if (cachedResults.isPresent()) {
+                return cachedResults.get();
+            }
+        }
+
+        RunEvent event = new RunEvent(seed, runConfig.getValidatorSettings().getConsensusProtocol(),
+                runConfig.getNetworkSettings().getNetworkType(), runConfig.getValidatorSettings().getNumNodes());
+        event.begin();
+        RNGUtil.setSeed(seed);
+        ReplaySimulator<?> replaySimulator = replayDirectory == null ? null : RunConfigUtil.createReplaySimulator(
+                runConfig, replayDirectory.resolve(String.format(DELIVERY_FILENAME, seed)));
+        Simulator simulator = replaySimulator == null ? RunConfigUtil.createSimulator(runConfig) : replaySimulator;
+        StatisticsCollector statisticsCollector = null;
+        if (statisticsCollectorFactory != null) {
+            statisticsCollector = statisticsCollectorFactory.get();
+        }
+        NodeDistributionCollector nodeDistributionCollector = null;
+        if (nodeDistributionDirectory != null) {
+            nodeDistributionCollector = new NodeDistributionCollector();
+            statisticsCollector = nodeDistributionCollector;
+        }
+        if (statisticsCollector == null && (timeSeriesDirectory != null || decisionLogDirectory != null)) {
+            statisticsCollector = RunConfigUtil.createStatisticsCollector(runConfig.getStatisticsCollector());
+        }
+        DecisionLogCollector decisionLogCollector = null;
+        if (decisionLogDirectory != null) {
+            decisionLogCollector = createDecisionLog(statisticsCollector, seed);
+            statisticsCollector = decisionLogCollector;
+        }
+        TimeSeriesCollector timeSeriesCollector = null;
+        if (timeSeriesDirectory != null) {
+            timeSeriesCollector = createTimeSeries(statisticsCollector, seed);
+            statisticsCollector = timeSeriesCollector;
+        }
+        if (statisticsCollector != null) {
+            simulator.setStatisticsCollector(statisticsCollector);
+        }
+        SimulationMetrics metrics = metricsDirectory == null ? null : createMetrics(seed);
+        if (metrics != null) {
+            simulator.setMetrics(metrics);
+        }
+        RunProgress progress = isProgressRegistered ? createProgress(seed) : null;
+        if (progress != null) {
+            simulator.setProgress(progress);
+            progress.register();
+        }
+        SimulationProfiler profiler = profileDirectory == null ? null : createProfiler(seed);
+        if (profiler != null) {
+            simulator.setProfiler(profiler);
+            profiler.start();
+        }
+        TraceRecorder traceRecorder = traceDirectory == null ? null : createTraceRecorder(seed);
+        if (traceRecorder != null) {
+            simulator.setTraceRecorder(traceRecorder);
+        }
+        FlightRecorder flightRecorder = flightDirectory == null ? null : createFlightRecorder(seed);
+        if (flightRecorder != null) {
+            simulator.setFlightRecorder(flightRecorder);
+        }
+        long numEvents = 0;
+        try {
+            while (!simulator.isSimulationOver()) {
+                simulator.simulate().ifPresent(io::output);
+                numEvents++;
+            }
+        } finally {
+            if (progress != null) {
+                progress.unregister();
+            }
+            if (profiler != null) {
+                profiler.close();
+            }
+            if (timeSeriesCollector != null) {
+                timeSeriesCollector.close();
+            }
+            if (decisionLogCollector != null) {
+                decisionLogCollector.close();
+            }
+            if (traceRecorder != null) {
+                traceRecorder.close();
+            }
+            if (flightRecorder != null) {
+                flightRecorder.close();
+            }
+        }
+        RunResults runResults = simulator.getRunResults();
+        event.setNumEvents(numEvents);
+        event.commit();
+        if (metrics != null) {
+            metrics.close();
+            io.output("\nMetrics:");
+            io.output(metrics.getSummary().toString());
+        }
+        if (profiler != null) {
+            io.output("\nProfile:");
+            io.output(profiler.getSummary());
+        }
+        if (replaySimulator != null) {
+            io.output(String.format("\nReplay: %d messages matched the trace, %d took the mean delays of their type",
+                    replaySimulator.getNumMatchedMessages(), replaySimulator.getNumUnmatchedMessages()));
+        }
+        if (nodeDistributionCollector != null) {
+            writeNodeDistributions(nodeDistributionCollector, seed, simulator.getTime());
+        }
+        if (isCached) {
+            resultCache.put(runConfig, seed, runResults);
+        }
+        return runResults;
+    }
+
+    /**
+     * Creates the metrics of the run with {@code seed}, stored in the metrics directory.
+     */
+    private SimulationMetrics createMetrics(long seed) {
+        try {
+            Files.createDirectories(metricsDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + metricsDirectory + " for storing metrics.\n" + e);
+        }
+        return new SimulationMetrics(metricsDirectory.resolve(String.format(METRICS_TIME_SERIES_FILENAME, seed)),
+                metricsDirectory.resolve(String.format(METRICS_SUMMARY_FILENAME, seed)),
+                SimulationMetrics.DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Creates the progress of the run with {@code seed}.
+     */
+    private RunProgress createProgress(long seed) {
+        return new RunProgress(seed, runConfig.getValidatorSettings().getConsensusProtocol(),
+                runConfig.getNetworkSettings().getNetworkType(), runConfig.getValidatorSettings().getNumNodes(),
+                runConfig.getValidatorSettings().getNumConsensus());
+    }
+
+    /**
+     * Creates the profiler of the run with {@code seed}, whose profile is stored in the profile directory.
+     */
+    private SimulationProfiler createProfiler(long seed) {
+        try {
+            Files.createDirectories(profileDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + profileDirectory + " for storing profiles.\n" + e);
+        }
+        return new SimulationProfiler(profileDirectory.resolve(String.format(PROFILE_TIME_FILENAME, seed)),
+                profileDirectory.resolve(String.format(PROFILE_ALLOCATION_FILENAME, seed)),
+                profileDirectory.resolve(String.format(PROFILE_SUMMARY_FILENAME, seed)));
+    }
+
+    /**
+     * Creates the trace recorder of the run with {@code seed}, whose trace and delivery file are stored in the trace
+     * directory.
+     */
+    private TraceRecorder createTraceRecorder(long seed) {
+        try {
+            Files.createDirectories(traceDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + traceDirectory + " for storing traces.\n" + e);
+        }
+        return new TraceRecorder(traceDirectory.resolve(String.format(TRACE_FILENAME, seed)),
+                traceDirectory.resolve(String.format(DELIVERY_FILENAME, seed)));
+    }
+
+    /**
+     * Creates the flight recorder of the run with {@code seed}, whose flights and their summary are stored in the
+     * flight directory.
+     */
+    private FlightRecorder createFlightRecorder(long seed) {
+        try {
+            Files.createDirectories(flightDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + flightDirectory + " for storing flights.\n" + e);
+        }
+        return new FlightRecorder(flightDirectory.resolve(String.format(FLIGHT_FILENAME, seed)),
+                flightDirectory.resolve(String.format(FLIGHT_SUMMARY_FILENAME, seed)), flightSampleRate, seed);
+    }
+
+    /**
+     * Creates the time-series collector of the run with {@code seed} passing statistics on to {@code delegate},
+     * whose windows are written to the time-series directory.
+     */
+    private TimeSeriesCollector createTimeSeries(StatisticsCollector delegate, long seed) {
+        try {
+            Files.createDirectories(timeSeriesDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + timeSeriesDirectory + " for storing time-series.\n" + e);
+        }
+        return new TimeSeriesCollector(delegate, timeSeriesDirectory.resolve(String.format(TIME_SERIES_FILENAME, seed)),
+                timeSeriesWindowWidth);
+    }
+
+    /**
+     * Creates the decision log collector of the run with {@code seed} passing statistics on to {@code delegate},
+     * whose decisions are appended to a log in the decision log directory.
+     */
+    private DecisionLogCollector createDecisionLog(StatisticsCollector delegate, long seed) {
+        try {
+            Files.createDirectories(decisionLogDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + decisionLogDirectory + " for storing decision logs.\n"
+                    + e);
+        }
+        return new DecisionLogCollector(delegate,
+                decisionLogDirectory.resolve(String.format(DECISION_LOG_FILENAME, seed)));
+    }
+
+    /**
+     * Writes the node distributions collected by {@code collector} in the run with {@code seed}, which ended at
+     * {@code endTime}, to the node distribution directory.
+     */
+    private void writeNodeDistributions(NodeDistributionCollector collector, long seed, double endTime) {
+        try {
+            Files.createDirectories(nodeDistributionDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create " + nodeDistributionDirectory
+                    + " for storing node distributions.\n" + e);
+        }
+        collector.write(nodeDistributionDirectory.resolve(String.format(NODE_DISTRIBUTION_FILENAME, seed)), endTime);
+    }
+
+    /**
+     * Builder for a {@code SimulationEngine}.
+     */
+    public static class Builder {
+
+        private final RunConfigJson runConfig;
+        private IoInterface io;
+        private int numRuns;
+        private long startingSeed;
+        private long seedMultiplier;
+        private int shardIndex;
+        private int numShards;
+        private ResultCache resultCache;
+        private Path metricsDirectory;
+        private Path profileDirectory;
+        private Supplier<? extends StatisticsCollector> statisticsCollectorFactory;
+        private Path nodeDistributionDirectory;
+        private Path timeSeriesDirectory;
+        private double timeSeriesWindowWidth;
+        private Path decisionLogDirectory;
+        private Path resultsTablePath;
+        private String sweepPoint;
+        private Path traceDirectory;
+        private Path replayDirectory;
+        private Path flightDirectory;
+        private double flightSampleRate;
+        private boolean isProgressRegistered;
+
+        private Builder(RunConfigJson runConfig) {
+            this.runConfig = runConfig;
+            this.io = new NoIo();
+            this.numRuns = runConfig.getNumRuns();
+            this.startingSeed = runConfig.getStartingSeed();
+            this.seedMultiplier = runConfig.getSeedMultiplier();
+            this.shardIndex = 0;
+            this.numShards = 1;
+            this.timeSeriesWindowWidth = TimeSeriesCollector.DEFAULT_WINDOW_WIDTH;
+            this.sweepPoint = "";
+            this.flightSampleRate = FlightRecorder.DEFAULT_SAMPLE_RATE;
+            this.isProgressRegistered = false;
+        }
+
+        /**
+         * Sets the {@code IoInterface} that simulation events and run summaries are output to.
+         * Defaults to {@code NoIo}.
+         */
+        public Builder setIo(IoInterface io) {
+            this.io = io;
+            return this;
+        }
+
+        public Builder setNumRuns(int numRuns) {
+            this.numRuns = numRuns;
+            return this;
+        }
+
+        public Builder setStartingSeed(long startingSeed) {
+            this.startingSeed = startingSeed;
+            return this;
+        }
+
+        public Builder setSeedMultiplier(long seedMultiplier) {
+            this.seedMultiplier = seedMultiplier;
+            return this;
+        }
+
+        /**
+         * Restricts the engine to the runs of shard {@code shardIndex} out of {@code numShards}.
+         * Runs are assigned to shards in a round-robin manner so that each shard gets a similar number of runs.
+         */
+        public Builder setShard(int shardIndex, int numShards) {
+            if (numShards < 1 || shardIndex < 0 || shardIndex >= numShards) {
+                throw new IllegalArgumentException(String.format("Invalid shard %d/%d.", shardIndex, numShards));
+            }
+            this.shardIndex = shardIndex;
+            this.numShards = numShards;
+            return this;
+        }
+
+        /**
+         * Sets the cache that results of runs are looked up in before simulating and stored in after simulating.
+         * No cache is used by default.
+         */
+        public Builder setResultCache(ResultCache resultCache) {
+            this.resultCache = resultCache;
+            return this;
+        }
+
+        /**
+         * Enables the collection of hot-path metrics of each simulated run, which are written to
+         * {@code metricsDirectory} as a time-series csv file and a summary json file named after the seed of the run.
+         * Metrics are disabled by default.
+         */
+        public Builder setMetricsDirectory(Path metricsDirectory) {
+            this.metricsDirectory = metricsDirectory;
+            return this;
+        }
+
+        /**
+         * Enables the profiling of each simulated run, whose wall-clock time and allocations split by event type,
+         * node class and operation are written to {@code profileDirectory} as collapsed-stack files named after the
+         * seed of the run. Profiling is disabled by default.
+         */
+        public Builder setProfileDirectory(Path profileDirectory) {
+            this.profileDirectory = profileDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the factory creating the {@code StatisticsCollector} of each simulated run, overriding the collector
+         * named in the run configuration. A new collector is created per run so that collectors need not be
+         * thread-safe.
+         */
+        public Builder setStatisticsCollector(Supplier<? extends StatisticsCollector> statisticsCollectorFactory) {
+            this.statisticsCollectorFactory = statisticsCollectorFactory;
+            return this;
+        }
+
+        /**
+         * Enables the collection of the queue length and waiting time distributions of each validator and switch in
+         * each simulated run, which are written to {@code nodeDistributionDirectory} as a columnar file named after
+         * the seed of the run. Node distributions are disabled by default, unless the run configuration names the
+         * {@code NodeDistributionCollector}, in which case they are written to {@code distributions}.
+         */
+        public Builder setNodeDistributionDirectory(Path nodeDistributionDirectory) {
+            this.nodeDistributionDirectory = nodeDistributionDirectory;
+            return this;
+        }
+
+        /**
+         * Enables streaming a time-series of the decisions, timeouts, view changes and switch load of each simulated
+         * run, in windows of simulated time, to {@code timeSeriesDirectory} as a csv file named after the seed of the
+         * run. The time-series is collected alongside the other statistics of the run. Time-series are disabled by
+         * default.
+         */
+        public Builder setTimeSeriesDirectory(Path timeSeriesDirectory) {
+            this.timeSeriesDirectory = timeSeriesDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the simulated time covered by each window of the time-series.
+         * Defaults to {@code TimeSeriesCollector.DEFAULT_WINDOW_WIDTH}.
+         */
+        public Builder setTimeSeriesWindowWidth(double timeSeriesWindowWidth) {
+            this.timeSeriesWindowWidth = timeSeriesWindowWidth;
+            return this;
+        }
+
+        /**
+         * Enables logging every consensus instance decided by every consensus program in each simulated run to
+         * {@code decisionLogDirectory}, as a memory-mapped binary file of fixed-width records (see
+         * {@code DecisionLog}) named after the seed of the run. Decision logs are disabled by default.
+         */
+        public Builder setDecisionLogDirectory(Path decisionLogDirectory) {
+            this.decisionLogDirectory = decisionLogDirectory;
+            return this;
+        }
+
+        /**
+         * Enables appending the results of each simulated run to the columnar results table at
+         * {@code resultsTablePath} (see {@code ResultsTableFile}), which is shared by all runs of a sweep.
+         * Results tables are disabled by default.
+         */
+        public Builder setResultsTablePath(Path resultsTablePath) {
+            this.resultsTablePath = resultsTablePath;
+            return this;
+        }
+
+        /**
+         * Sets the label of the sweep point of the runs in the results table. Defaults to the empty string.
+         */
+        public Builder setSweepPoint(String sweepPoint) {
+            this.sweepPoint = sweepPoint;
+            return this;
+        }
+
+        /**
+         * Enables recording every event of each simulated run to a compressed binary trace in
+         * {@code traceDirectory} (see {@code TraceRecorder}), named after the seed of the run, along with the delivery
+         * times of its messages between validators. Tracing is disabled by default.
+         */
+        public Builder setTraceDirectory(Path traceDirectory) {
+            this.traceDirectory = traceDirectory;
+            return this;
+        }
+
+        /**
+         * Replays each run against the message delivery times in {@code replayDirectory} named after the seed of the
+         * run, as recorded with {@code setTraceDirectory}, instead of simulating the network (see
+         * {@code ReplaySimulator}). Runs are simulated in full by default.
+         */
+        public Builder setReplayDirectory(Path replayDirectory) {
+            this.replayDirectory = replayDirectory;
+            return this;
+        }
+
+        /**
+         * Sets whether the progress of each run is registered as a {@code RunProgress} MBean for the duration of the
+         * run. Progress is not registered by default.
+         */
+        public Builder setProgressRegistered(boolean isProgressRegistered) {
+            this.isProgressRegistered = isProgressRegistered;
+            return this;
+        }
+
+        /**
+         * Enables tracing the flights of a random sample of the payloads sent by validators in each simulated run hop
+         * by hop through the network, which are written to {@code flightDirectory} as a binary file and a csv summary
+         * by number of hops and switch group (see {@code FlightRecorder}) named after the seed of the run. Flight
+         * tracing is disabled by default.
+         */
+        public Builder setFlightDirectory(Path flightDirectory) {
+            this.flightDirectory = flightDirectory;
+            return this;
+        }
+
+        /**
+         * Sets the probability of each payload being sampled for flight tracing.
+         * Defaults to {@code FlightRecorder.DEFAULT_SAMPLE_RATE}.
+         */
+        public Builder setFlightSampleRate(double flightSampleRate) {
+            this.flightSampleRate = flightSampleRate;
+            return this;
+        }
+
+        /**
+         * @throws IllegalStateException If a statistics collector is set together with a node distribution directory
+         *         or a run configuration naming the {@code NodeDistributionCollector}, or if a replay directory is
+         *         set together with metrics, profiles, traces or flights.
+         */
+        public SimulationEngine build() {
+            if (statisticsCollectorFactory != null
+                    && (nodeDistributionDirectory != null || isNodeDistributionNamed())) {
+                throw new IllegalStateException(
+                        "A statistics collector cannot be set together with node distributions.");
+            }
+            if (replayDirectory != null
+                    && (metricsDirectory != null || profileDirectory != null || traceDirectory != null
+                            || flightDirectory != null)) {
+                throw new IllegalStateException(
+                        "Metrics, profiles, traces and flights are not available when replaying traces.");
+            }
+            return new SimulationEngine(this);
+        }
+
+        private boolean isNodeDistributionNamed() {
+            return NodeDistributionCollector.NAME.equals(runConfig.getStatisticsCollector());
+        }
+    }
+}
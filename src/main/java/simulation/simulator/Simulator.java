@@ -1,5 +1,12 @@
 package simulation.simulator;
 
+import simulation.metrics.RunProgress;
+import simulation.metrics.SimulationMetrics;
+import simulation.metrics.SimulationProfiler;
+import simulation.statistics.StatisticsCollector;
+import simulation.trace.FlightRecorder;
+import simulation.trace.TraceRecorder;
+
 import java.util.Optional;
 
 /***
@@ -26,4 +33,45 @@ public interface Simulator {
      * Returns the results of the BFT protocol simulation run.
      */
     RunResults getRunResults();
+
+    /**
+     * Returns the simulated time of the last simulated event.
+     */
+    double getTime();
+
+    /**
+     * Sets the {@code metrics} that the simulator records its hot-path counters in.
+     * No metrics are collected by default.
+     */
+    void setMetrics(SimulationMetrics metrics);
+
+    /**
+     * Sets the {@code progress} that the simulator periodically publishes the state of the run to.
+     * No progress is published by default.
+     */
+    void setProgress(RunProgress progress);
+
+    /**
+     * Sets the {@code profiler} that the simulator marks the start and end of each event in.
+     * Events are not profiled by default.
+     */
+    void setProfiler(SimulationProfiler profiler);
+
+    /**
+     * Sets the {@code statisticsCollector} that the nodes of the simulation report their statistics to.
+     * Must be called after the nodes and switches of the simulation are set.
+     */
+    void setStatisticsCollector(StatisticsCollector statisticsCollector);
+
+    /**
+     * Sets the {@code traceRecorder} that every simulated event is recorded to.
+     * Must be called after the nodes and switches of the simulation are set. Events are not recorded by default.
+     */
+    void setTraceRecorder(TraceRecorder traceRecorder);
+
+    /**
+     * Sets the {@code flightRecorder} that the payloads created by validators are sampled by.
+     * Must be called after the nodes and switches of the simulation are set. Payloads are not sampled by default.
+     */
+    void setFlightRecorder(FlightRecorder flightRecorder);
 }
@@ -3,6 +3,11 @@ package simulation.simulator;
 import simulation.event.InitializationEvent;
 import simulation.event.NodeEvent;
 import simulation.event.TimedEvent;
+import simulation.jfr.ThroughputSampleEvent;
+import simulation.json.input.TraceFilterJson;
+import simulation.metrics.RunProgress;
+import simulation.metrics.SimulationMetrics;
+import simulation.metrics.SimulationProfiler;
 import simulation.network.entity.BFTMessage;
 import simulation.network.entity.Node;
 import simulation.network.entity.Validator;
@@ -11,9 +16,14 @@ import simulation.network.router.Switch;
 import simulation.statistics.ConsensusStatistics;
 import simulation.statistics.ConsensusTimeComparator;
 import simulation.statistics.QueueStatistics;
+import simulation.statistics.StatisticsCollector;
+import simulation.trace.EventFilter;
+import simulation.trace.FlightRecorder;
+import simulation.trace.TraceRecorder;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IntSummaryStatistics;
 import java.util.List;
 import java.util.Optional;
 import java.util.PriorityQueue;
@@ -28,6 +38,11 @@ public class SimulatorImpl<T extends BFTMessage> implements Simulator, TimerNoti
 
     private static final int SNAPSHOT_INTERVAL = 50;
     private static final double TIME_CUTOFF = 1000000000; // for safety
+    private static final int THROUGHPUT_SAMPLE_INTERVAL = 10000;
+    private static final String EVENT_QUEUE_FRAME = "PriorityQueue.addAll";
+    private static final String OUTPUT_FRAME = "SimulatorImpl.output";
+    private static final String VALIDATOR_GROUP = "validators";
+    private static final String SWITCH_GROUP = "switch_group_%d";
 
     private PriorityQueue<NodeEvent<T>> eventQueue;
     private int roundCount;
@@ -35,8 +50,12 @@ public class SimulatorImpl<T extends BFTMessage> implements Simulator, TimerNoti
     private List<List<Switch<T>>> switches;
     private double currentTime;
     private List<Validator<T>> unfinishedValidatorsTracker;
-    private int n;
-    private int f;
+    private SimulationMetrics metrics;
+    private RunProgress progress;
+    private SimulationProfiler profiler;
+    private TraceRecorder traceRecorder;
+    private EventFilter eventFilter;
+    private long previousThroughputSampleTime;
 
     public SimulatorImpl() {
     }
@@ -46,8 +65,6 @@ public class SimulatorImpl<T extends BFTMessage> implements Simulator, TimerNoti
      */
     public void setNodes(List<? extends Validator<T>> validators) {
         this.nodes = new ArrayList<>(validators);
-        this.n = validators.size();
-        this.f = (n - 1) / 3;
         eventQueue = new PriorityQueue<>();
         for (Node<T> node : validators) {
             eventQueue.add(new InitializationEvent<>(node));
@@ -55,6 +72,7 @@ public class SimulatorImpl<T extends BFTMessage> implements Simulator, TimerNoti
 
         roundCount = 0;
         currentTime = 0;
+        previousThroughputSampleTime = System.nanoTime();
 
         unfinishedValidatorsTracker = new ArrayList<>(validators);
     }
@@ -66,13 +84,66 @@ public class SimulatorImpl<T extends BFTMessage> implements Simulator, TimerNoti
         this.switches = switches;
     }
 
+    @Override
+    public void setMetrics(SimulationMetrics metrics) {
+        this.metrics = metrics;
+        metrics.registerSwitchGroups(switches);
+    }
+
+    @Override
+    public void setProgress(RunProgress progress) {
+        this.progress = progress;
+    }
+
+    @Override
+    public void setProfiler(SimulationProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void setStatisticsCollector(StatisticsCollector statisticsCollector) {
+        for (Validator<T> node : nodes) {
+            statisticsCollector.registerNode(node, VALIDATOR_GROUP);
+            node.setStatisticsCollector(statisticsCollector);
+        }
+        for (int i = 0; i < switches.size(); i++) {
+            for (Switch<T> switch_ : switches.get(i)) {
+                statisticsCollector.registerNode(switch_, String.format(SWITCH_GROUP, i));
+                switch_.setStatisticsCollector(statisticsCollector);
+            }
+        }
+    }
+
+    @Override
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+        traceRecorder.registerNodes(nodes, switches, nodes.get(0).getConsensusProgram(1).getMessageTypes(),
+                eventFilter != null);
+    }
+
+    @Override
+    public void setFlightRecorder(FlightRecorder flightRecorder) {
+        flightRecorder.registerNodes(nodes, switches, nodes.get(0).getConsensusProgram(1).getMessageTypes());
+        nodes.forEach(node -> node.setFlightRecorder(flightRecorder));
+    }
+
+    /**
+     * Sets the filter selecting the events that are output and traced to the filter described by {@code json}.
+     * Must be called after the nodes and switches of the simulation are set and before a trace recorder is set. All
+     * events are selected by default.
+     */
+    public void setEventFilter(TraceFilterJson json) {
+        this.eventFilter = EventFilter.create(json, nodes, switches,
+                nodes.get(0).getConsensusProgram(1).getMessageTypes());
+    }
+
     public List<Validator<T>> getNodes() {
         return nodes;
     }
 
     /**
-     * Simulates a singular event in the event queue and outputs the contents of the event.
-     * Each event involves a node and some possible action caused by the node.
+     * Simulates a singular event in the event queue and outputs the contents of the event if it is selected by the
+     * event filter. Each event involves a node and some possible action caused by the node.
      * Once a node is no longer required to run, it is removed from the unfinished list.
      * The simulation is considered 'over' once no more nodes are unfinished.
      */
@@ -85,24 +156,75 @@ public class SimulatorImpl<T extends BFTMessage> implements Simulator, TimerNoti
             return Optional.empty();
         }
         Node<T> node = nextEvent.getNode();
+        if (metrics != null && nextEvent instanceof TimedEvent && ((TimedEvent<T>) nextEvent).isStale()) {
+            metrics.recordStaleTimer();
+        }
+        if (profiler != null) {
+            profiler.beginEvent(nextEvent);
+        }
         List<NodeEvent<T>> resultingEvents = nextEvent.simulate();
 
         if (!node.isStillRequiredToRun()) {
             unfinishedValidatorsTracker.remove(node);
         }
 
+        SimulationProfiler.enter(EVENT_QUEUE_FRAME);
         eventQueue.addAll(resultingEvents);
+        SimulationProfiler.exit();
+        if (profiler != null) {
+            profiler.endEvent();
+        }
         roundCount++;
+        if (metrics != null) {
+            metrics.recordEvent(nextEvent, currentTime, eventQueue.size());
+        }
+        boolean isMatched = eventFilter == null || eventFilter.matches(nextEvent);
+        if (traceRecorder != null) {
+            traceRecorder.recordDeliveries(nextEvent, resultingEvents);
+            if (isMatched && (eventFilter == null || eventFilter.sampleTrace())) {
+                traceRecorder.recordEvent(nextEvent);
+            }
+        }
+        if (roundCount % THROUGHPUT_SAMPLE_INTERVAL == 0) {
+            sampleThroughput();
+        }
+        if (progress != null && roundCount % RunProgress.UPDATE_INTERVAL == 0) {
+            updateProgress();
+        }
 
-        Optional<String> finalString = (node instanceof Switch<?>)
-                ? Optional.empty()
-                : Optional.of(nextEvent.toString());
+        SimulationProfiler.enter(OUTPUT_FRAME);
+        boolean isOutput = isMatched && !(node instanceof Switch<?>)
+                && (eventFilter == null || eventFilter.sampleOutput());
+        Optional<String> finalString = isOutput ? Optional.of(nextEvent.toString()) : Optional.empty();
         if (roundCount % SNAPSHOT_INTERVAL == 0) {
             finalString = finalString.map(s -> s + "\n\nSnapshot:\n" + getSnapshotOfNodes() + "\n");
         }
+        SimulationProfiler.exit();
         return finalString;
     }
 
+    /**
+     * Commits a flight recorder sample of the events simulated since the previous sample.
+     */
+    private void sampleThroughput() {
+        long currentSampleTime = System.nanoTime();
+        double eventsPerSecond = THROUGHPUT_SAMPLE_INTERVAL / ((currentSampleTime - previousThroughputSampleTime) / 1e9);
+        previousThroughputSampleTime = currentSampleTime;
+        ThroughputSampleEvent.commit(roundCount, currentTime, eventQueue.size(), eventsPerSecond);
+    }
+
+    /**
+     * Publishes the current state of the run to the progress.
+     * Validators that do not run any consensus program are not considered for the consensus counts.
+     */
+    private void updateProgress() {
+        IntSummaryStatistics consensusCounts = nodes.stream()
+                .flatMapToInt(Validator::getConsensusCounts)
+                .summaryStatistics();
+        progress.update(currentTime, roundCount, consensusCounts.getCount() == 0 ? 0 : consensusCounts.getMin(),
+                consensusCounts.getCount() == 0 ? 0 : consensusCounts.getMax(), eventQueue.size());
+    }
+
     @Override
     public String getSnapshotOfNodes() {
         if (nodes.isEmpty()) {
@@ -122,6 +244,17 @@ public class SimulatorImpl<T extends BFTMessage> implements Simulator, TimerNoti
 
     @Override
     public RunResults getRunResults() {
+        return createRunResults(nodes, switches);
+    }
+
+    /**
+     * Returns the results of a run of the validator {@code nodes} over {@code switches}.
+     * The validators are split into the fastest n - f and the remaining f by the time taken by their first program.
+     */
+    static <T extends BFTMessage> RunResults createRunResults(List<Validator<T>> nodes,
+            List<? extends List<? extends Node<T>>> switches) {
+        int n = nodes.size();
+        int f = (n - 1) / 3;
         ConsensusStatistics fastestRunConsensusStats = nodes.stream()
                 .map(v -> v.getConsensusStatistics(1))
                 .sorted(new ConsensusTimeComparator())
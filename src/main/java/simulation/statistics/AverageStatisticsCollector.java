@@ -0,0 +1,76 @@
+package simulation.statistics;
+
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Node;
+import simulation.protocol.ConsensusProgram;
+
+/**
+ * {@code StatisticsCollector} implementation that records the totals needed for the average queue and consensus
+ * statistics in the {@code QueueStatistics} of each node and the {@code ConsensusStatistics} of each program, along
+ * with the histogram of decision latencies of each program.
+ *
+ * Used by default.
+ */
+public class AverageStatisticsCollector implements StatisticsCollector {
+
+    public static final String NAME = "averages";
+    /**
+     * Collector of nodes and consensus programs whose run has not set one, shared as the collector keeps no state.
+     */
+    public static final StatisticsCollector DEFAULT_STATISTICS_COLLECTOR = new AverageStatisticsCollector();
+
+    @Override
+    public void registerNode(Node<?> node, String group) {
+        // no per-node state is kept
+    }
+
+    @Override
+    public void onMessageArrived(Node<?> node, double time) {
+        node.getQueueStatistics().addMessageArrivedTime(time);
+    }
+
+    @Override
+    public void onMessageProcessed(Node<?> node, double time, double waitingTime) {
+        node.getQueueStatistics().addMessageProcessedTime(time, waitingTime);
+    }
+
+    @Override
+    public void onTimeElapsed(ConsensusProgram<?> program, double time) {
+        ConsensusStatistics statistics = program.getStatistics();
+        int stateIndex = program.getStateIndex();
+        statistics.addTime(stateIndex, time);
+        statistics.addRoundTime(program.getNumConsecutiveFailure() + 1, stateIndex, time);
+        statistics.setConsensusCount(program.getConsensusCount());
+    }
+
+    @Override
+    public void onMessageReceived(ConsensusProgram<?> program, BFTMessage message) {
+        program.getStatistics().addMessageCount(message.getTypeIndex());
+    }
+
+    @Override
+    public void onMessageSent(ConsensusProgram<?> program, BFTMessage message) {
+        program.getStatistics().addMessageSent(message.getTypeIndex());
+    }
+
+    @Override
+    public void onDecision(ConsensusProgram<?> program, double latency) {
+        program.getStatistics().addDecisionLatency(latency);
+    }
+
+    @Override
+    public void onInstanceDecided(ConsensusProgram<?> program, int validator, int consensusInstance, int view,
+            int numRounds, double time) {
+        // individual decisions are not recorded
+    }
+
+    @Override
+    public void onViewChange(ConsensusProgram<?> program, boolean isTimeout) {
+        // view changes are only counted through the round changes at each state
+    }
+
+    @Override
+    public void onRoundChange(ConsensusProgram<?> program) {
+        program.getStatistics().addRoundChangeStateCount(program.getStateIndex());
+    }
+}
@@ -1,13 +1,20 @@
 package simulation.statistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Records consensus related statistics in a simulation.
+ *
+ * Values are accumulated in arrays indexed by the index of the state or message type, as given by the consensus
+ * program, and are only converted to maps keyed by name when read.
  */
 public class ConsensusStatistics extends Statistics {
 
@@ -20,41 +27,42 @@ public class ConsensusStatistics extends Statistics {
     private double totalTime;
 
     private final int nodeCount;
-    private final Map<String, Double> stateTimeMap;
-    private final Map<Integer, Map<String, Double>> roundStateTimeMap;
-    private final Map<String, Integer> messageCountMap;
-    private final Map<String, Integer> messageSentMap;
-    private final Map<String, Integer> roundChangeStateCountMap;
+    private final String[] states;
+    private final String[] messageTypes;
+    private final double[] stateTimes;
+    /**
+     * Time spent at each state in each round, indexed by round - 1. Rounds that were never reached have no array.
+     */
+    private double[][] roundStateTimes;
+    private final KeyCounts messageCounts;
+    private final KeyCounts messagesSent;
+    private final KeyCounts roundChangeStateCounts;
+    /**
+     * Time taken to decide each consensus instance, measured from the decision of the previous instance.
+     */
+    private LatencyHistogram decisionLatencies;
 
     /**
      * @param states Various states the validator can take during a simulation.
+     * @param messageTypes Various types of messages the validator can receive and send during a simulation.
      */
-    public ConsensusStatistics(Collection<String> states) {
-        nodeCount = 1;
-        consensusCount = 0;
-        totalTime = 0;
-        stateTimeMap = new LinkedHashMap<>();
-        for (String state : states) {
-            stateTimeMap.put(state, 0.0);
-        }
-        roundStateTimeMap = new LinkedHashMap<>();
-        messageCountMap = new LinkedHashMap<>();
-        messageSentMap = new LinkedHashMap<>();
-        roundChangeStateCountMap = new LinkedHashMap<>();
+    public ConsensusStatistics(Collection<String> states, Collection<String> messageTypes) {
+        this(1, 0, 0, states.toArray(String[]::new), messageTypes.toArray(String[]::new));
     }
 
-    private ConsensusStatistics(int nodeCount, int consensusCount, double totalTime,
-            Map<String, Double> stateTimeMap, Map<Integer, Map<String, Double>> roundStateTimeMap,
-            Map<String, Integer> messageSentMap,
-            Map<String, Integer> messageCountMap, Map<String, Integer> roundChangeStateCountMap) {
+    private ConsensusStatistics(int nodeCount, int consensusCount, double totalTime, String[] states,
+            String[] messageTypes) {
         this.nodeCount = nodeCount;
         this.consensusCount = consensusCount;
         this.totalTime = totalTime;
-        this.stateTimeMap = stateTimeMap;
-        this.roundStateTimeMap = roundStateTimeMap;
-        this.messageCountMap = messageCountMap;
-        this.messageSentMap = messageSentMap;
-        this.roundChangeStateCountMap = roundChangeStateCountMap;
+        this.states = states;
+        this.messageTypes = messageTypes;
+        this.stateTimes = new double[states.length];
+        this.roundStateTimes = new double[0][];
+        this.messageCounts = new KeyCounts(messageTypes.length);
+        this.messagesSent = new KeyCounts(messageTypes.length);
+        this.roundChangeStateCounts = new KeyCounts(states.length);
+        this.decisionLatencies = new LatencyHistogram();
     }
 
     public void setConsensusCount(int consensusCount) {
@@ -62,79 +70,90 @@ public class ConsensusStatistics extends Statistics {
     }
 
     public Collection<String> getStates() {
-        return stateTimeMap.keySet();
+        return List.of(states);
     }
 
-    public void addMessageCountForState(String state) {
-        messageCountMap.compute(state, (k, v) -> v == null ? 1 : v + 1);
+    /**
+     * Records a message of the type at {@code typeIndex} being received.
+     */
+    public void addMessageCount(int typeIndex) {
+        messageCounts.increment(typeIndex);
     }
 
-    public void addMessageSent(String state) {
-        messageSentMap.compute(state, (k, v) -> v == null ? 1 : v + 1);
+    /**
+     * Records a message of the type at {@code typeIndex} being sent.
+     */
+    public void addMessageSent(int typeIndex) {
+        messagesSent.increment(typeIndex);
+    }
+
+    /**
+     * Records a round change occurring at the state at {@code stateIndex}.
+     */
+    public void addRoundChangeStateCount(int stateIndex) {
+        roundChangeStateCounts.increment(stateIndex);
     }
 
-    public void addRoundChangeStateCount(String state) {
-        roundChangeStateCountMap.compute(state, (k, v) -> v == null ? 1 : v + 1);
+    /**
+     * Records a consensus instance being decided {@code latency} after the previous one.
+     */
+    public void addDecisionLatency(double latency) {
+        decisionLatencies.record(latency);
     }
 
-    public void addRoundChangeStateCount(Object state) {
-        addRoundChangeStateCount(state.toString());
+    /**
+     * Returns the time taken to decide a consensus instance below which {@code percentile} percent of the instances
+     * were decided, or NaN if no instances were decided.
+     */
+    public double getDecisionLatencyPercentile(double percentile) {
+        return decisionLatencies.getPercentile(percentile);
     }
 
     /**
      * Returns number of messages of {@code type} encountered per consensus instance.
      */
     public double getNormalizedMessageCountForState(String type) {
-        return normalizeValue(messageCountMap.get(type).doubleValue());
+        return normalizeValue(messageCounts.get(indexOf(messageTypes, type)));
     }
 
     public double getNormalizedMessageSentForState(String type) {
-        return normalizeValue(messageSentMap.get(type).doubleValue());
+        return normalizeValue(messagesSent.get(indexOf(messageTypes, type)));
     }
 
     /**
      * Returns the number of times a round change occurs at {@code state} per consensus instance.
      */
     public double getNormalizedRoundChangeStateCount(String state) {
-        return normalizeValue(roundChangeStateCountMap.get(state).doubleValue());
+        return normalizeValue(roundChangeStateCounts.get(indexOf(states, state)));
     }
 
     /**
-     * Records additional {@code time} spent in {@code state}.
+     * Records additional {@code time} spent in the state at {@code stateIndex}.
      */
-    public void addTime(Object state, double time) {
-        addTime(state.toString(), time);
-    }
-
-    /**
-     * Records additional {@code time} spent in {@code state}.
-     */
-    public void addTime(String state, double time) {
-        stateTimeMap.compute(state, (k, v) -> (v != null) ? v + time : time);
+    public void addTime(int stateIndex, double time) {
+        stateTimes[stateIndex] += time;
         totalTime += time;
     }
 
     /**
-     * Records additional {@code time} spent in {@code state} at round {@code round}.
+     * Records additional {@code time} spent in the state at {@code stateIndex} at round {@code round}.
      * The round is equal to number of consecutive failures + 1.
      */
-    public void addRoundTime(int round, Object state, double time) {
-        addRoundTime(round, state.toString(), time);
+    public void addRoundTime(int round, int stateIndex, double time) {
+        getRoundStateTimes(round)[stateIndex] += time;
     }
 
     /**
-     * Records additional {@code time} spent in {@code state} at round {@code round}.
-     * The round is equal to number of consecutive failures + 1.
+     * Returns the time spent at each state in {@code round}, creating it if the round had not been reached.
      */
-    public void addRoundTime(int round, String state, double time) {
-        if (!roundStateTimeMap.containsKey(round)) {
-            Map<String, Double> roundStateMap = new LinkedHashMap<>();
-            for (String tempState : getStates()) {
-                roundStateMap.put(tempState, 0.0);
-            }
-            roundStateTimeMap.put(round, roundStateMap);
+    private double[] getRoundStateTimes(int round) {
+        if (round > roundStateTimes.length) {
+            roundStateTimes = Arrays.copyOf(roundStateTimes, Math.max(round, 2 * roundStateTimes.length));
         }
-        roundStateTimeMap.get(round).put(state, roundStateTimeMap.get(round).get(state) + time);
+        if (roundStateTimes[round - 1] == null) {
+            roundStateTimes[round - 1] = new double[states.length];
+        }
+        return roundStateTimes[round - 1];
     }
 
     public int getNodeCount() {
@@ -143,59 +162,178 @@ public class ConsensusStatistics extends Statistics {
 
     /**
      * Combines the two {@code ConsensusStatistics} into a singular run.
+     * Only the message types and states counted by {@code this} are kept in the message and round change counts.
      */
     public ConsensusStatistics combineStatistics(ConsensusStatistics otherStatistics) {
         int totalNodeCount = getNodeCount() + otherStatistics.getNodeCount();
         int newConsensusCount = Math.max(consensusCount, otherStatistics.getConsensusCount());
         double totalTime = getTotalTime() + otherStatistics.getTotalTime();
-        Map<String, Double> totalStateTimeMap = mergeTwoMaps(stateTimeMap, otherStatistics.stateTimeMap);
-        Map<Integer, Map<String, Double>> totalRoundStateTimeMap = new LinkedHashMap<>();
-        int highestRound = Math.max(
-                roundStateTimeMap.keySet().stream().max(Integer::compare).orElse(0),
-                otherStatistics.roundStateTimeMap.keySet().stream().max(Integer::compare).orElse(0));
-        for (int round = 1; round <= highestRound; round++) {
-            totalRoundStateTimeMap.put(round, mergeTwoMaps(roundStateTimeMap.get(round),
-                    otherStatistics.roundStateTimeMap.get(round)));
+        ConsensusStatistics combinedStatistics = new ConsensusStatistics(totalNodeCount, newConsensusCount, totalTime,
+                union(states, otherStatistics.states), union(messageTypes, otherStatistics.messageTypes));
+        combinedStatistics.addValues(this, true);
+        combinedStatistics.addValues(otherStatistics, false);
+        return combinedStatistics;
+    }
+
+    /**
+     * Adds the recorded values of {@code other}, whose states and message types must be contained in those of
+     * {@code this}. Counts of keys not yet counted by {@code this} are only added if {@code isAddingKeys} is true.
+     */
+    private void addValues(ConsensusStatistics other, boolean isAddingKeys) {
+        int[] stateIndices = indicesOf(states, other.states);
+        int[] messageTypeIndices = indicesOf(messageTypes, other.messageTypes);
+        for (int i = 0; i < other.states.length; i++) {
+            stateTimes[stateIndices[i]] += other.stateTimes[i];
+        }
+        for (int round = 1; round <= other.roundStateTimes.length; round++) {
+            double[] otherRoundStateTimes = other.roundStateTimes[round - 1];
+            if (otherRoundStateTimes != null) {
+                double[] currentRoundStateTimes = getRoundStateTimes(round);
+                for (int i = 0; i < other.states.length; i++) {
+                    currentRoundStateTimes[stateIndices[i]] += otherRoundStateTimes[i];
+                }
+            }
         }
-        Map<String, Integer> newMessageCountMap = new LinkedHashMap<>();
-        for (String state : messageCountMap.keySet()) {
-            newMessageCountMap.put(state, messageCountMap.getOrDefault(state, 0) +
-                    otherStatistics.messageCountMap.getOrDefault(state, 0));
+        messageCounts.addAll(other.messageCounts, messageTypeIndices, isAddingKeys);
+        messagesSent.addAll(other.messagesSent, messageTypeIndices, isAddingKeys);
+        roundChangeStateCounts.addAll(other.roundChangeStateCounts, stateIndices, isAddingKeys);
+        decisionLatencies = decisionLatencies.combine(other.decisionLatencies);
+    }
+
+    /**
+     * Writes the recorded values to {@code out} in a compact binary form readable by {@code readFrom}.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(nodeCount);
+        out.writeInt(consensusCount);
+        out.writeDouble(totalTime);
+        writeDoubleMap(out, getStateTimeMap(stateTimes));
+        Map<Integer, Map<String, Double>> roundStateTimeMap = getRoundStateTimeMap();
+        out.writeInt(roundStateTimeMap.size());
+        for (Map.Entry<Integer, Map<String, Double>> entry : roundStateTimeMap.entrySet()) {
+            out.writeInt(entry.getKey());
+            writeDoubleMap(out, entry.getValue());
+        }
+        writeIntegerMap(out, messageCounts.toMap(messageTypes));
+        writeIntegerMap(out, messagesSent.toMap(messageTypes));
+        writeIntegerMap(out, roundChangeStateCounts.toMap(states));
+        decisionLatencies.writeTo(out);
+    }
+
+    /**
+     * Reads a {@code ConsensusStatistics} written by {@code writeTo} from {@code in}.
+     */
+    public static ConsensusStatistics readFrom(DataInput in) throws IOException {
+        int nodeCount = in.readInt();
+        int consensusCount = in.readInt();
+        double totalTime = in.readDouble();
+        Map<String, Double> stateTimeMap = readDoubleMap(in);
+        Map<Integer, Map<String, Double>> roundStateTimeMap = new LinkedHashMap<>();
+        int numRounds = in.readInt();
+        for (int i = 0; i < numRounds; i++) {
+            int round = in.readInt();
+            roundStateTimeMap.put(round, readDoubleMap(in));
+        }
+        Map<String, Integer> messageCountMap = readIntegerMap(in);
+        Map<String, Integer> messageSentMap = readIntegerMap(in);
+        Map<String, Integer> roundChangeStateCountMap = readIntegerMap(in);
+
+        List<String> states = new ArrayList<>(stateTimeMap.keySet());
+        roundStateTimeMap.values().forEach(map -> addMissingKeys(states, map.keySet()));
+        addMissingKeys(states, roundChangeStateCountMap.keySet());
+        List<String> messageTypes = new ArrayList<>(messageCountMap.keySet());
+        addMissingKeys(messageTypes, messageSentMap.keySet());
+
+        ConsensusStatistics statistics = new ConsensusStatistics(nodeCount, consensusCount, totalTime,
+                states.toArray(String[]::new), messageTypes.toArray(String[]::new));
+        stateTimeMap.forEach((state, time) -> statistics.stateTimes[states.indexOf(state)] += time);
+        roundStateTimeMap.forEach((round, map) -> map.forEach((state, time) ->
+                statistics.addRoundTime(round, states.indexOf(state), time)));
+        messageCountMap.forEach((type, count) -> statistics.messageCounts.add(messageTypes.indexOf(type), count));
+        messageSentMap.forEach((type, count) -> statistics.messagesSent.add(messageTypes.indexOf(type), count));
+        roundChangeStateCountMap.forEach((state, count) ->
+                statistics.roundChangeStateCounts.add(states.indexOf(state), count));
+        statistics.decisionLatencies = LatencyHistogram.readFrom(in);
+        return statistics;
+    }
+
+    private static void addMissingKeys(List<String> keys, Collection<String> newKeys) {
+        for (String key : newKeys) {
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+    }
+
+    private static void writeDoubleMap(DataOutput out, Map<String, Double> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Double> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeDouble(entry.getValue());
+        }
+    }
+
+    private static Map<String, Double> readDoubleMap(DataInput in) throws IOException {
+        Map<String, Double> map = new LinkedHashMap<>();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            map.put(key, in.readDouble());
+        }
+        return map;
+    }
+
+    private static void writeIntegerMap(DataOutput out, Map<String, Integer> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
         }
-        Map<String, Integer> newMessageSentMap = new LinkedHashMap<>();
-        for (String state : messageSentMap.keySet()) {
-            newMessageSentMap.put(state, messageSentMap.getOrDefault(state, 0) +
-                    otherStatistics.messageSentMap.getOrDefault(state, 0));
+    }
+
+    private static Map<String, Integer> readIntegerMap(DataInput in) throws IOException {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            map.put(key, in.readInt());
         }
-        Map<String, Integer> newRoundChangeStateCountMap = new LinkedHashMap<>();
-        for (String state : roundChangeStateCountMap.keySet()) {
-            newRoundChangeStateCountMap.put(state, roundChangeStateCountMap.getOrDefault(state, 0) +
-                    otherStatistics.roundChangeStateCountMap.getOrDefault(state, 0));
+        return map;
+    }
+
+    /**
+     * Returns the keys of {@code keys1} followed by the keys of {@code keys2} not in {@code keys1}.
+     */
+    private static String[] union(String[] keys1, String[] keys2) {
+        if (Arrays.equals(keys1, keys2)) {
+            return keys1;
         }
-        return new ConsensusStatistics(totalNodeCount, newConsensusCount, totalTime,
-                totalStateTimeMap, totalRoundStateTimeMap, newMessageSentMap,
-                newMessageCountMap, newRoundChangeStateCountMap);
+        List<String> keys = new ArrayList<>(List.of(keys1));
+        addMissingKeys(keys, List.of(keys2));
+        return keys.toArray(String[]::new);
     }
 
     /**
-     * Combines {@code map1} and {@code map2}.
-     * Assumes that at least one of the maps are not null.
+     * Returns the index of {@code key} in {@code keys}, or -1 if it is absent.
      */
-    private Map<String, Double> mergeTwoMaps(Map<String, Double> map1, Map<String, Double> map2) {
-        if (map1 == null) {
-            return map2;
-        } else if (map2 == null) {
-            return map1;
+    private static int indexOf(String[] keys, String key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
         }
-        Map<String, Double> newMap = new LinkedHashMap<>();
-        Set<String> combinedKeySet = new LinkedHashSet<>(map1.keySet());
-        combinedKeySet.addAll(map2.keySet());
-        for (String state : combinedKeySet) {
-            double map1StateTime = map1.containsKey(state) ? map1.get(state) : 0;
-            double map2StateTime = map2.containsKey(state) ? map2.get(state) : 0;
-            newMap.put(state, map1StateTime + map2StateTime);
+        return -1;
+    }
+
+    /**
+     * Returns the index in {@code keys} of each of the {@code subKeys}.
+     */
+    private static int[] indicesOf(String[] keys, String[] subKeys) {
+        int[] indices = new int[subKeys.length];
+        for (int i = 0; i < subKeys.length; i++) {
+            indices[i] = indexOf(keys, subKeys[i]);
         }
-        return newMap;
+        return indices;
     }
 
     private double getTotalTime() {
@@ -210,13 +348,6 @@ public class ConsensusStatistics extends Statistics {
         return getTotalTime() / getNodeCount() / getConsensusCount();
     }
 
-    /**
-     * Returns the amount of time spent in {@code state} per consensus instance.
-     */
-    private double getNormalizedTimeForState(String state) {
-        return normalizeValue(stateTimeMap.get(state));
-    }
-
     /**
      * Returns the value per consensus instance (per node if it has been combined prior).
      */
@@ -224,13 +355,37 @@ public class ConsensusStatistics extends Statistics {
         return value / getNodeCount() / getConsensusCount();
     }
 
+    private Map<String, Double> getStateTimeMap(double[] times) {
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < states.length; i++) {
+            map.put(states[i], times[i]);
+        }
+        return map;
+    }
+
+    private Map<Integer, Map<String, Double>> getRoundStateTimeMap() {
+        Map<Integer, Map<String, Double>> map = new LinkedHashMap<>();
+        for (int round = 1; round <= roundStateTimes.length; round++) {
+            if (roundStateTimes[round - 1] != null) {
+                map.put(round, getStateTimeMap(roundStateTimes[round - 1]));
+            }
+        }
+        return map;
+    }
+
+    private Map<String, Double> normalizeMap(Map<String, ? extends Number> map) {
+        Map<String, Double> normalizedMap = new LinkedHashMap<>();
+        map.forEach((key, value) -> normalizedMap.put(key, normalizeValue(value.doubleValue())));
+        return normalizedMap;
+    }
+
     @Override
     public Map<String, Number> getSummaryStatistics() {
         Map<String, Number> results = new LinkedHashMap<>();
         results.put(KEY_NODE_COUNT, getNodeCount());
         results.put(KEY_CONSENSUS_COUNT, getConsensusCount());
-        for (String state : getStates()) {
-            results.put(String.format(KEY_STATE_AVERAGE_TIME, state), getNormalizedTimeForState(state));
+        for (int i = 0; i < states.length; i++) {
+            results.put(String.format(KEY_STATE_AVERAGE_TIME, states[i]), normalizeValue(stateTimes[i]));
         }
         results.put(KEY_AVERAGE_TIME_PER_CONSENSUS, getAverageConsensusTime());
         results.put(KEY_TOTAL_TIME, getTotalTime() / getNodeCount());
@@ -241,11 +396,7 @@ public class ConsensusStatistics extends Statistics {
      * Returns a map of time spent at each state per consensus instance.
      */
     public Map<String, Double> getNormalizedStateTimeMap() {
-        Map<String, Double> normalizedMap = new LinkedHashMap<>(stateTimeMap);
-        for (String state : stateTimeMap.keySet()) {
-            normalizedMap.put(state, getNormalizedTimeForState(state));
-        }
-        return normalizedMap;
+        return normalizeMap(getStateTimeMap(stateTimes));
     }
 
     /**
@@ -253,13 +404,7 @@ public class ConsensusStatistics extends Statistics {
      */
     public Map<Integer, Map<String, Double>> getNormalizedRoundStateTimeMap() {
         Map<Integer, Map<String, Double>> normalizedMap = new LinkedHashMap<>();
-        for (int round : roundStateTimeMap.keySet()) {
-            Map<String, Double> newMap = new LinkedHashMap<>(roundStateTimeMap.get(round));
-            for (String state : getStates()) {
-                newMap.put(state, normalizeValue(roundStateTimeMap.get(round).get(state)));
-            }
-            normalizedMap.put(round, newMap);
-        }
+        getRoundStateTimeMap().forEach((round, map) -> normalizedMap.put(round, normalizeMap(map)));
         return normalizedMap;
     }
 
@@ -267,29 +412,74 @@ public class ConsensusStatistics extends Statistics {
      * Returns a map of the number of messages of each type encountered per consensus instance.
      */
     public Map<String, Double> getNormalizedMessageCountMap() {
-        Map<String, Double> newMap = new LinkedHashMap<>();
-        for (String state : messageCountMap.keySet()) {
-            newMap.put(state, getNormalizedMessageCountForState(state));
-        }
-        return newMap;
+        return normalizeMap(messageCounts.toMap(messageTypes));
     }
 
     public Map<String, Double> getNormalizedMessageSentMap() {
-        Map<String, Double> newMap = new LinkedHashMap<>();
-        for (String state : messageSentMap.keySet()) {
-            newMap.put(state, getNormalizedMessageSentForState(state));
-        }
-        return newMap;
+        return normalizeMap(messagesSent.toMap(messageTypes));
     }
 
     /**
      * Returns a map of the number of times a round change occurs at each state.
      */
     public Map<String, Double> getNormalizedRoundChangeStateCountMap() {
-        Map<String, Double> newMap = new LinkedHashMap<>();
-        for (String state : roundChangeStateCountMap.keySet()) {
-            newMap.put(state, getNormalizedRoundChangeStateCount(state));
+        return normalizeMap(roundChangeStateCounts.toMap(states));
+    }
+
+    /**
+     * Counts of keys identified by their index, remembering the order in which keys were first counted.
+     */
+    private static class KeyCounts {
+
+        private final int[] counts;
+        private final boolean[] isCounted;
+        private final int[] keyOrder;
+        private int numCountedKeys;
+
+        private KeyCounts(int numKeys) {
+            this.counts = new int[numKeys];
+            this.isCounted = new boolean[numKeys];
+            this.keyOrder = new int[numKeys];
+        }
+
+        private void increment(int index) {
+            add(index, 1);
+        }
+
+        private void add(int index, int count) {
+            if (!isCounted[index]) {
+                isCounted[index] = true;
+                keyOrder[numCountedKeys++] = index;
+            }
+            counts[index] += count;
+        }
+
+        /**
+         * Returns the count of the key at {@code index}, or 0 if the key is not known.
+         */
+        private int get(int index) {
+            return index < 0 ? 0 : counts[index];
+        }
+
+        /**
+         * Adds the counts of {@code other}, where the key at index i in {@code other} is at {@code indices[i]}.
+         */
+        private void addAll(KeyCounts other, int[] indices, boolean isAddingKeys) {
+            for (int i = 0; i < other.numCountedKeys; i++) {
+                int otherIndex = other.keyOrder[i];
+                int index = indices[otherIndex];
+                if (isAddingKeys || isCounted[index]) {
+                    add(index, other.counts[otherIndex]);
+                }
+            }
+        }
+
+        private Map<String, Integer> toMap(String[] keys) {
+            Map<String, Integer> map = new LinkedHashMap<>();
+            for (int i = 0; i < numCountedKeys; i++) {
+                map.put(keys[keyOrder[i]], counts[keyOrder[i]]);
+            }
+            return map;
         }
-        return newMap;
     }
 }
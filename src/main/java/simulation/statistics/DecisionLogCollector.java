@@ -0,0 +1,121 @@
+package simulation.statistics;
+
+import simulation.io.DecisionLog;
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Node;
+import simulation.network.entity.Validator;
+import simulation.protocol.ConsensusProgram;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * {@code StatisticsCollector} that appends every consensus instance decided by every consensus program to a
+ * {@code DecisionLog}. All statistics are also passed on to a {@code delegate} collector, so the decision log can be
+ * collected alongside any other statistics.
+ *
+ * The number of messages sent for a decision is the number of messages the program sent since deciding the previous
+ * instance.
+ */
+public class DecisionLogCollector implements StatisticsCollector, Closeable {
+
+    private final StatisticsCollector delegate;
+    private final DecisionLog decisionLog;
+    private final Map<ConsensusProgram<?>, ProgramDecisions> programDecisionsMap;
+
+    /**
+     * @param delegate Collector that all statistics are also passed on to.
+     * @param path Path of the decision log.
+     */
+    public DecisionLogCollector(StatisticsCollector delegate, Path path) {
+        this.delegate = delegate;
+        this.decisionLog = new DecisionLog(path);
+        this.programDecisionsMap = new IdentityHashMap<>();
+    }
+
+    @Override
+    public void registerNode(Node<?> node, String group) {
+        delegate.registerNode(node, group);
+        if (node instanceof Validator) {
+            Validator<?> validator = (Validator<?>) node;
+            for (int i = 1; i <= validator.getNumConsensusPrograms(); i++) {
+                programDecisionsMap.put(validator.getConsensusProgram(i), new ProgramDecisions(i));
+            }
+        }
+    }
+
+    @Override
+    public void onMessageArrived(Node<?> node, double time) {
+        delegate.onMessageArrived(node, time);
+    }
+
+    @Override
+    public void onMessageProcessed(Node<?> node, double time, double waitingTime) {
+        delegate.onMessageProcessed(node, time, waitingTime);
+    }
+
+    @Override
+    public void onTimeElapsed(ConsensusProgram<?> program, double time) {
+        delegate.onTimeElapsed(program, time);
+    }
+
+    @Override
+    public void onMessageReceived(ConsensusProgram<?> program, BFTMessage message) {
+        delegate.onMessageReceived(program, message);
+    }
+
+    @Override
+    public void onMessageSent(ConsensusProgram<?> program, BFTMessage message) {
+        delegate.onMessageSent(program, message);
+        programDecisionsMap.get(program).numMessagesSent++;
+    }
+
+    @Override
+    public void onDecision(ConsensusProgram<?> program, double latency) {
+        delegate.onDecision(program, latency);
+    }
+
+    @Override
+    public void onInstanceDecided(ConsensusProgram<?> program, int validator, int consensusInstance, int view,
+            int numRounds, double time) {
+        delegate.onInstanceDecided(program, validator, consensusInstance, view, numRounds, time);
+        ProgramDecisions programDecisions = programDecisionsMap.get(program);
+        decisionLog.append(time, validator, programDecisions.programNumber, consensusInstance, view, numRounds,
+                programDecisions.numMessagesSent);
+        programDecisions.numMessagesSent = 0;
+    }
+
+    @Override
+    public void onViewChange(ConsensusProgram<?> program, boolean isTimeout) {
+        delegate.onViewChange(program, isTimeout);
+    }
+
+    @Override
+    public void onRoundChange(ConsensusProgram<?> program) {
+        delegate.onRoundChange(program);
+    }
+
+    /**
+     * Closes the decision log.
+     */
+    @Override
+    public void close() {
+        decisionLog.close();
+    }
+
+    /**
+     * Program number of a consensus program and the number of messages it sent since its previous decision.
+     */
+    private static class ProgramDecisions {
+
+        private final int programNumber;
+        private int numMessagesSent;
+
+        private ProgramDecisions(int programNumber) {
+            this.programNumber = programNumber;
+            this.numMessagesSent = 0;
+        }
+    }
+}
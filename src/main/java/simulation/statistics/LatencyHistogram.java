@@ -0,0 +1,206 @@
+package simulation.statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Histogram of positive latencies with logarithmically sized buckets.
+ *
+ * Each power of two is split into {@code NUM_SUB_BUCKETS} equally sized buckets, so a recorded value is known to
+ * within 1 / {@code NUM_SUB_BUCKETS} of itself regardless of its magnitude. Buckets are only kept for the range of
+ * powers of two recorded so far, which is bounded by {@code MIN_EXPONENT} and {@code MAX_EXPONENT}, so memory does not
+ * grow with the number of values recorded. Histograms can be combined without loss of precision.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int NUM_SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MANTISSA_BITS = 52;
+    /**
+     * Values below 2^{@code MIN_EXPONENT} and at or above 2^({@code MAX_EXPONENT} + 1) are recorded in the lowest
+     * and highest buckets respectively.
+     */
+    private static final int MIN_EXPONENT = -32;
+    private static final int MAX_EXPONENT = 63;
+
+    /**
+     * Counts of the buckets of the powers of two from 2^{@code lowestExponent} upwards.
+     */
+    private long[] counts;
+    private int lowestExponent;
+    private long totalCount;
+    private double minValue;
+    private double maxValue;
+
+    public LatencyHistogram() {
+        counts = new long[0];
+        lowestExponent = 0;
+        totalCount = 0;
+        minValue = Double.POSITIVE_INFINITY;
+        maxValue = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Records one occurrence of {@code value}.
+     * Values that are not positive are recorded in the lowest bucket.
+     */
+    public void record(double value) {
+        addToBucket(getExponent(value), getSubBucket(value), 1);
+        totalCount++;
+        minValue = Math.min(minValue, value);
+        maxValue = Math.max(maxValue, value);
+    }
+
+    private void addToBucket(int exponent, int subBucket, long count) {
+        ensureExponentRange(exponent);
+        counts[(exponent - lowestExponent) * NUM_SUB_BUCKETS + subBucket] += count;
+    }
+
+    /**
+     * Grows the buckets kept so that they include those of 2^{@code exponent}.
+     */
+    private void ensureExponentRange(int exponent) {
+        int numExponents = counts.length / NUM_SUB_BUCKETS;
+        if (numExponents == 0) {
+            counts = new long[NUM_SUB_BUCKETS];
+            lowestExponent = exponent;
+        } else if (exponent < lowestExponent) {
+            long[] newCounts = new long[(lowestExponent - exponent + numExponents) * NUM_SUB_BUCKETS];
+            System.arraycopy(counts, 0, newCounts, (lowestExponent - exponent) * NUM_SUB_BUCKETS, counts.length);
+            counts = newCounts;
+            lowestExponent = exponent;
+        } else if (exponent >= lowestExponent + numExponents) {
+            counts = Arrays.copyOf(counts, (exponent - lowestExponent + 1) * NUM_SUB_BUCKETS);
+        }
+    }
+
+    private static int getExponent(double value) {
+        if (!(value > 0)) {
+            return MIN_EXPONENT;
+        }
+        return Math.max(MIN_EXPONENT, Math.min(MAX_EXPONENT, Math.getExponent(value)));
+    }
+
+    /**
+     * Returns the bucket of {@code value} within its power of two, given by the leading bits of its mantissa.
+     */
+    private static int getSubBucket(double value) {
+        if (!(value >= Math.scalb(1.0, MIN_EXPONENT))) {
+            return 0;
+        } else if (value >= Math.scalb(2.0, MAX_EXPONENT)) {
+            return NUM_SUB_BUCKETS - 1;
+        }
+        return (int) (Double.doubleToRawLongBits(value) >>> (MANTISSA_BITS - SUB_BUCKET_BITS)) & (NUM_SUB_BUCKETS - 1);
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the value below which {@code percentile} percent of the recorded values fall, or NaN if no values
+     * have been recorded. The value is the midpoint of the bucket it falls in, bounded by the smallest and largest
+     * values recorded.
+     */
+    public double getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long cumulativeCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= rank) {
+                double midpoint = (getBucketLowerBound(i) + getBucketUpperBound(i)) / 2;
+                return Math.max(minValue, Math.min(maxValue, midpoint));
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Returns the number of buckets kept, which are numbered in increasing order of the values they contain.
+     */
+    public int getNumBuckets() {
+        return counts.length;
+    }
+
+    public long getBucketCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Returns the smallest value recorded in {@code bucket}, except for values below 2^{@code MIN_EXPONENT}.
+     */
+    public double getBucketLowerBound(int bucket) {
+        return Math.scalb(1 + (double) (bucket % NUM_SUB_BUCKETS) / NUM_SUB_BUCKETS,
+                lowestExponent + bucket / NUM_SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the value above all values recorded in {@code bucket}, except for values above 2^{@code MAX_EXPONENT}.
+     */
+    public double getBucketUpperBound(int bucket) {
+        return Math.scalb(1 + (double) (bucket % NUM_SUB_BUCKETS + 1) / NUM_SUB_BUCKETS,
+                lowestExponent + bucket / NUM_SUB_BUCKETS);
+    }
+
+    /**
+     * Returns a new {@code LatencyHistogram} containing the values of {@code this} and {@code other}.
+     */
+    public LatencyHistogram combine(LatencyHistogram other) {
+        LatencyHistogram combinedHistogram = new LatencyHistogram();
+        combinedHistogram.addAll(this);
+        combinedHistogram.addAll(other);
+        return combinedHistogram;
+    }
+
+    private void addAll(LatencyHistogram other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                addToBucket(other.lowestExponent + i / NUM_SUB_BUCKETS, i % NUM_SUB_BUCKETS, other.counts[i]);
+            }
+        }
+        totalCount += other.totalCount;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * Writes the histogram to {@code out} in a compact binary form readable by {@code readFrom}.
+     * Only the non-empty buckets are written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(totalCount);
+        out.writeDouble(minValue);
+        out.writeDouble(maxValue);
+        int numNonEmptyBuckets = (int) Arrays.stream(counts).filter(count -> count != 0).count();
+        out.writeInt(numNonEmptyBuckets);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                out.writeShort(lowestExponent + i / NUM_SUB_BUCKETS);
+                out.writeByte(i % NUM_SUB_BUCKETS);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a {@code LatencyHistogram} written by {@code writeTo} from {@code in}.
+     */
+    public static LatencyHistogram readFrom(DataInput in) throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.totalCount = in.readLong();
+        histogram.minValue = in.readDouble();
+        histogram.maxValue = in.readDouble();
+        int numNonEmptyBuckets = in.readInt();
+        for (int i = 0; i < numNonEmptyBuckets; i++) {
+            int exponent = in.readShort();
+            int subBucket = in.readByte();
+            histogram.addToBucket(exponent, subBucket, in.readLong());
+        }
+        return histogram;
+    }
+}
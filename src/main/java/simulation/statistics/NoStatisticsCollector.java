@@ -0,0 +1,67 @@
+package simulation.statistics;
+
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Node;
+import simulation.protocol.ConsensusProgram;
+
+/**
+ * {@code StatisticsCollector} implementation that does not record any statistics.
+ *
+ * Mainly used for runs where only the throughput of the simulator matters, such as warm-up runs. The statistics of
+ * such runs are left empty, so their averages are undefined.
+ */
+public class NoStatisticsCollector implements StatisticsCollector {
+
+    public static final String NAME = "none";
+
+    @Override
+    public void registerNode(Node<?> node, String group) {
+        // do nothing
+    }
+
+    @Override
+    public void onMessageArrived(Node<?> node, double time) {
+        // do nothing
+    }
+
+    @Override
+    public void onMessageProcessed(Node<?> node, double time, double waitingTime) {
+        // do nothing
+    }
+
+    @Override
+    public void onTimeElapsed(ConsensusProgram<?> program, double time) {
+        // do nothing
+    }
+
+    @Override
+    public void onMessageReceived(ConsensusProgram<?> program, BFTMessage message) {
+        // do nothing
+    }
+
+    @Override
+    public void onMessageSent(ConsensusProgram<?> program, BFTMessage message) {
+        // do nothing
+    }
+
+    @Override
+    public void onDecision(ConsensusProgram<?> program, double latency) {
+        // do nothing
+    }
+
+    @Override
+    public void onInstanceDecided(ConsensusProgram<?> program, int validator, int consensusInstance, int view,
+            int numRounds, double time) {
+        // do nothing
+    }
+
+    @Override
+    public void onViewChange(ConsensusProgram<?> program, boolean isTimeout) {
+        // do nothing
+    }
+
+    @Override
+    public void onRoundChange(ConsensusProgram<?> program) {
+        // do nothing
+    }
+}
@@ -0,0 +1,150 @@
+package simulation.statistics;
+
+import simulation.io.ColumnarTable;
+import simulation.network.entity.Node;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code StatisticsCollector} implementation that, in addition to the statistics recorded by the
+ * {@code AverageStatisticsCollector}, records the distributions of the queue length and waiting time of each
+ * individual validator and switch.
+ *
+ * The queue length distribution of a node is time-weighted: it holds the simulated time the node spent with each
+ * number of messages queued or being processed at it. The waiting time distribution holds the number of messages
+ * that waited (including being processed) for a time within each bucket of a {@code LatencyHistogram}.
+ *
+ * The queue length distribution is only complete once it includes the time from the last change in queue length to
+ * the end of the run, which is added when the distributions are written.
+ *
+ * The distributions are written with {@code write} to a columnar file with one row per (node, distribution, bucket)
+ * and the columns {@code node}, {@code group}, {@code distribution} ({@code DISTRIBUTION_QUEUE_LENGTH} or
+ * {@code DISTRIBUTION_WAITING_TIME}), {@code lowerBound}, {@code upperBound} and {@code value}. Empty buckets are
+ * omitted.
+ */
+public class NodeDistributionCollector extends AverageStatisticsCollector {
+
+    public static final String NAME = "nodeDistributions";
+    public static final String DISTRIBUTION_QUEUE_LENGTH = "queueLength";
+    public static final String DISTRIBUTION_WAITING_TIME = "waitingTime";
+
+    private final Map<Node<?>, NodeDistributions> nodeDistributionsMap;
+    private final List<NodeDistributions> nodeDistributionsList;
+
+    public NodeDistributionCollector() {
+        this.nodeDistributionsMap = new IdentityHashMap<>();
+        this.nodeDistributionsList = new ArrayList<>();
+    }
+
+    @Override
+    public void registerNode(Node<?> node, String group) {
+        NodeDistributions nodeDistributions = new NodeDistributions(node.getName(), group);
+        nodeDistributionsMap.put(node, nodeDistributions);
+        nodeDistributionsList.add(nodeDistributions);
+    }
+
+    @Override
+    public void onMessageArrived(Node<?> node, double time) {
+        super.onMessageArrived(node, time);
+        NodeDistributions nodeDistributions = nodeDistributionsMap.get(node);
+        nodeDistributions.recordQueueLengthChange(time, 1);
+    }
+
+    @Override
+    public void onMessageProcessed(Node<?> node, double time, double waitingTime) {
+        super.onMessageProcessed(node, time, waitingTime);
+        NodeDistributions nodeDistributions = nodeDistributionsMap.get(node);
+        nodeDistributions.recordQueueLengthChange(time, -1);
+        nodeDistributions.waitingTimes.record(waitingTime);
+    }
+
+    /**
+     * Writes the distributions of all registered nodes in a run that ended at {@code endTime} to the columnar file at
+     * {@code path}.
+     */
+    public void write(Path path, double endTime) {
+        ColumnarTable table = new ColumnarTable();
+        ColumnarTable.StringColumn nodeColumn = table.addStringColumn("node");
+        ColumnarTable.StringColumn groupColumn = table.addStringColumn("group");
+        ColumnarTable.StringColumn distributionColumn = table.addStringColumn("distribution");
+        ColumnarTable.DoubleColumn lowerBoundColumn = table.addDoubleColumn("lowerBound");
+        ColumnarTable.DoubleColumn upperBoundColumn = table.addDoubleColumn("upperBound");
+        ColumnarTable.DoubleColumn valueColumn = table.addDoubleColumn("value");
+        for (NodeDistributions nodeDistributions : nodeDistributionsList) {
+            double[] queueLengthTimes = nodeDistributions.getQueueLengthTimes(endTime);
+            for (int queueLength = 0; queueLength < queueLengthTimes.length; queueLength++) {
+                if (queueLengthTimes[queueLength] > 0) {
+                    nodeColumn.add(nodeDistributions.name);
+                    groupColumn.add(nodeDistributions.group);
+                    distributionColumn.add(DISTRIBUTION_QUEUE_LENGTH);
+                    lowerBoundColumn.add(queueLength);
+                    upperBoundColumn.add(queueLength + 1);
+                    valueColumn.add(queueLengthTimes[queueLength]);
+                }
+            }
+            LatencyHistogram waitingTimes = nodeDistributions.waitingTimes;
+            for (int bucket = 0; bucket < waitingTimes.getNumBuckets(); bucket++) {
+                if (waitingTimes.getBucketCount(bucket) > 0) {
+                    nodeColumn.add(nodeDistributions.name);
+                    groupColumn.add(nodeDistributions.group);
+                    distributionColumn.add(DISTRIBUTION_WAITING_TIME);
+                    lowerBoundColumn.add(waitingTimes.getBucketLowerBound(bucket));
+                    upperBoundColumn.add(waitingTimes.getBucketUpperBound(bucket));
+                    valueColumn.add(waitingTimes.getBucketCount(bucket));
+                }
+            }
+        }
+        table.write(path);
+    }
+
+    /**
+     * Distributions of a single node.
+     */
+    private static class NodeDistributions {
+
+        private static final int INITIAL_MAX_QUEUE_LENGTH = 8;
+
+        private final String name;
+        private final String group;
+        private final LatencyHistogram waitingTimes;
+        /**
+         * Simulated time spent with each number of messages at the node, indexed by the number of messages.
+         */
+        private double[] queueLengthTimes;
+        private int queueLength;
+        private double previousQueueChangedTime;
+
+        private NodeDistributions(String name, String group) {
+            this.name = name;
+            this.group = group;
+            this.waitingTimes = new LatencyHistogram();
+            this.queueLengthTimes = new double[INITIAL_MAX_QUEUE_LENGTH];
+        }
+
+        /**
+         * Returns the simulated time spent with each number of messages at the node up to {@code endTime}.
+         */
+        private double[] getQueueLengthTimes(double endTime) {
+            double[] times = Arrays.copyOf(queueLengthTimes, queueLengthTimes.length);
+            times[queueLength] += endTime - previousQueueChangedTime;
+            return times;
+        }
+
+        /**
+         * Records the number of messages at the node changing by {@code change} at {@code time}.
+         */
+        private void recordQueueLengthChange(double time, int change) {
+            queueLengthTimes[queueLength] += time - previousQueueChangedTime;
+            previousQueueChangedTime = time;
+            queueLength += change;
+            if (queueLength >= queueLengthTimes.length) {
+                queueLengthTimes = Arrays.copyOf(queueLengthTimes, 2 * queueLengthTimes.length);
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package simulation.statistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -98,6 +101,34 @@ public class QueueStatistics extends Statistics {
                 totalMessageCount, currentMessageCount, totalMessageQueueTime, lastRecordedTime, totalQueueingTime);
     }
 
+    /**
+     * Writes the recorded values to {@code out} in a compact binary form readable by {@code readFrom}.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(totalMessageCount);
+        out.writeInt(currentMessageCount);
+        out.writeDouble(totalMessageQueueTime);
+        out.writeDouble(totalTimeEmpty);
+        out.writeDouble(lastRecordedTime);
+        out.writeDouble(totalQueueingTime);
+        out.writeInt(numNodes);
+    }
+
+    /**
+     * Reads a {@code QueueStatistics} written by {@code writeTo} from {@code in}.
+     */
+    public static QueueStatistics readFrom(DataInput in) throws IOException {
+        long totalMessageCount = in.readLong();
+        int currentMessageCount = in.readInt();
+        double totalMessageQueueTime = in.readDouble();
+        double totalTimeEmpty = in.readDouble();
+        double totalTime = in.readDouble();
+        double totalQueueingTime = in.readDouble();
+        int numNodes = in.readInt();
+        return new QueueStatistics(totalMessageCount, currentMessageCount, totalMessageQueueTime, totalTimeEmpty,
+                totalTime, totalQueueingTime, numNodes);
+    }
+
     public QueueStatistics combineStatistics(QueueStatistics other) {
         return new QueueStatistics(
                 this.totalMessageCount + other.totalMessageCount,
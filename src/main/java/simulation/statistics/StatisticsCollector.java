@@ -0,0 +1,70 @@
+package simulation.statistics;
+
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Node;
+import simulation.protocol.ConsensusProgram;
+
+/**
+ * Collects the queue statistics of nodes and the consensus statistics of consensus programs during a simulation run.
+ *
+ * Nodes and consensus programs report the changes to their queues and states to the collector of their run, which
+ * decides what, if anything, is recorded. A collector is chosen per run, either by name in the run configuration or
+ * programmatically through the {@code SimulationEngine.Builder}.
+ */
+public interface StatisticsCollector {
+
+    /**
+     * Registers {@code node} as one of the nodes reporting to the collector, belonging to the group of nodes named
+     * {@code group}. Called for every node before the simulation starts.
+     */
+    void registerNode(Node<?> node, String group);
+
+    /**
+     * Records a message arriving at the queue of {@code node} at {@code time}.
+     */
+    void onMessageArrived(Node<?> node, double time);
+
+    /**
+     * Records a message leaving the queue of {@code node} at {@code time} after waiting in it for
+     * {@code waitingTime}.
+     */
+    void onMessageProcessed(Node<?> node, double time, double waitingTime);
+
+    /**
+     * Records {@code time} elapsing in the current state and round of {@code program}.
+     */
+    void onTimeElapsed(ConsensusProgram<?> program, double time);
+
+    /**
+     * Records {@code program} receiving {@code message}.
+     */
+    void onMessageReceived(ConsensusProgram<?> program, BFTMessage message);
+
+    /**
+     * Records {@code program} sending {@code message}.
+     */
+    void onMessageSent(ConsensusProgram<?> program, BFTMessage message);
+
+    /**
+     * Records {@code program} deciding a consensus instance {@code latency} after deciding the previous one.
+     */
+    void onDecision(ConsensusProgram<?> program, double latency);
+
+    /**
+     * Records {@code program} of {@code validator} deciding on {@code consensusInstance} in {@code view} at
+     * {@code time}, after taking {@code numRounds} rounds or views since deciding the previous instance.
+     */
+    void onInstanceDecided(ConsensusProgram<?> program, int validator, int consensusInstance, int view,
+            int numRounds, double time);
+
+    /**
+     * Records {@code program} moving to a new view or round, either as it timed out or as the rest of the
+     * validators moved on.
+     */
+    void onViewChange(ConsensusProgram<?> program, boolean isTimeout);
+
+    /**
+     * Records {@code program} timing out in its current state, causing a round change.
+     */
+    void onRoundChange(ConsensusProgram<?> program);
+}
@@ -0,0 +1,226 @@
+package simulation.statistics;
+
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Node;
+import simulation.network.router.Switch;
+import simulation.protocol.ConsensusProgram;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@code StatisticsCollector} that streams a time-series of the throughput and latency of a run, split into windows
+ * of simulated time of a fixed width, to a csv file. All statistics are also passed on to a {@code delegate}
+ * collector, so the time-series can be collected alongside any other statistics.
+ *
+ * Each window holds the number of decisions, their mean and 99th percentile latency, the number of timeouts and view
+ * changes, the average number of messages in flight (queued or being processed at switches) and the average fraction
+ * of switches that are busy. Windows are written as soon as the simulation moves past them, so only the current window
+ * is kept in memory. As decisions, timeouts and view changes are reported when their message or timer is processed,
+ * they are counted in the window that is open at that point. The latencies of windows without decisions, and the
+ * switch utilisation of runs without switches, are left empty.
+ */
+public class TimeSeriesCollector implements StatisticsCollector, Closeable {
+
+    public static final double DEFAULT_WINDOW_WIDTH = 10;
+    private static final String HEADER = "windowStart,windowEnd,numDecisions,meanDecisionLatency,"
+            + "p99DecisionLatency,numTimeouts,numViewChanges,messagesInFlight,switchUtilisation";
+    private static final int INITIAL_NUM_SWITCHES = 16;
+
+    private final StatisticsCollector delegate;
+    private final Path path;
+    private final BufferedWriter writer;
+    private final double windowWidth;
+    private final Map<Node<?>, Integer> switchIndexMap;
+    /**
+     * Number of messages queued or being processed at each switch, indexed by the index of the switch.
+     */
+    private int[] switchQueueLengths;
+    private int numMessagesAtSwitches;
+    private int numBusySwitches;
+    private double previousChangeTime;
+
+    private double windowStart;
+    private double messageTime;
+    private double busySwitchTime;
+    private int numDecisions;
+    private double totalDecisionLatency;
+    private LatencyHistogram decisionLatencies;
+    private int numTimeouts;
+    private int numViewChanges;
+
+    /**
+     * @param delegate Collector that all statistics are also passed on to.
+     * @param path Path of the csv file the windows are written to.
+     * @param windowWidth Simulated time covered by each window.
+     */
+    public TimeSeriesCollector(StatisticsCollector delegate, Path path, double windowWidth) {
+        if (!(windowWidth > 0)) {
+            throw new IllegalArgumentException("Time-series window width must be positive: " + windowWidth);
+        }
+        this.delegate = delegate;
+        this.path = path;
+        this.windowWidth = windowWidth;
+        this.switchIndexMap = new IdentityHashMap<>();
+        this.switchQueueLengths = new int[INITIAL_NUM_SWITCHES];
+        this.decisionLatencies = new LatencyHistogram();
+        try {
+            this.writer = Files.newBufferedWriter(path);
+            writer.write(HEADER);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create time-series file " + path + ".\n" + e);
+        }
+    }
+
+    @Override
+    public void registerNode(Node<?> node, String group) {
+        delegate.registerNode(node, group);
+        if (node instanceof Switch) {
+            if (switchIndexMap.size() == switchQueueLengths.length) {
+                switchQueueLengths = Arrays.copyOf(switchQueueLengths, 2 * switchQueueLengths.length);
+            }
+            switchIndexMap.put(node, switchIndexMap.size());
+        }
+    }
+
+    @Override
+    public void onMessageArrived(Node<?> node, double time) {
+        delegate.onMessageArrived(node, time);
+        advanceTo(time);
+        Integer switchIndex = switchIndexMap.get(node);
+        if (switchIndex != null) {
+            if (switchQueueLengths[switchIndex]++ == 0) {
+                numBusySwitches++;
+            }
+            numMessagesAtSwitches++;
+        }
+    }
+
+    @Override
+    public void onMessageProcessed(Node<?> node, double time, double waitingTime) {
+        delegate.onMessageProcessed(node, time, waitingTime);
+        advanceTo(time);
+        Integer switchIndex = switchIndexMap.get(node);
+        if (switchIndex != null) {
+            if (--switchQueueLengths[switchIndex] == 0) {
+                numBusySwitches--;
+            }
+            numMessagesAtSwitches--;
+        }
+    }
+
+    @Override
+    public void onTimeElapsed(ConsensusProgram<?> program, double time) {
+        delegate.onTimeElapsed(program, time);
+    }
+
+    @Override
+    public void onMessageReceived(ConsensusProgram<?> program, BFTMessage message) {
+        delegate.onMessageReceived(program, message);
+    }
+
+    @Override
+    public void onMessageSent(ConsensusProgram<?> program, BFTMessage message) {
+        delegate.onMessageSent(program, message);
+    }
+
+    @Override
+    public void onDecision(ConsensusProgram<?> program, double latency) {
+        delegate.onDecision(program, latency);
+        numDecisions++;
+        totalDecisionLatency += latency;
+        decisionLatencies.record(latency);
+    }
+
+    @Override
+    public void onInstanceDecided(ConsensusProgram<?> program, int validator, int consensusInstance, int view,
+            int numRounds, double time) {
+        delegate.onInstanceDecided(program, validator, consensusInstance, view, numRounds, time);
+    }
+
+    @Override
+    public void onViewChange(ConsensusProgram<?> program, boolean isTimeout) {
+        delegate.onViewChange(program, isTimeout);
+        numViewChanges++;
+    }
+
+    @Override
+    public void onRoundChange(ConsensusProgram<?> program) {
+        delegate.onRoundChange(program);
+        numTimeouts++;
+    }
+
+    /**
+     * Writes the windows that end at or before {@code time} and accumulates the time-weighted values up to it.
+     */
+    private void advanceTo(double time) {
+        while (time >= windowStart + windowWidth) {
+            accumulateTo(windowStart + windowWidth);
+            writeWindow(windowStart + windowWidth);
+        }
+        accumulateTo(time);
+    }
+
+    private void accumulateTo(double time) {
+        double timeElapsed = time - previousChangeTime;
+        messageTime += numMessagesAtSwitches * timeElapsed;
+        busySwitchTime += numBusySwitches * timeElapsed;
+        previousChangeTime = time;
+    }
+
+    /**
+     * Writes the current window as ending at {@code windowEnd} and starts the next window from it.
+     */
+    private void writeWindow(double windowEnd) {
+        double duration = windowEnd - windowStart;
+        try {
+            writer.write(String.format(Locale.ROOT, "%.3f,%.3f,%d,%s,%s,%d,%d,%.3f,%s", windowStart, windowEnd,
+                    numDecisions, formatIfDefined("%.3f", numDecisions, totalDecisionLatency / numDecisions),
+                    formatIfDefined("%.3f", numDecisions, decisionLatencies.getPercentile(99)), numTimeouts,
+                    numViewChanges, messageTime / duration, formatIfDefined("%.4f", switchIndexMap.size(),
+                            busySwitchTime / duration / switchIndexMap.size())));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write to time-series file " + path + ".\n" + e);
+        }
+        windowStart = windowEnd;
+        messageTime = 0;
+        busySwitchTime = 0;
+        numDecisions = 0;
+        totalDecisionLatency = 0;
+        decisionLatencies = new LatencyHistogram();
+        numTimeouts = 0;
+        numViewChanges = 0;
+    }
+
+    /**
+     * Returns {@code value} formatted with {@code format}, or an empty field if it is averaged over a
+     * {@code count} of zero.
+     */
+    private static String formatIfDefined(String format, int count, double value) {
+        return count == 0 ? "" : String.format(Locale.ROOT, format, value);
+    }
+
+    /**
+     * Writes the last, partial window up to the last change in the simulation and closes the time-series file.
+     */
+    @Override
+    public void close() {
+        if (previousChangeTime > windowStart) {
+            writeWindow(previousChangeTime);
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close time-series file " + path + ".\n" + e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package simulation.trace;
+
+import simulation.event.NodeEvent;
+import simulation.event.ProcessedPayloadEvent;
+import simulation.event.ProcessingDelayEvent;
+import simulation.event.QueueEvent;
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Payload;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the delivery times of the messages between the validators of a run to a delivery file, read by
+ * {@code MessageTimings} to replay the run without decoding the switch records of its trace.
+ *
+ * The file starts with a header of the int magic {@code MAGIC}, the int {@code VERSION}, the number of validators, the
+ * names of the message types of the run, the simulated time of the last event of the run and the long number of events
+ * of the run. It is followed by the
+ * messages sent by each validator in turn, which are the int number of messages sent by the validator followed by a
+ * record per message in the order they were sent.
+ *
+ * Each record is the int recipient, program id, message type and view or round of the message, the long sequence
+ * number of the event at which its recipient started processing it (counting every event of the run from 0) and the
+ * double simulated times at which it was sent, at which its processing started and at which its processing ends. The
+ * times of the processing are NaN if it did not start before the run ended.
+ */
+class DeliveryRecorder {
+
+    static final int MAGIC = 0x42544431; // "BTD1"
+    static final int VERSION = 1;
+    static final int RECORD_SIZE = 4 * Integer.BYTES + Long.BYTES + 3 * Double.BYTES;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Path path;
+    private final Map<Payload<?>, Integer> unprocessedIndexMap;
+    private int numValidators;
+    private Collection<String> messageTypes;
+    private SentMessages[] sentMessages;
+    private long numEvents;
+    private double endTime;
+
+    DeliveryRecorder(Path path) {
+        this.path = path;
+        this.unprocessedIndexMap = new IdentityHashMap<>();
+        this.numEvents = 0;
+        this.endTime = 0;
+    }
+
+    /**
+     * Registers the {@code numValidators} validators of the run, which are the nodes with the lowest indices and whose
+     * messages have the types {@code messageTypes}. Must be called once before any event is recorded.
+     */
+    void registerValidators(int numValidators, Collection<String> messageTypes) {
+        this.numValidators = numValidators;
+        this.messageTypes = messageTypes;
+        this.sentMessages = new SentMessages[numValidators];
+        for (int i = 0; i < numValidators; i++) {
+            sentMessages[i] = new SentMessages();
+        }
+    }
+
+    /**
+     * Records the messages sent and processed in {@code event} at the node with index {@code node}, which has just
+     * been simulated and resulted in {@code resultingEvents}. The end of the processing of a message is taken from
+     * the resulting events, as the run may end before the processing does.
+     * Must be called once for every event of the run, in order.
+     */
+    void recordEvent(NodeEvent<?> event, int node, List<? extends NodeEvent<?>> resultingEvents) {
+        long sequence = numEvents++;
+        endTime = event.getTime();
+        if (node >= numValidators) {
+            return; // switches only forward messages
+        }
+        if (event instanceof QueueEvent) {
+            for (Payload<?> payload : ((QueueEvent<?>) event).getPayloads()) {
+                BFTMessage message = (BFTMessage) payload.getMessage();
+                SentMessages senderMessages = sentMessages[message.getSenderId()];
+                unprocessedIndexMap.put(payload, senderMessages.size);
+                senderMessages.add(message, payload.getProgramId(), event.getTime());
+            }
+        } else if (event instanceof ProcessingDelayEvent) {
+            Payload<?> payload = ((ProcessingDelayEvent<?>) event).getPayload();
+            Integer index = unprocessedIndexMap.remove(payload);
+            if (index == null) {
+                return;
+            }
+            SentMessages senderMessages = sentMessages[((BFTMessage) payload.getMessage()).getSenderId()];
+            senderMessages.sequences[index] = sequence;
+            senderMessages.startTimes[index] = event.getTime();
+            for (NodeEvent<?> resultingEvent : resultingEvents) {
+                if (resultingEvent instanceof ProcessedPayloadEvent) {
+                    senderMessages.endTimes[index] = resultingEvent.getTime();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the recorded deliveries to the delivery file.
+     */
+    void write() {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numValidators);
+            out.writeInt(messageTypes.size());
+            for (String messageType : messageTypes) {
+                out.writeUTF(messageType);
+            }
+            out.writeDouble(endTime);
+            out.writeLong(numEvents);
+            for (SentMessages senderMessages : sentMessages) {
+                senderMessages.writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write delivery file " + path + ".\n" + e);
+        }
+    }
+
+    /**
+     * Messages sent by a validator, in the order they were sent.
+     */
+    private static class SentMessages {
+
+        private int size;
+        private int[] recipients;
+        private int[] programIds;
+        private int[] messageTypes;
+        private int[] viewOrRounds;
+        private long[] sequences;
+        private double[] sendTimes;
+        private double[] startTimes;
+        private double[] endTimes;
+
+        private SentMessages() {
+            this.size = 0;
+            this.recipients = new int[INITIAL_CAPACITY];
+            this.programIds = new int[INITIAL_CAPACITY];
+            this.messageTypes = new int[INITIAL_CAPACITY];
+            this.viewOrRounds = new int[INITIAL_CAPACITY];
+            this.sequences = new long[INITIAL_CAPACITY];
+            this.sendTimes = new double[INITIAL_CAPACITY];
+            this.startTimes = new double[INITIAL_CAPACITY];
+            this.endTimes = new double[INITIAL_CAPACITY];
+        }
+
+        private void add(BFTMessage message, int programId, double sendTime) {
+            if (size == recipients.length) {
+                int capacity = 2 * size;
+                recipients = Arrays.copyOf(recipients, capacity);
+                programIds = Arrays.copyOf(programIds, capacity);
+                messageTypes = Arrays.copyOf(messageTypes, capacity);
+                viewOrRounds = Arrays.copyOf(viewOrRounds, capacity);
+                sequences = Arrays.copyOf(sequences, capacity);
+                sendTimes = Arrays.copyOf(sendTimes, capacity);
+                startTimes = Arrays.copyOf(startTimes, capacity);
+                endTimes = Arrays.copyOf(endTimes, capacity);
+            }
+            recipients[size] = message.getRecipientId();
+            programIds[size] = programId;
+            messageTypes[size] = message.getTypeIndex();
+            viewOrRounds[size] = message.getViewOrRound();
+            sequences[size] = -1;
+            sendTimes[size] = sendTime;
+            startTimes[size] = Double.NaN;
+            endTimes[size] = Double.NaN;
+            size++;
+        }
+
+        private void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(recipients[i]);
+                out.writeInt(programIds[i]);
+                out.writeInt(messageTypes[i]);
+                out.writeInt(viewOrRounds[i]);
+                out.writeLong(sequences[i]);
+                out.writeDouble(sendTimes[i]);
+                out.writeDouble(startTimes[i]);
+                out.writeDouble(endTimes[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package simulation.trace;
+
+import simulation.event.NodeEvent;
+import simulation.event.ProcessingDelayEvent;
+import simulation.event.QueueEvent;
+import simulation.json.input.TraceFilterJson;
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Node;
+import simulation.network.entity.Payload;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Selects the events of a run that are output and traced according to a {@code TraceFilterJson}, so that events that
+ * are not selected are never formatted or recorded.
+ *
+ * The message criteria of an event queueing several payloads are satisfied if any of its payloads satisfies them.
+ * The events satisfying the criteria are sampled separately for the text output, which only holds the events of
+ * validators, and for traces, so that each keeps one in every {@code sampleInterval} of the events it would hold.
+ */
+public class EventFilter {
+
+    private final Set<Node<?>> nodes;
+    private final Set<TraceEventType> eventTypes;
+    private final boolean[] messageTypes;
+    private final boolean hasMessageCriteria;
+    private final int minViewOrRound;
+    private final int maxViewOrRound;
+    private final double startTime;
+    private final double endTime;
+    private final int sampleInterval;
+    private long numOutputMatches;
+    private long numTraceMatches;
+
+    private EventFilter(Set<Node<?>> nodes, Set<TraceEventType> eventTypes, boolean[] messageTypes,
+            boolean hasMessageCriteria, int minViewOrRound, int maxViewOrRound, double startTime, double endTime,
+            int sampleInterval) {
+        this.nodes = nodes;
+        this.eventTypes = eventTypes;
+        this.messageTypes = messageTypes;
+        this.hasMessageCriteria = hasMessageCriteria;
+        this.minViewOrRound = minViewOrRound;
+        this.maxViewOrRound = maxViewOrRound;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.sampleInterval = sampleInterval;
+        this.numOutputMatches = 0;
+        this.numTraceMatches = 0;
+    }
+
+    /**
+     * Creates the filter described by {@code json} for a run of {@code validators} and {@code switches}, whose
+     * messages have the types {@code messageTypes}.
+     */
+    public static EventFilter create(TraceFilterJson json, List<? extends Node<?>> validators,
+            List<? extends List<? extends Node<?>>> switches, Collection<String> messageTypes) {
+        Set<Node<?>> nodes = null;
+        if (json.getNodes() != null) {
+            List<Node<?>> allNodes = new ArrayList<>(validators);
+            switches.forEach(allNodes::addAll);
+            nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (String nodeName : json.getNodes()) {
+                nodes.add(findNode(allNodes, nodeName));
+            }
+        }
+
+        Set<TraceEventType> eventTypes = null;
+        if (json.getEventTypes() != null) {
+            eventTypes = EnumSet.noneOf(TraceEventType.class);
+            for (String eventType : json.getEventTypes()) {
+                try {
+                    eventTypes.add(TraceEventType.valueOf(eventType.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new RuntimeException(String.format("%s is an unrecognised event type.", eventType));
+                }
+            }
+        }
+
+        boolean[] selectedMessageTypes = null;
+        if (json.getMessageTypes() != null) {
+            List<String> messageTypeList = new ArrayList<>(messageTypes);
+            selectedMessageTypes = new boolean[messageTypeList.size()];
+            for (String messageType : json.getMessageTypes()) {
+                int index = 0;
+                while (index < messageTypeList.size() && !messageTypeList.get(index).equalsIgnoreCase(messageType)) {
+                    index++;
+                }
+                if (index == messageTypeList.size()) {
+                    throw new RuntimeException(String.format("%s is not one of the message types %s.", messageType,
+                            messageTypeList));
+                }
+                selectedMessageTypes[index] = true;
+            }
+        }
+
+        boolean hasMessageCriteria = selectedMessageTypes != null || json.getMinViewOrRound() != null
+                || json.getMaxViewOrRound() != null;
+        return new EventFilter(nodes, eventTypes, selectedMessageTypes, hasMessageCriteria,
+                json.getMinViewOrRound() == null ? Integer.MIN_VALUE : json.getMinViewOrRound(),
+                json.getMaxViewOrRound() == null ? Integer.MAX_VALUE : json.getMaxViewOrRound(),
+                json.getStartTime() == null ? Double.NEGATIVE_INFINITY : json.getStartTime(),
+                json.getEndTime() == null ? Double.POSITIVE_INFINITY : json.getEndTime(),
+                json.getSampleInterval());
+    }
+
+    /**
+     * Returns the node of {@code allNodes} named {@code nodeName} or at the index {@code nodeName}.
+     */
+    private static Node<?> findNode(List<Node<?>> allNodes, String nodeName) {
+        for (Node<?> node : allNodes) {
+            if (node.getName().equals(nodeName)) {
+                return node;
+            }
+        }
+        try {
+            return allNodes.get(Integer.parseInt(nodeName));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new RuntimeException(String.format("%s is not the name or index of a node of the run.", nodeName));
+        }
+    }
+
+    /**
+     * Returns true if {@code event} satisfies the criteria of the filter.
+     */
+    public boolean matches(NodeEvent<?> event) {
+        if (event.getTime() < startTime || event.getTime() > endTime) {
+            return false;
+        } else if (nodes != null && !nodes.contains(event.getNode())) {
+            return false;
+        } else if (eventTypes != null && !eventTypes.contains(TraceEventType.of(event))) {
+            return false;
+        }
+        return !hasMessageCriteria || hasSelectedMessage(event);
+    }
+
+    /**
+     * Returns true if the next event satisfying the criteria that would be output as text is kept in the sample.
+     * Must be called once for every such event, in order.
+     */
+    public boolean sampleOutput() {
+        return numOutputMatches++ % sampleInterval == 0;
+    }
+
+    /**
+     * Returns true if the next event satisfying the criteria that would be traced is kept in the sample.
+     * Must be called once for every such event, in order.
+     */
+    public boolean sampleTrace() {
+        return numTraceMatches++ % sampleInterval == 0;
+    }
+
+    private boolean hasSelectedMessage(NodeEvent<?> event) {
+        if (event instanceof QueueEvent) {
+            for (Payload<?> payload : ((QueueEvent<?>) event).getPayloads()) {
+                if (isSelected(payload)) {
+                    return true;
+                }
+            }
+            return false;
+        } else if (event instanceof ProcessingDelayEvent) {
+            return isSelected(((ProcessingDelayEvent<?>) event).getPayload());
+        }
+        return false;
+    }
+
+    private boolean isSelected(Payload<?> payload) {
+        BFTMessage message = (BFTMessage) payload.getMessage();
+        return (messageTypes == null || messageTypes[message.getTypeIndex()])
+                && message.getViewOrRound() >= minViewOrRound && message.getViewOrRound() <= maxViewOrRound;
+    }
+}
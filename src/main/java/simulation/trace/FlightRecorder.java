@@ -0,0 +1,230 @@
+package simulation.trace;
+
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Node;
+import simulation.network.entity.Payload;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Records the flights of a random sample of the payloads sent by validators through the network, hop by hop.
+ *
+ * Payloads are sampled with a generator of their own, so sampling does not change the results of a run. Each
+ * delivered flight is written to the flight file, which starts with a header of the int magic {@code MAGIC}, the int
+ * {@code VERSION}, the number of validators, the names of all nodes (validators first, then switches) and the names
+ * of the message types of the run. It is followed by one record per flight of the int program id, message type,
+ * sender and recipient, the double time the payload was queued at its first hop, the short number of hops and, for
+ * each hop, the int index of its node and the float queueing delay and service time of the payload at the node.
+ *
+ * On closing, the mean latency, queueing delay and service time of the delivered flights by number of hops and of
+ * their hops by switch group (with the last hop at the recipient as the validators group) are written to the summary
+ * csv file, after a comment line of the numbers of flights sampled and not delivered.
+ */
+public class FlightRecorder implements Closeable {
+
+    public static final int MAGIC = 0x42464c31; // "BFL1"
+    public static final int VERSION = 1;
+    public static final double DEFAULT_SAMPLE_RATE = 0.01;
+    private static final String SUMMARY_COUNTS = "# sampled=%d,undelivered=%d";
+    private static final String SUMMARY_HEADER =
+            "aggregate,key,count,meanLatency,meanQueueingDelay,meanServiceTime";
+    private static final String SUMMARY_ROW = "%s,%s,%d,%f,%f,%f";
+    private static final String VALIDATOR_GROUP = "validators";
+    private static final String SWITCH_GROUP = "switch_group_%d";
+
+    private final Path path;
+    private final Path summaryPath;
+    private final DataOutputStream out;
+    private final double sampleRate;
+    private final SplittableRandom random;
+    private final Map<Node<?>, Integer> nodeIndexMap;
+    private int numValidators;
+    private String[] nodeGroups;
+    private final Map<Integer, Aggregate> hopCountAggregates;
+    private final Map<String, Aggregate> groupAggregates;
+    private long numSampled;
+    private long numDelivered;
+
+    /**
+     * @param path Path of the flight file, which is replaced if it exists.
+     * @param summaryPath Path of the summary csv file, which is replaced if it exists.
+     * @param sampleRate Probability of each payload being sampled.
+     * @param seed Seed of the generator sampling payloads.
+     */
+    public FlightRecorder(Path path, Path summaryPath, double sampleRate, long seed) {
+        this.path = path;
+        this.summaryPath = summaryPath;
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create flight file " + path + ".\n" + e);
+        }
+        this.sampleRate = sampleRate;
+        this.random = new SplittableRandom(seed);
+        this.nodeIndexMap = new IdentityHashMap<>();
+        this.hopCountAggregates = new TreeMap<>();
+        this.groupAggregates = new TreeMap<>();
+        this.numSampled = 0;
+        this.numDelivered = 0;
+    }
+
+    /**
+     * Writes the header of the flight file of a run with {@code validators} and {@code switches}, whose messages
+     * have the types {@code messageTypes}. Must be called once before any payload is sampled.
+     */
+    public void registerNodes(List<? extends Node<?>> validators, List<? extends List<? extends Node<?>>> switches,
+            Collection<String> messageTypes) {
+        numValidators = validators.size();
+        nodeGroups = new String[numValidators + switches.stream().mapToInt(List::size).sum()];
+        validators.forEach(validator -> {
+            nodeGroups[nodeIndexMap.size()] = VALIDATOR_GROUP;
+            nodeIndexMap.put(validator, nodeIndexMap.size());
+        });
+        for (int i = 0; i < switches.size(); i++) {
+            for (Node<?> switch_ : switches.get(i)) {
+                nodeGroups[nodeIndexMap.size()] = String.format(SWITCH_GROUP, i);
+                nodeIndexMap.put(switch_, nodeIndexMap.size());
+            }
+        }
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numValidators);
+            out.writeInt(nodeIndexMap.size());
+            for (Node<?> validator : validators) {
+                out.writeUTF(validator.getName());
+            }
+            for (List<? extends Node<?>> group : switches) {
+                for (Node<?> switch_ : group) {
+                    out.writeUTF(switch_.getName());
+                }
+            }
+            out.writeInt(messageTypes.size());
+            for (String messageType : messageTypes) {
+                out.writeUTF(messageType);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write to flight file " + path + ".\n" + e);
+        }
+    }
+
+    /**
+     * Samples {@code payload}, which has just been created, starting its flight if it is sampled.
+     */
+    public void sample(Payload<?> payload, int programId) {
+        if (random.nextDouble() >= sampleRate) {
+            return;
+        }
+        BFTMessage message = (BFTMessage) payload.getMessage();
+        payload.setFlight(new MessageFlight(this, programId, message.getTypeIndex(), message.getSenderId(),
+                message.getRecipientId()));
+        numSampled++;
+    }
+
+    int getNodeIndex(Node<?> node) {
+        return nodeIndexMap.get(node);
+    }
+
+    boolean isValidator(int nodeIndex) {
+        return nodeIndex < numValidators;
+    }
+
+    /**
+     * Writes and aggregates {@code flight}, which has been delivered.
+     */
+    void complete(MessageFlight flight) {
+        int numHops = flight.getNumHops();
+        double totalQueueingDelay = 0;
+        double totalServiceTime = 0;
+        try {
+            out.writeInt(flight.getProgramId());
+            out.writeInt(flight.getMessageType());
+            out.writeInt(flight.getSender());
+            out.writeInt(flight.getRecipient());
+            out.writeDouble(flight.getArrivalTime(0));
+            out.writeShort(numHops);
+            for (int hop = 0; hop < numHops; hop++) {
+                double queueingDelay = flight.getQueueingDelay(hop);
+                double serviceTime = flight.getServiceTime(hop);
+                out.writeInt(flight.getNode(hop));
+                out.writeFloat((float) queueingDelay);
+                out.writeFloat((float) serviceTime);
+                groupAggregates.computeIfAbsent(nodeGroups[flight.getNode(hop)], group -> new Aggregate())
+                        .add(queueingDelay + serviceTime, queueingDelay, serviceTime);
+                totalQueueingDelay += queueingDelay;
+                totalServiceTime += serviceTime;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write to flight file " + path + ".\n" + e);
+        }
+        hopCountAggregates.computeIfAbsent(numHops, hops -> new Aggregate())
+                .add(flight.getLatency(), totalQueueingDelay, totalServiceTime);
+        numDelivered++;
+    }
+
+    /**
+     * Closes the flight file and writes the summary file.
+     * Flights that were not delivered by the end of the run, as they were dropped or still in flight, are counted in
+     * the summary but not written.
+     */
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close flight file " + path + ".\n" + e);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(summaryPath)) {
+            writer.write(String.format(Locale.ROOT, SUMMARY_COUNTS, numSampled, numSampled - numDelivered));
+            writer.newLine();
+            writer.write(SUMMARY_HEADER);
+            writer.newLine();
+            for (Map.Entry<Integer, Aggregate> entry : hopCountAggregates.entrySet()) {
+                writer.write(entry.getValue().toRow("hops", String.valueOf(entry.getKey())));
+                writer.newLine();
+            }
+            for (Map.Entry<String, Aggregate> entry : groupAggregates.entrySet()) {
+                writer.write(entry.getValue().toRow("group", entry.getKey()));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write flight summary " + summaryPath + ".\n" + e);
+        }
+    }
+
+    /**
+     * Sums of the latencies, queueing delays and service times of a group of flights or hops.
+     */
+    private static class Aggregate {
+
+        private long count;
+        private double totalLatency;
+        private double totalQueueingDelay;
+        private double totalServiceTime;
+
+        private void add(double latency, double queueingDelay, double serviceTime) {
+            count++;
+            totalLatency += latency;
+            totalQueueingDelay += queueingDelay;
+            totalServiceTime += serviceTime;
+        }
+
+        private String toRow(String aggregate, String key) {
+            return String.format(Locale.ROOT, SUMMARY_ROW, aggregate, key, count, totalLatency / count,
+                    totalQueueingDelay / count, totalServiceTime / count);
+        }
+    }
+}
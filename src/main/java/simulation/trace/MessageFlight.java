@@ -0,0 +1,112 @@
+package simulation.trace;
+
+import simulation.network.entity.Node;
+
+import java.util.Arrays;
+
+/**
+ * Path of a sampled payload through the network, from the first hop it is queued at to its delivery at its recipient.
+ * Each hop is the node the payload is queued at, the time it arrives at the node and the time the node starts and
+ * finishes processing it.
+ */
+public class MessageFlight {
+
+    private static final int INITIAL_NUM_HOPS = 8;
+
+    private final FlightRecorder recorder;
+    private final int programId;
+    private final int messageType;
+    private final int sender;
+    private final int recipient;
+    private int numHops;
+    private int[] nodes;
+    private double[] arrivalTimes;
+    private double[] serviceStartTimes;
+    private double[] serviceTimes;
+
+    MessageFlight(FlightRecorder recorder, int programId, int messageType, int sender, int recipient) {
+        this.recorder = recorder;
+        this.programId = programId;
+        this.messageType = messageType;
+        this.sender = sender;
+        this.recipient = recipient;
+        this.numHops = 0;
+        this.nodes = new int[INITIAL_NUM_HOPS];
+        this.arrivalTimes = new double[INITIAL_NUM_HOPS];
+        this.serviceStartTimes = new double[INITIAL_NUM_HOPS];
+        this.serviceTimes = new double[INITIAL_NUM_HOPS];
+    }
+
+    /**
+     * Records the payload arriving at the queue of {@code node} at {@code time}.
+     */
+    public void recordArrival(Node<?> node, double time) {
+        if (numHops == nodes.length) {
+            nodes = Arrays.copyOf(nodes, numHops * 2);
+            arrivalTimes = Arrays.copyOf(arrivalTimes, numHops * 2);
+            serviceStartTimes = Arrays.copyOf(serviceStartTimes, numHops * 2);
+            serviceTimes = Arrays.copyOf(serviceTimes, numHops * 2);
+        }
+        nodes[numHops] = recorder.getNodeIndex(node);
+        arrivalTimes[numHops] = time;
+        numHops++;
+    }
+
+    /**
+     * Records the node the payload last arrived at processing it from {@code time} for {@code serviceTime}.
+     * The flight is complete once it is processed by a validator, which is its recipient.
+     */
+    public void recordService(double time, double serviceTime) {
+        serviceStartTimes[numHops - 1] = time;
+        serviceTimes[numHops - 1] = serviceTime;
+        if (recorder.isValidator(nodes[numHops - 1])) {
+            recorder.complete(this);
+        }
+    }
+
+    public int getProgramId() {
+        return programId;
+    }
+
+    public int getMessageType() {
+        return messageType;
+    }
+
+    public int getSender() {
+        return sender;
+    }
+
+    public int getRecipient() {
+        return recipient;
+    }
+
+    public int getNumHops() {
+        return numHops;
+    }
+
+    /**
+     * Returns the index of the node of hop {@code hop}, validators first, then switches.
+     */
+    public int getNode(int hop) {
+        return nodes[hop];
+    }
+
+    public double getArrivalTime(int hop) {
+        return arrivalTimes[hop];
+    }
+
+    public double getQueueingDelay(int hop) {
+        return serviceStartTimes[hop] - arrivalTimes[hop];
+    }
+
+    public double getServiceTime(int hop) {
+        return serviceTimes[hop];
+    }
+
+    /**
+     * Returns the time from the payload arriving at its first hop to its recipient finishing processing it.
+     */
+    public double getLatency() {
+        return serviceStartTimes[numHops - 1] + serviceTimes[numHops - 1] - arrivalTimes[0];
+    }
+}
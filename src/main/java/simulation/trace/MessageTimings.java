@@ -0,0 +1,320 @@
+package simulation.trace;
+
+import simulation.network.entity.BFTMessage;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Delivery timings of the messages between validators in the delivery file of a trace (see {@code DeliveryRecorder}),
+ * for replaying the trace without simulating the network.
+ *
+ * A message sent in the replay is matched to the first unused message of the delivery file sent by the same sender with
+ * the same recipient, program, type and view or round. Only the {@code MAX_LOOKAHEAD} messages of the sender following
+ * its first unused message (or its most recent match, if later) are searched, and messages more than
+ * {@code MAX_LOOKAHEAD} messages before its most recent match are no longer used, so that a changed protocol does not
+ * search the whole file for every message. A message without a matching message, such as one only sent by a changed
+ * protocol, takes the mean delays of the delivered messages of its type.
+ *
+ * Messages that were sent but never processed count as dropped if a message sent after them by the same sender to the
+ * same recipient was processed. Otherwise they were still in flight at the end of the trace and take the mean delays
+ * of their type, but start being processed no earlier than the end of the trace and after its last event.
+ */
+public class MessageTimings {
+
+    private static final int MAX_LOOKAHEAD = 1024;
+    private static final byte DELIVERED = 0;
+    private static final byte DROPPED = 1;
+    private static final byte IN_FLIGHT = 2;
+
+    private final Path path;
+    private final List<String> messageTypes;
+    private final SentMessages[] sentMessages;
+    private final double endTime;
+    private final long numEvents;
+    private final double[] meanStartDelays;
+    private final double[] meanEndDelays;
+    private int numMatched;
+    private int numUnmatched;
+
+    private MessageTimings(Path path, List<String> messageTypes, SentMessages[] sentMessages, double endTime,
+            long numEvents, double[] meanStartDelays, double[] meanEndDelays) {
+        this.path = path;
+        this.messageTypes = messageTypes;
+        this.sentMessages = sentMessages;
+        this.endTime = endTime;
+        this.numEvents = numEvents;
+        this.meanStartDelays = meanStartDelays;
+        this.meanEndDelays = meanEndDelays;
+        this.numMatched = 0;
+        this.numUnmatched = 0;
+    }
+
+    /**
+     * Reads the delivery timings of the messages between validators in the delivery file at {@code path}.
+     */
+    public static MessageTimings read(Path path) {
+        List<String> messageTypes = new ArrayList<>();
+        SentMessages[] sentMessages;
+        double endTime;
+        long numEvents;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != DeliveryRecorder.MAGIC) {
+                throw new IOException("Not a delivery file.");
+            }
+            int version = in.readInt();
+            if (version != DeliveryRecorder.VERSION) {
+                throw new IOException(String.format("Delivery file version %d is not supported.", version));
+            }
+            int numValidators = in.readInt();
+            int numMessageTypes = in.readInt();
+            for (int i = 0; i < numMessageTypes; i++) {
+                messageTypes.add(in.readUTF());
+            }
+            endTime = in.readDouble();
+            numEvents = in.readLong();
+            sentMessages = new SentMessages[numValidators];
+            for (int i = 0; i < numValidators; i++) {
+                sentMessages[i] = SentMessages.readFrom(in, i);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read delivery file " + path + ".\n" + e);
+        }
+
+        int numValidators = sentMessages.length;
+        double[][] lastStartedSendTimes = new double[numValidators][numValidators];
+        for (SentMessages senderMessages : sentMessages) {
+            for (int i = 0; i < senderMessages.size; i++) {
+                if (!Double.isNaN(senderMessages.startTimes[i])) {
+                    double[] senderLastStartedSendTimes = lastStartedSendTimes[senderMessages.sender];
+                    senderLastStartedSendTimes[senderMessages.recipients[i]] = Math.max(
+                            senderLastStartedSendTimes[senderMessages.recipients[i]], senderMessages.sendTimes[i]);
+                }
+            }
+        }
+
+        int all = messageTypes.size();
+        double[] totalStartDelays = new double[all + 1];
+        double[] totalEndDelays = new double[all + 1];
+        int[] numDelivered = new int[all + 1];
+        for (SentMessages senderMessages : sentMessages) {
+            for (int i = 0; i < senderMessages.size; i++) {
+                int type = senderMessages.messageTypes[i];
+                if (!Double.isNaN(senderMessages.endTimes[i])) {
+                    senderMessages.statuses[i] = DELIVERED;
+                    totalStartDelays[type] += senderMessages.startTimes[i] - senderMessages.sendTimes[i];
+                    totalEndDelays[type] += senderMessages.endTimes[i] - senderMessages.sendTimes[i];
+                    numDelivered[type]++;
+                } else if (senderMessages.sendTimes[i]
+                        >= lastStartedSendTimes[senderMessages.sender][senderMessages.recipients[i]]) {
+                    senderMessages.statuses[i] = IN_FLIGHT;
+                } else {
+                    senderMessages.statuses[i] = DROPPED;
+                }
+            }
+        }
+        for (int type = 0; type < all; type++) {
+            totalStartDelays[all] += totalStartDelays[type];
+            totalEndDelays[all] += totalEndDelays[type];
+            numDelivered[all] += numDelivered[type];
+        }
+        if (numDelivered[all] == 0) {
+            throw new RuntimeException("Delivery file " + path + " has no messages delivered between validators.");
+        }
+        double[] meanStartDelays = new double[all];
+        double[] meanEndDelays = new double[all];
+        for (int type = 0; type < all; type++) {
+            int meanIndex = numDelivered[type] == 0 ? all : type;
+            meanStartDelays[type] = totalStartDelays[meanIndex] / numDelivered[meanIndex];
+            meanEndDelays[type] = totalEndDelays[meanIndex] / numDelivered[meanIndex];
+        }
+        return new MessageTimings(path, messageTypes, sentMessages, endTime, numEvents, meanStartDelays,
+                meanEndDelays);
+    }
+
+    /**
+     * Checks that the trace was recorded with {@code numValidators} validators running programs with
+     * {@code messageTypes}.
+     */
+    public void checkCompatibility(int numValidators, Collection<String> messageTypes) {
+        if (numValidators != sentMessages.length || !new ArrayList<>(messageTypes).equals(this.messageTypes)) {
+            throw new RuntimeException(String.format("Delivery file %s of %d validators with messages %s cannot be "
+                    + "replayed by %d validators with messages %s.", path, sentMessages.length, this.messageTypes,
+                    numValidators, messageTypes));
+        }
+    }
+
+    /**
+     * Returns the delivery of {@code message} of the program numbered {@code programId} sent at {@code sendTime}, or
+     * an empty optional if the message was dropped.
+     * A message sent at the same time as its matching message in the trace is delivered at the same times, while other
+     * messages are delivered after the same delays. Each message of the trace is only matched once.
+     */
+    public Optional<Delivery> pollDelivery(BFTMessage message, int programId, double sendTime) {
+        SentMessages senderMessages = sentMessages[message.getSenderId()];
+        int index = senderMessages.find(message.getRecipientId(), programId, message.getTypeIndex(),
+                message.getViewOrRound());
+        int type = message.getTypeIndex();
+        if (index == -1) {
+            numUnmatched++;
+            return Optional.of(new Delivery(sendTime + meanStartDelays[type], sendTime + meanEndDelays[type],
+                    Delivery.NO_SEQUENCE));
+        }
+        senderMessages.use(index);
+        numMatched++;
+        double recordedSendTime = senderMessages.sendTimes[index];
+        switch (senderMessages.statuses[index]) {
+        case DROPPED:
+            return Optional.empty();
+        case IN_FLIGHT:
+            double startDelay = Math.max(meanStartDelays[type], endTime - recordedSendTime);
+            return Optional.of(new Delivery(sendTime + startDelay,
+                    sendTime + startDelay + meanEndDelays[type] - meanStartDelays[type], numEvents));
+        default:
+            if (sendTime == recordedSendTime) {
+                return Optional.of(new Delivery(senderMessages.startTimes[index], senderMessages.endTimes[index],
+                        senderMessages.sequences[index]));
+            }
+            return Optional.of(new Delivery(sendTime + senderMessages.startTimes[index] - recordedSendTime,
+                    sendTime + senderMessages.endTimes[index] - recordedSendTime, senderMessages.sequences[index]));
+        }
+    }
+
+    /**
+     * Returns the number of messages polled that matched a message in the trace.
+     */
+    public int getNumMatched() {
+        return numMatched;
+    }
+
+    /**
+     * Returns the number of messages polled that took the mean delays of their type.
+     */
+    public int getNumUnmatched() {
+        return numUnmatched;
+    }
+
+    /**
+     * Delivery of a message in a replay, whose processing starts at {@code startTime} and ends at {@code endTime}.
+     * {@code sequence} is the sequence number of the event of the trace at which the processing of its matching message
+     * started, the number of events of the trace if its matching message was still in flight at the end of the trace,
+     * or {@code NO_SEQUENCE} if it has no matching message.
+     */
+    public static class Delivery {
+
+        public static final long NO_SEQUENCE = -1;
+
+        private final double startTime;
+        private final double endTime;
+        private final long sequence;
+
+        private Delivery(double startTime, double endTime, long sequence) {
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.sequence = sequence;
+        }
+
+        public double getStartTime() {
+            return startTime;
+        }
+
+        public double getEndTime() {
+            return endTime;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+
+    /**
+     * Messages sent by a validator in the trace, in the order they were sent.
+     */
+    private static class SentMessages {
+
+        private final int sender;
+        private final int size;
+        private final int[] recipients;
+        private final int[] programIds;
+        private final int[] messageTypes;
+        private final int[] viewOrRounds;
+        private final long[] sequences;
+        private final double[] sendTimes;
+        private final double[] startTimes;
+        private final double[] endTimes;
+        private final byte[] statuses;
+        private final boolean[] isUsed;
+        private int firstUnused;
+        private int lastMatched;
+
+        private SentMessages(int sender, int size) {
+            this.sender = sender;
+            this.size = size;
+            this.recipients = new int[size];
+            this.programIds = new int[size];
+            this.messageTypes = new int[size];
+            this.viewOrRounds = new int[size];
+            this.sequences = new long[size];
+            this.sendTimes = new double[size];
+            this.startTimes = new double[size];
+            this.endTimes = new double[size];
+            this.statuses = new byte[size];
+            this.isUsed = new boolean[size];
+            this.firstUnused = 0;
+            this.lastMatched = 0;
+        }
+
+        /**
+         * Reads the messages of the next validator from {@code in}, whose sections are in order of the validators.
+         */
+        private static SentMessages readFrom(DataInputStream in, int sender) throws IOException {
+            SentMessages messages = new SentMessages(sender, in.readInt());
+            byte[] records = new byte[messages.size * DeliveryRecorder.RECORD_SIZE];
+            in.readFully(records);
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            for (int i = 0; i < messages.size; i++) {
+                messages.recipients[i] = buffer.getInt();
+                messages.programIds[i] = buffer.getInt();
+                messages.messageTypes[i] = buffer.getInt();
+                messages.viewOrRounds[i] = buffer.getInt();
+                messages.sequences[i] = buffer.getLong();
+                messages.sendTimes[i] = buffer.getDouble();
+                messages.startTimes[i] = buffer.getDouble();
+                messages.endTimes[i] = buffer.getDouble();
+            }
+            return messages;
+        }
+
+        /**
+         * Returns the index of the first unused message with the given recipient, program, type and view or round
+         * within the searched messages, or -1 if there is none.
+         */
+        private int find(int recipient, int programId, int messageType, int viewOrRound) {
+            int end = Math.min(size, Math.max(firstUnused, lastMatched) + MAX_LOOKAHEAD);
+            for (int i = firstUnused; i < end; i++) {
+                if (!isUsed[i] && recipients[i] == recipient && programIds[i] == programId
+                        && messageTypes[i] == messageType && viewOrRounds[i] == viewOrRound) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void use(int index) {
+            isUsed[index] = true;
+            lastMatched = index;
+            firstUnused = Math.max(firstUnused, index - MAX_LOOKAHEAD);
+            while (firstUnused < size && isUsed[firstUnused]) {
+                firstUnused++;
+            }
+        }
+    }
+}
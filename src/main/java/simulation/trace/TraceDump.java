@@ -0,0 +1,56 @@
+package simulation.trace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static simulation.util.OptionUtil.extractOption;
+
+/**
+ * Prints the records of a trace file as text, one record per line.
+ *
+ * Arguments: {@code <trace file> [--limit <number of records>]}
+ */
+public class TraceDump {
+
+    private static final String LIMIT_OPTION = "--limit";
+
+    public static void main(String[] args) {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        long limit = extractOption(arguments, LIMIT_OPTION)
+                .map(Long::parseLong)
+                .orElse(Long.MAX_VALUE);
+        if (arguments.size() != 1) {
+            throw new RuntimeException("Usage: TraceDump <trace file> [--limit <number of records>]");
+        }
+        try (TraceReader reader = new TraceReader(Paths.get(arguments.get(0)));
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out))) {
+            if (reader.isFiltered()) {
+                System.err.println("The trace only holds the events selected by the traceFilter of its run.");
+            }
+            List<String> nodeNames = reader.getNodeNames();
+            List<String> messageTypes = reader.getMessageTypes();
+            StringBuilder output = new StringBuilder();
+            for (long i = 0; i < limit && reader.hasNext(); i++) {
+                output.setLength(0);
+                TraceRecord record = reader.next();
+                output.append(String.format("%.6f %s %s", record.getTime(), record.getType(),
+                        nodeNames.get(record.getNode())));
+                if (record.getType().hasMessage()) {
+                    output.append(String.format(" P%d %s %d->%d view/round %d", record.getProgramId(),
+                            messageTypes.get(record.getMessageType()), record.getSender(), record.getRecipient(),
+                            record.getViewOrRound()));
+                } else if (record.getType() == TraceEventType.TIMER) {
+                    output.append(String.format(" P%d", record.getProgramId()));
+                }
+                out.write(output.append('\n').toString());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to print trace.\n" + e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package simulation.trace;
+
+import simulation.event.InitializationEvent;
+import simulation.event.NodeEvent;
+import simulation.event.ProcessedPayloadEvent;
+import simulation.event.ProcessingDelayEvent;
+import simulation.event.QueueEvent;
+import simulation.event.TimedEvent;
+
+/**
+ * Types of the events recorded in a trace.
+ */
+public enum TraceEventType {
+    /**
+     * A node producing its initial payloads.
+     */
+    INITIALIZATION(false),
+    /**
+     * A node passing a payload on to the queue of its next hop.
+     */
+    QUEUE(true),
+    /**
+     * A node starting to process a payload from its queue.
+     */
+    PROCESS(true),
+    /**
+     * A node finishing processing a payload.
+     */
+    PROCESSED(false),
+    /**
+     * A timer set by a consensus program of a validator expiring.
+     */
+    TIMER(false);
+
+    private final boolean hasMessage;
+
+    TraceEventType(boolean hasMessage) {
+        this.hasMessage = hasMessage;
+    }
+
+    /**
+     * Returns true if events of this type involve a message.
+     */
+    public boolean hasMessage() {
+        return hasMessage;
+    }
+
+    /**
+     * Returns the type of {@code event}.
+     */
+    public static TraceEventType of(NodeEvent<?> event) {
+        if (event instanceof QueueEvent) {
+            return QUEUE;
+        } else if (event instanceof ProcessingDelayEvent) {
+            return PROCESS;
+        } else if (event instanceof ProcessedPayloadEvent) {
+            return PROCESSED;
+        } else if (event instanceof TimedEvent) {
+            return TIMER;
+        } else if (event instanceof InitializationEvent) {
+            return INITIALIZATION;
+        }
+        throw new IllegalArgumentException("Unrecognised event " + event + ".");
+    }
+}
@@ -0,0 +1,186 @@
+package simulation.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the records of a trace file written by {@code TraceRecorder} in order, one block at a time.
+ */
+public class TraceReader implements Iterator<TraceRecord>, Closeable {
+
+    private static final TraceEventType[] EVENT_TYPES = TraceEventType.values();
+
+    private final Path path;
+    private final DataInputStream in;
+    private final boolean isFiltered;
+    private final int numValidators;
+    private final List<String> nodeNames;
+    private final List<String> messageTypes;
+    private final Inflater inflater;
+    private byte[] compressed;
+    private final byte[] block;
+    private int blockLength;
+    private int position;
+    private long previousTicks;
+
+    /**
+     * Opens the trace file at {@code path} and reads its header.
+     */
+    public TraceReader(Path path) {
+        this.path = path;
+        try {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+            if (in.readInt() != TraceRecorder.MAGIC) {
+                throw new IOException("Not a trace file.");
+            }
+            int version = in.readInt();
+            if (version != TraceRecorder.VERSION) {
+                throw new IOException(String.format("Trace version %d is not supported.", version));
+            }
+            this.isFiltered = in.readBoolean();
+            this.numValidators = in.readInt();
+            int numNodes = in.readInt();
+            this.nodeNames = new ArrayList<>();
+            for (int i = 0; i < numNodes; i++) {
+                nodeNames.add(in.readUTF());
+            }
+            int numMessageTypes = in.readInt();
+            this.messageTypes = new ArrayList<>();
+            for (int i = 0; i < numMessageTypes; i++) {
+                messageTypes.add(in.readUTF());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read trace file " + path + ".\n" + e);
+        }
+        this.inflater = new Inflater();
+        this.compressed = new byte[0];
+        this.block = new byte[TraceRecorder.BLOCK_SIZE];
+        this.blockLength = 0;
+        this.position = 0;
+    }
+
+    /**
+     * Returns true if the trace only holds the events selected by a filter, rather than every event of its run.
+     */
+    public boolean isFiltered() {
+        return isFiltered;
+    }
+
+    /**
+     * Returns the number of validators, which are the nodes with the lowest indices.
+     */
+    public int getNumValidators() {
+        return numValidators;
+    }
+
+    /**
+     * Returns the names of the nodes of the trace, indexed by their index in the trace.
+     */
+    public List<String> getNodeNames() {
+        return nodeNames;
+    }
+
+    /**
+     * Returns the names of the message types of the trace, indexed by their index in the trace.
+     */
+    public List<String> getMessageTypes() {
+        return messageTypes;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < blockLength) {
+            return true;
+        }
+        return readBlock();
+    }
+
+    @Override
+    public TraceRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more records in trace file " + path + ".");
+        }
+        TraceEventType type = EVENT_TYPES[block[position++]];
+        previousTicks += unZigZag(readVarint());
+        double time = previousTicks / TraceRecorder.TICKS_PER_TIME_UNIT;
+        int node = (int) readVarint();
+        if (type.hasMessage()) {
+            int programId = (int) readVarint();
+            int messageType = (int) readVarint();
+            int sender = (int) readVarint();
+            int recipient = (int) readVarint();
+            int viewOrRound = (int) unZigZag(readVarint());
+            return new TraceRecord(type, time, node, programId, messageType, sender, recipient, viewOrRound);
+        }
+        int programId = type == TraceEventType.TIMER ? (int) readVarint() : TraceRecord.NONE;
+        return new TraceRecord(type, time, node, programId, TraceRecord.NONE, TraceRecord.NONE, TraceRecord.NONE,
+                TraceRecord.NONE);
+    }
+
+    /**
+     * Reads and decompresses the next block, returning false if the end of the file is reached.
+     */
+    private boolean readBlock() {
+        try {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            int compressedLength = in.readInt();
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            in.readFully(compressed, 0, compressedLength);
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            blockLength = inflater.inflate(block, 0, length);
+            if (blockLength != length) {
+                throw new IOException(String.format("Block has %d bytes instead of %d.", blockLength, length));
+            }
+        } catch (IOException | DataFormatException e) {
+            throw new RuntimeException("Unable to read trace file " + path + ".\n" + e);
+        }
+        position = 0;
+        previousTicks = 0;
+        return blockLength > 0;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        byte currentByte;
+        do {
+            currentByte = block[position++];
+            value |= (long) (currentByte & 0x7f) << shift;
+            shift += 7;
+        } while (currentByte < 0);
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public void close() {
+        inflater.end();
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close trace file " + path + ".\n" + e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package simulation.trace;
+
+/**
+ * Event read from a trace.
+ * Events that do not involve a message have {@code NONE} as their message type, sender, recipient and view or round.
+ */
+public class TraceRecord {
+
+    public static final int NONE = -1;
+
+    private final TraceEventType type;
+    private final double time;
+    private final int node;
+    private final int programId;
+    private final int messageType;
+    private final int sender;
+    private final int recipient;
+    private final int viewOrRound;
+
+    /**
+     * @param type Type of the event.
+     * @param time Simulated time of the event.
+     * @param node Index of the node of the event in the trace.
+     * @param programId Id of the consensus program the message or timer belongs to, or {@code NONE}.
+     * @param messageType Index of the type of the message among the message types of the trace.
+     * @param sender Id of the validator that sent the message.
+     * @param recipient Id of the validator the message is sent to.
+     * @param viewOrRound View or round the message was sent in.
+     */
+    public TraceRecord(TraceEventType type, double time, int node, int programId, int messageType, int sender,
+            int recipient, int viewOrRound) {
+        this.type = type;
+        this.time = time;
+        this.node = node;
+        this.programId = programId;
+        this.messageType = messageType;
+        this.sender = sender;
+        this.recipient = recipient;
+        this.viewOrRound = viewOrRound;
+    }
+
+    public TraceEventType getType() {
+        return type;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public int getNode() {
+        return node;
+    }
+
+    public int getProgramId() {
+        return programId;
+    }
+
+    public int getMessageType() {
+        return messageType;
+    }
+
+    public int getSender() {
+        return sender;
+    }
+
+    public int getRecipient() {
+        return recipient;
+    }
+
+    public int getViewOrRound() {
+        return viewOrRound;
+    }
+}
@@ -0,0 +1,290 @@
+package simulation.trace;
+
+import simulation.event.InitializationEvent;
+import simulation.event.NodeEvent;
+import simulation.event.ProcessedPayloadEvent;
+import simulation.event.ProcessingDelayEvent;
+import simulation.event.QueueEvent;
+import simulation.event.TimedEvent;
+import simulation.network.entity.BFTMessage;
+import simulation.network.entity.Node;
+import simulation.network.entity.Payload;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Records the events of a simulation run to a compact binary trace file, read by {@code TraceReader}.
+ *
+ * The file starts with a header of the int magic {@code MAGIC}, the int {@code VERSION}, a boolean byte that is true if
+ * the trace only holds the events selected by a filter (see {@code EventFilter}), the number of validators, the names
+ * of all nodes (validators first, then switches) and the names of the message types of the run. It is followed
+ * by blocks of records, each of which is the int length of the block, the int length of the block compressed with
+ * {@code Deflater} and the compressed block.
+ *
+ * Each record is the byte ordinal of its {@code TraceEventType}, the zig-zag varint difference in simulated time from
+ * the previous record of the block in units of 1 / {@code TICKS_PER_TIME_UNIT} and the varint index of its node.
+ * Records of events with a message are followed by the varint program id, message type, sender and recipient and the
+ * zig-zag varint view or round of the message, while records of timers are followed by the varint program id.
+ *
+ * Records are encoded into blocks on the simulation thread. Full blocks are compressed and written by a separate
+ * writer thread, to which they are handed through a fixed ring of {@code NUM_BLOCKS} reused blocks. The simulation
+ * waits for the writer if all blocks are full, so no records are lost.
+ *
+ * The delivery times of the messages between validators are also written to a separate delivery file when the trace
+ * is closed (see {@code DeliveryRecorder}), from which the run can be replayed.
+ */
+public class TraceRecorder implements Closeable {
+
+    public static final int MAGIC = 0x42545231; // "BTR1"
+    public static final int VERSION = 2;
+    public static final double TICKS_PER_TIME_UNIT = 1e6;
+    static final int BLOCK_SIZE = 1 << 16;
+    private static final int NUM_BLOCKS = 8;
+    private static final int MAX_RECORD_SIZE = 1 + 7 * 10;
+    private static final String WRITER_THREAD_NAME = "trace-writer-%s";
+
+    private final Path path;
+    private final DataOutputStream out;
+    private final Map<Node<?>, Integer> nodeIndexMap;
+    private final DeliveryRecorder deliveryRecorder;
+    private final BlockingQueue<Block> freeBlocks;
+    private final BlockingQueue<Block> fullBlocks;
+    private Thread writerThread;
+    private volatile IOException writerException;
+
+    private Block currentBlock;
+    private long previousTicks;
+
+    /**
+     * Creates a recorder writing to a new trace file at {@code path} and a delivery file at {@code deliveryPath},
+     * replacing any existing files.
+     */
+    public TraceRecorder(Path path, Path deliveryPath) {
+        this.path = path;
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BLOCK_SIZE));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create trace file " + path + ".\n" + e);
+        }
+        this.nodeIndexMap = new IdentityHashMap<>();
+        this.deliveryRecorder = new DeliveryRecorder(deliveryPath);
+        this.freeBlocks = new ArrayBlockingQueue<>(NUM_BLOCKS);
+        this.fullBlocks = new ArrayBlockingQueue<>(NUM_BLOCKS + 1);
+        for (int i = 0; i < NUM_BLOCKS - 1; i++) {
+            freeBlocks.add(new Block());
+        }
+        this.currentBlock = new Block();
+        this.previousTicks = 0;
+    }
+
+    /**
+     * Writes the header of the trace of a run with {@code validators} and {@code switches}, whose messages have the
+     * types {@code messageTypes}, and starts the writer thread. {@code isFiltered} is true if only the events selected
+     * by a filter are recorded. Must be called once before any event is recorded.
+     */
+    public void registerNodes(List<? extends Node<?>> validators, List<? extends List<? extends Node<?>>> switches,
+            Collection<String> messageTypes, boolean isFiltered) {
+        validators.forEach(validator -> nodeIndexMap.put(validator, nodeIndexMap.size()));
+        switches.forEach(group -> group.forEach(switch_ -> nodeIndexMap.put(switch_, nodeIndexMap.size())));
+        deliveryRecorder.registerValidators(validators.size(), messageTypes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(isFiltered);
+            out.writeInt(validators.size());
+            out.writeInt(nodeIndexMap.size());
+            for (Node<?> validator : validators) {
+                out.writeUTF(validator.getName());
+            }
+            for (List<? extends Node<?>> group : switches) {
+                for (Node<?> switch_ : group) {
+                    out.writeUTF(switch_.getName());
+                }
+            }
+            out.writeInt(messageTypes.size());
+            for (String messageType : messageTypes) {
+                out.writeUTF(messageType);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write to trace file " + path + ".\n" + e);
+        }
+        writerThread = new Thread(this::writeBlocks, String.format(WRITER_THREAD_NAME, path.getFileName()));
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Records the messages sent and processed by validators in {@code event}, which has just been simulated and
+     * resulted in {@code resultingEvents}.
+     * Must be called once for every event of the run, in order, whether or not the event is recorded to the trace.
+     */
+    public void recordDeliveries(NodeEvent<?> event, List<? extends NodeEvent<?>> resultingEvents) {
+        deliveryRecorder.recordEvent(event, nodeIndexMap.get(event.getNode()), resultingEvents);
+    }
+
+    /**
+     * Records {@code event} to the trace, which has just been simulated.
+     */
+    public void recordEvent(NodeEvent<?> event) {
+        int node = nodeIndexMap.get(event.getNode());
+        if (event instanceof QueueEvent) {
+            for (Payload<?> payload : ((QueueEvent<?>) event).getPayloads()) {
+                recordMessage(TraceEventType.QUEUE, event.getTime(), node, payload);
+            }
+        } else if (event instanceof ProcessingDelayEvent) {
+            recordMessage(TraceEventType.PROCESS, event.getTime(), node,
+                    ((ProcessingDelayEvent<?>) event).getPayload());
+        } else if (event instanceof ProcessedPayloadEvent) {
+            recordHeader(TraceEventType.PROCESSED, event.getTime(), node);
+        } else if (event instanceof TimedEvent) {
+            recordHeader(TraceEventType.TIMER, event.getTime(), node);
+            currentBlock.writeVarint(((TimedEvent<?>) event).getId());
+        } else if (event instanceof InitializationEvent) {
+            recordHeader(TraceEventType.INITIALIZATION, event.getTime(), node);
+        }
+    }
+
+    private void recordMessage(TraceEventType type, double time, int node, Payload<?> payload) {
+        BFTMessage message = (BFTMessage) payload.getMessage();
+        recordHeader(type, time, node);
+        currentBlock.writeVarint(payload.getProgramId());
+        currentBlock.writeVarint(message.getTypeIndex());
+        currentBlock.writeVarint(message.getSenderId());
+        currentBlock.writeVarint(message.getRecipientId());
+        currentBlock.writeVarint(zigZag(message.getViewOrRound()));
+    }
+
+    /**
+     * Starts a record of {@code type} at {@code time} for {@code node}, handing the current block to the writer
+     * first if the record may not fit in it.
+     */
+    private void recordHeader(TraceEventType type, double time, int node) {
+        if (currentBlock.length > BLOCK_SIZE - MAX_RECORD_SIZE) {
+            handOffCurrentBlock();
+        }
+        long ticks = Math.round(time * TICKS_PER_TIME_UNIT);
+        currentBlock.writeByte(type.ordinal());
+        currentBlock.writeVarint(zigZag(ticks - previousTicks));
+        currentBlock.writeVarint(node);
+        previousTicks = ticks;
+    }
+
+    private void handOffCurrentBlock() {
+        try {
+            fullBlocks.put(currentBlock);
+            currentBlock = freeBlocks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while recording trace to " + path + ".\n" + e);
+        }
+        currentBlock.length = 0;
+        previousTicks = 0;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Compresses and writes the full blocks until the end of the trace is reached.
+     * Blocks are returned to the ring even if writing fails, so that the simulation is never blocked.
+     */
+    private void writeBlocks() {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] compressed = new byte[BLOCK_SIZE + BLOCK_SIZE / 8 + 64];
+        try {
+            while (true) {
+                Block block = fullBlocks.take();
+                if (block.length < 0) {
+                    break;
+                }
+                if (writerException == null) {
+                    try {
+                        deflater.reset();
+                        deflater.setInput(block.data, 0, block.length);
+                        deflater.finish();
+                        int compressedLength = deflater.deflate(compressed);
+                        out.writeInt(block.length);
+                        out.writeInt(compressedLength);
+                        out.write(compressed, 0, compressedLength);
+                    } catch (IOException e) {
+                        writerException = e;
+                    }
+                }
+                freeBlocks.put(block);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Writes the remaining records, closes the trace file and writes the delivery file.
+     */
+    @Override
+    public void close() {
+        try {
+            if (writerThread != null) {
+                if (currentBlock.length > 0) {
+                    fullBlocks.put(currentBlock);
+                }
+                Block endBlock = new Block();
+                endBlock.length = -1;
+                fullBlocks.put(endBlock);
+                writerThread.join();
+            }
+            out.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while closing trace file " + path + ".\n" + e);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to close trace file " + path + ".\n" + e);
+        }
+        if (writerException != null) {
+            throw new RuntimeException("Unable to write to trace file " + path + ".\n" + writerException);
+        }
+        if (writerThread != null) {
+            deliveryRecorder.write();
+        }
+    }
+
+    /**
+     * Block of encoded records.
+     */
+    private static class Block {
+
+        private final byte[] data;
+        private int length;
+
+        private Block() {
+            this.data = new byte[BLOCK_SIZE];
+            this.length = 0;
+        }
+
+        private void writeByte(int value) {
+            data[length++] = (byte) value;
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7fL) != 0) {
+                data[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+}
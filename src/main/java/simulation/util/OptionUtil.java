@@ -0,0 +1,25 @@
+package simulation.util;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Contains utility methods for parsing command line options.
+ */
+public class OptionUtil {
+
+    /**
+     * Removes {@code option} and the value following it from {@code arguments} and returns the value.
+     */
+    public static Optional<String> extractOption(List<String> arguments, String option) {
+        int index = arguments.indexOf(option);
+        if (index == -1) {
+            return Optional.empty();
+        } else if (index == arguments.size() - 1) {
+            throw new RuntimeException(String.format("Missing value for option %s.", option));
+        }
+        String value = arguments.remove(index + 1);
+        arguments.remove(index);
+        return Optional.of(value);
+    }
+}
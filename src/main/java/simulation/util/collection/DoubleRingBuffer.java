@@ -0,0 +1,65 @@
+package simulation.util.collection;
+
+import java.util.NoSuchElementException;
+
+/**
+ * First-in-first-out queue of primitive doubles backed by a growable circular array.
+ * Unlike a {@code LinkedList<Double>}, adding a value neither boxes it nor allocates unless the array has to grow.
+ * The array shrinks back once the queue is mostly empty so that memory is released after a burst.
+ */
+public class DoubleRingBuffer {
+
+    private double[] values;
+    private int head;
+    private int size;
+
+    public DoubleRingBuffer() {
+        this.values = new double[RingBufferCapacity.INITIAL_CAPACITY];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds {@code value} to the back of the queue.
+     */
+    public void add(double value) {
+        if (size == values.length) {
+            resize(values.length * 2);
+        }
+        values[(head + size) & (values.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * Removes and returns the value at the front of the queue.
+     *
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public double pop() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        double value = values[head];
+        head = (head + 1) & (values.length - 1);
+        size--;
+        if (RingBufferCapacity.isShrinkable(size, values.length)) {
+            resize(values.length / 2);
+        }
+        return value;
+    }
+
+    private void resize(int capacity) {
+        double[] newValues = new double[capacity];
+        for (int i = 0; i < size; i++) {
+            newValues[i] = values[(head + i) & (values.length - 1)];
+        }
+        values = newValues;
+        head = 0;
+    }
+}
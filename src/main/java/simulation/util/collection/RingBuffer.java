@@ -0,0 +1,69 @@
+package simulation.util.collection;
+
+import java.util.NoSuchElementException;
+
+/**
+ * First-in-first-out queue backed by a growable circular array.
+ * Unlike a {@code LinkedList}, adding an element does not allocate unless the array has to grow.
+ * The array shrinks back once the queue is mostly empty so that memory is released after a burst.
+ *
+ * @param <E> Type of elements in the queue.
+ */
+public class RingBuffer<E> {
+
+    private Object[] elements;
+    private int head;
+    private int size;
+
+    public RingBuffer() {
+        this.elements = new Object[RingBufferCapacity.INITIAL_CAPACITY];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds {@code element} to the back of the queue.
+     */
+    public void add(E element) {
+        if (size == elements.length) {
+            resize(elements.length * 2);
+        }
+        elements[(head + size) & (elements.length - 1)] = element;
+        size++;
+    }
+
+    /**
+     * Removes and returns the element at the front of the queue.
+     *
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E pop() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        E element = (E) elements[head];
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        if (RingBufferCapacity.isShrinkable(size, elements.length)) {
+            resize(elements.length / 2);
+        }
+        return element;
+    }
+
+    private void resize(int capacity) {
+        Object[] newElements = new Object[capacity];
+        for (int i = 0; i < size; i++) {
+            newElements[i] = elements[(head + i) & (elements.length - 1)];
+        }
+        elements = newElements;
+        head = 0;
+    }
+}
@@ -0,0 +1,22 @@
+package simulation.util.collection;
+
+/**
+ * Capacity policy shared by the ring buffers.
+ * Capacities are powers of two so that indices wrap around with a mask.
+ */
+class RingBufferCapacity {
+
+    /**
+     * Kept small as every node holds its buffers for the whole run, while most queues stay short.
+     */
+    static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Returns true if a buffer of {@code capacity} holding {@code size} elements should be halved.
+     * Buffers are only halved once a quarter full so that a queue oscillating around a power of two does not
+     * repeatedly grow and shrink.
+     */
+    static boolean isShrinkable(int size, int capacity) {
+        return capacity > INITIAL_CAPACITY && size <= capacity / 4;
+    }
+}
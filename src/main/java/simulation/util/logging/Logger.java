@@ -15,11 +15,17 @@ public class Logger {
 
     public static final String DEFAULT_DIRECTORY = "logs";
     public static Logger MAIN_LOGGER;
+    /**
+     * File handlers are only attached after {@code setup} is called.
+     * Simulations run without setup (e.g. in server mode) do not touch the logs directory.
+     */
+    private static boolean isFileLoggingEnabled = false;
 
     private final String fileName;
     private java.util.logging.Logger logger;
 
     public static void setup() {
+        isFileLoggingEnabled = true;
         MAIN_LOGGER = new Logger("MAIN");
     }
 
@@ -27,6 +33,9 @@ public class Logger {
         this.fileName = name;
         logger = java.util.logging.Logger.getLogger(name);
         logger.setUseParentHandlers(false);
+        if (!isFileLoggingEnabled) {
+            return;
+        }
         try {
             addFileHandler(logger, DEFAULT_DIRECTORY, fileName);
         } catch (IOException ioe) {
@@ -12,6 +12,6 @@ public class BernoulliDistribution {
     }
 
     public boolean generateResult() {
-        return RNGUtil.UNIFORM_DISTRIBUTION.nextDouble() >= p;
+        return RNGUtil.nextDouble() >= p;
     }
 }
@@ -13,7 +13,7 @@ public class ExponentialDistribution implements RandomNumberGenerator {
 
     @Override
     public double generateRandomNumber() {
-        double randomUniformNumber = RNGUtil.UNIFORM_DISTRIBUTION.nextDouble();
+        double randomUniformNumber = RNGUtil.nextDouble();
         return Math.log(1 - randomUniformNumber) / (-lambda);
     }
 }
@@ -4,24 +4,33 @@ import java.util.Random;
 
 /**
  * Utility methods to perform random number generation.
+ * The generator is kept per thread so that simulations running concurrently in the same JVM
+ * do not interfere with each other's random number sequence.
  */
 public class RNGUtil {
 
-    public static long SEED = 0;
-    public static Random UNIFORM_DISTRIBUTION = new Random(SEED);
+    private static final long DEFAULT_SEED = 0;
+    private static final ThreadLocal<Random> UNIFORM_DISTRIBUTION =
+            ThreadLocal.withInitial(() -> new Random(DEFAULT_SEED));
 
     /**
-     * Sets the {@code seed} for the current run for random number generation.
+     * Sets the {@code seed} for the current run for random number generation on the calling thread.
      */
     public static void setSeed(long seed) {
-        SEED = seed;
-        UNIFORM_DISTRIBUTION = new Random(SEED);
+        UNIFORM_DISTRIBUTION.set(new Random(seed));
+    }
+
+    /**
+     * Returns a uniformly distributed double between 0 (inclusive) and 1 (exclusive).
+     */
+    public static double nextDouble() {
+        return UNIFORM_DISTRIBUTION.get().nextDouble();
     }
 
     /**
      * Returns a random integer between {@code startInclusive} and {@endExclusive}.
      */
     public static int getRandomInteger(int startInclusive, int endExclusive) {
-        return UNIFORM_DISTRIBUTION.nextInt(endExclusive - startInclusive) + startInclusive;
+        return UNIFORM_DISTRIBUTION.get().nextInt(endExclusive - startInclusive) + startInclusive;
     }
 }
@@ -13,6 +13,6 @@ public class UniformDistribution implements RandomNumberGenerator {
 
     @Override
     public double generateRandomNumber() {
-        return RNGUtil.UNIFORM_DISTRIBUTION.nextDouble() * (b - a) + a;
+        return RNGUtil.nextDouble() * (b - a) + a;
     }
 }